@@ -0,0 +1,70 @@
+package com.admin.auth.cache;
+
+import com.admin.auth.domain.dto.UserLoginResponseDTO;
+import com.admin.common.event.IdentityChangeEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * 当前用户资料缓存（/api/auth/me）
+ * 以 (用户ID, 权限版本) 为键缓存组装好的用户资料与角色：
+ * <ul>
+ *     <li>权限版本取自令牌的 ver 声明，权限变更后签发的新令牌自然落到新键上</li>
+ *     <li>订阅 identity 变更事件主动失效：用户变更清除该用户全部版本，角色变更清空全部</li>
+ *     <li>只缓存完整结果，角色获取失败时的默认角色不入缓存</li>
+ * </ul>
+ * 缓存值为共享实例，调用方不得修改。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+@Component
+public class CurrentUserCache {
+
+    private final Cache<ProfileKey, UserLoginResponseDTO> cache;
+
+    public CurrentUserCache(MeterRegistry meterRegistry,
+                            @Value("${auth.cache.current-user-ttl:PT10M}") Duration ttl,
+                            @Value("${auth.cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.user.current");
+    }
+
+    public UserLoginResponseDTO get(Long userId, long version) {
+        return cache.getIfPresent(new ProfileKey(userId, version));
+    }
+
+    public void put(Long userId, long version, UserLoginResponseDTO profile) {
+        cache.put(new ProfileKey(userId, version), profile);
+    }
+
+    /**
+     * 处理身份变更事件
+     */
+    public void onIdentityChange(IdentityChangeEvent event) {
+        if (event.getType() == IdentityChangeEvent.Type.ROLE) {
+            cache.invalidateAll();
+            return;
+        }
+        Long userId = event.getUserId();
+        if (userId != null) {
+            cache.asMap().keySet().removeIf(key -> userId.equals(key.userId()));
+            log.debug("当前用户资料缓存已失效: userId={}", userId);
+        }
+    }
+
+    private record ProfileKey(Long userId, long version) {
+    }
+}
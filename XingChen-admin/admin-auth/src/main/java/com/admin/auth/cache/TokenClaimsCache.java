@@ -0,0 +1,77 @@
+package com.admin.auth.cache;
+
+import com.admin.common.util.JwtUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已验签令牌声明缓存
+ * 同一令牌只验签解析一次，条目在令牌 exp 时过期；解析失败不缓存。
+ * 只省去验签开销，吊销状态仍由调用方每次校验。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Component
+public class TokenClaimsCache {
+
+    private final Cache<String, Claims> cache;
+
+    public TokenClaimsCache(MeterRegistry meterRegistry,
+                            @Value("${auth.cache.max-size:10000}") long maxSize) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new ClaimsExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.token.claims");
+    }
+
+    /**
+     * 解析并验签令牌，无效返回null
+     */
+    public Claims parse(String token) {
+        if (token == null) {
+            return null;
+        }
+        Claims claims = cache.getIfPresent(token);
+        if (claims != null) {
+            return claims;
+        }
+        claims = JwtUtil.parseToken(token);
+        if (claims != null && claims.getExpiration() != null) {
+            cache.put(token, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * 按令牌 exp 过期，读取不续期
+     */
+    private static class ClaimsExpiry implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMillis = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMillis));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
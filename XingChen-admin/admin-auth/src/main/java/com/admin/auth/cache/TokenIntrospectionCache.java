@@ -0,0 +1,192 @@
+package com.admin.auth.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 令牌内省结果本地缓存
+ * <ul>
+ *     <li>有效令牌缓存至 min(令牌 exp, auth.cache.token-validation-ttl)，不会在过期后仍返回 active</li>
+ *     <li>无效令牌短时缓存（auth.cache.introspection-negative-ttl），抵御重复的无效令牌查询</li>
+ *     <li>撤销授权、用户变更时按授权ID/用户名主动失效；多实例间通过撤销事件同步</li>
+ * </ul>
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Component
+public class TokenIntrospectionCache {
+
+    /**
+     * 授权撤销事件频道，消息体为授权ID
+     */
+    public static final String REVOKE_CHANNEL = "auth:authorization:revoked";
+
+    private static final Map<String, Object> INACTIVE = Collections.singletonMap("active", false);
+
+    private final OAuth2AuthorizationService authorizationService;
+    private final Cache<String, Entry> cache;
+
+    public TokenIntrospectionCache(OAuth2AuthorizationService authorizationService,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${auth.cache.token-validation-ttl:PT5M}") Duration activeTtl,
+                                   @Value("${auth.cache.introspection-negative-ttl:PT10S}") Duration inactiveTtl,
+                                   @Value("${auth.cache.max-size:10000}") long maxSize) {
+        this.authorizationService = authorizationService;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new EntryExpiry(activeTtl, inactiveTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "auth.token.introspection");
+    }
+
+    /**
+     * 内省单个令牌
+     */
+    public Map<String, Object> introspect(String token) {
+        return cache.get(token, this::load).response();
+    }
+
+    /**
+     * 批量内省，结果顺序与入参一致；重复令牌只查询一次
+     */
+    public List<Map<String, Object>> introspectAll(List<String> tokens) {
+        // 命中路径逐个读取，避免 getAll 为整批构建中间 Map；未命中的令牌合并后一次加载
+        List<Map<String, Object>> results = new ArrayList<>(tokens.size());
+        Map<String, Entry> loaded = null;
+        for (String token : tokens) {
+            Entry entry = cache.getIfPresent(token);
+            if (entry == null) {
+                if (loaded == null) {
+                    loaded = cache.getAll(missing(tokens), this::loadAll);
+                }
+                entry = loaded.get(token);
+                if (entry == null) {
+                    // 计算未命中集合时仍在缓存、之后才过期的令牌不在 loaded 中，单独加载
+                    entry = cache.get(token, this::load);
+                }
+            }
+            results.add(entry.response());
+        }
+        return results;
+    }
+
+    /**
+     * 失效某次授权下的全部令牌（撤销授权后调用）
+     */
+    public void evictAuthorization(String authorizationId) {
+        if (authorizationId != null) {
+            cache.asMap().values().removeIf(entry -> authorizationId.equals(entry.authorizationId()));
+        }
+    }
+
+    /**
+     * 失效指定用户的全部令牌（用户禁用、修改密码等）
+     */
+    public void evictPrincipal(String principalName) {
+        if (principalName != null) {
+            cache.asMap().values().removeIf(entry -> principalName.equals(entry.principalName()));
+        }
+    }
+
+    private Set<String> missing(List<String> tokens) {
+        Set<String> missing = new HashSet<>();
+        for (String token : tokens) {
+            if (cache.getIfPresent(token) == null) {
+                missing.add(token);
+            }
+        }
+        return missing;
+    }
+
+    private Map<String, Entry> loadAll(Collection<? extends String> tokens) {
+        Map<String, Entry> loaded = new HashMap<>(tokens.size() * 2);
+        for (String token : tokens) {
+            loaded.put(token, load(token));
+        }
+        return loaded;
+    }
+
+    private Entry load(String token) {
+        OAuth2Authorization authorization = authorizationService.findByToken(token, OAuth2TokenType.ACCESS_TOKEN);
+        if (authorization == null || authorization.getAccessToken() == null
+                || !authorization.getAccessToken().isActive()) {
+            return Entry.inactive();
+        }
+        OAuth2AccessToken accessToken = authorization.getAccessToken().getToken();
+        Map<String, Object> response = new HashMap<>();
+        response.put("active", true);
+        response.put("client_id", authorization.getRegisteredClientId());
+        response.put("username", authorization.getPrincipalName());
+        response.put("scope", String.join(" ", authorization.getAuthorizedScopes()));
+        response.put("exp", accessToken.getExpiresAt().getEpochSecond());
+        response.put("iat", accessToken.getIssuedAt().getEpochSecond());
+        response.put("token_type", "Bearer");
+
+        // 添加自定义声明
+        if (authorization.getAccessToken().getClaims() != null) {
+            authorization.getAccessToken().getClaims().forEach(response::putIfAbsent);
+        }
+        return new Entry(Collections.unmodifiableMap(response), authorization.getId(),
+                authorization.getPrincipalName(), accessToken.getExpiresAt());
+    }
+
+    /**
+     * 缓存条目
+     *
+     * @param expiresAt 令牌过期时间，无效令牌为空
+     */
+    private record Entry(Map<String, Object> response, String authorizationId, String principalName,
+                         Instant expiresAt) {
+
+        static Entry inactive() {
+            return new Entry(INACTIVE, null, null, null);
+        }
+    }
+
+    /**
+     * 按令牌 exp 计算条目过期时间，读取不续期
+     */
+    private record EntryExpiry(Duration activeTtl, Duration inactiveTtl) implements Expiry<String, Entry> {
+
+        @Override
+        public long expireAfterCreate(String key, Entry entry, long currentTime) {
+            if (entry.expiresAt() == null) {
+                return inactiveTtl.toNanos();
+            }
+            long untilExpiry = Duration.between(Instant.now(), entry.expiresAt()).toNanos();
+            return Math.max(0, Math.min(untilExpiry, activeTtl.toNanos()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Entry entry, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, entry, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Entry entry, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
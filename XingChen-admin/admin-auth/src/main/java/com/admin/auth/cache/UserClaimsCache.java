@@ -0,0 +1,107 @@
+package com.admin.auth.cache;
+
+import com.admin.auth.feign.UserServiceClient;
+import com.admin.common.core.domain.Result;
+import com.admin.common.event.IdentityChangeEvent;
+import com.admin.identity.api.dto.IdentityUserDTO;
+import com.admin.identity.api.dto.UserRolesDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * 用户声明本地缓存
+ * 缓存签发令牌所需的用户资料与角色，减少令牌端点对 admin-identity 的同步调用。
+ * 条目短 TTL 过期，同时订阅 identity 的变更事件主动失效；只缓存成功响应，降级结果不入缓存。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+@Component
+public class UserClaimsCache {
+
+    private final UserServiceClient userServiceClient;
+    private final Cache<String, IdentityUserDTO> profileCache;
+    private final Cache<Long, List<String>> rolesCache;
+
+    public UserClaimsCache(UserServiceClient userServiceClient,
+                           MeterRegistry meterRegistry,
+                           @Value("${auth.cache.user-claims-ttl:PT1M}") Duration ttl,
+                           @Value("${auth.cache.max-size:10000}") long maxSize) {
+        this.userServiceClient = userServiceClient;
+        this.profileCache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        this.rolesCache = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, profileCache, "auth.user.profile");
+        CaffeineCacheMetrics.monitor(meterRegistry, rolesCache, "auth.user.roles");
+    }
+
+    /**
+     * 按用户名获取用户资料，获取失败返回null
+     */
+    public IdentityUserDTO getUser(String username) {
+        return profileCache.get(username, this::loadUser);
+    }
+
+    /**
+     * 获取用户角色，获取失败返回null
+     */
+    public List<String> getRoles(Long userId) {
+        return rolesCache.get(userId, this::loadRoles);
+    }
+
+    /**
+     * 处理身份变更事件
+     */
+    public void onIdentityChange(IdentityChangeEvent event) {
+        if (event.getType() == IdentityChangeEvent.Type.ROLE) {
+            // 角色到用户的映射不在本地，直接清空角色缓存
+            rolesCache.invalidateAll();
+            return;
+        }
+        evictUser(event.getUserId(), event.getUsername());
+    }
+
+    /**
+     * 失效指定用户的缓存
+     */
+    public void evictUser(Long userId, String username) {
+        if (username != null) {
+            profileCache.invalidate(username);
+        }
+        if (userId != null) {
+            rolesCache.invalidate(userId);
+            profileCache.asMap().values().removeIf(user -> userId.equals(user.getId()));
+        }
+        log.debug("用户声明缓存已失效: userId={}, username={}", userId, username);
+    }
+
+    private IdentityUserDTO loadUser(String username) {
+        Result<IdentityUserDTO> result = userServiceClient.getUserByUsername(username);
+        return isSuccess(result) ? result.getData() : null;
+    }
+
+    private List<String> loadRoles(Long userId) {
+        Result<UserRolesDTO> result = userServiceClient.getUserRoles(userId);
+        return isSuccess(result) ? result.getData().getRoles() : null;
+    }
+
+    private static boolean isSuccess(Result<?> result) {
+        return result != null && result.isSuccess() && result.getData() != null;
+    }
+}
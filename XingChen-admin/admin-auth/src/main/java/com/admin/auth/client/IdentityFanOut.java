@@ -0,0 +1,201 @@
+package com.admin.auth.client;
+
+import com.admin.common.context.UserContextHolder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 身份服务调用并发扇出
+ * 按结构化并发的方式组织一组相互独立的远程调用：
+ * <pre>
+ * try (IdentityFanOut.Scope scope = fanOut.open()) {
+ *     Subtask&lt;A&gt; a = scope.fork(() -&gt; ...);
+ *     Subtask&lt;B&gt; b = scope.fork(() -&gt; ...);
+ *     scope.join();
+ *     ... a.get() / b.orElse(默认值)
+ * }
+ * </pre>
+ * <ul>
+ *     <li>同一作用域内的子任务共享一个截止时间，join 最多等待到截止时间，超时的子任务被取消并记为失败</li>
+ *     <li>子任务失败互不影响，由调用方逐个决定必需结果（get 抛出）还是可降级结果（orElse）</li>
+ *     <li>作用域关闭时取消仍未完成的子任务，不会泄漏到请求之外</li>
+ *     <li>线程池有界，队列满时在调用线程内执行，退化为串行而不是拒绝请求</li>
+ * </ul>
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+@Component
+public class IdentityFanOut {
+
+    private final ThreadPoolExecutor executor;
+    private final ExecutorService monitoredExecutor;
+    private final Duration defaultDeadline;
+    private final Counter timeouts;
+
+    public IdentityFanOut(MeterRegistry meterRegistry,
+                          @Value("${auth.identity-client.fan-out.threads:32}") int threads,
+                          @Value("${auth.identity-client.fan-out.queue-capacity:256}") int queueCapacity,
+                          @Value("${auth.identity-client.fan-out.deadline:PT2S}") Duration defaultDeadline) {
+        AtomicInteger sequence = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "identity-fan-out-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+        this.monitoredExecutor = ExecutorServiceMetrics.monitor(meterRegistry, executor, "auth.identity.fan-out");
+        this.defaultDeadline = defaultDeadline;
+        this.timeouts = Counter.builder("auth.identity.fan-out.timeouts")
+                .description("扇出子任务超过截止时间被取消的次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 以默认截止时间打开作用域
+     */
+    public Scope open() {
+        return open(defaultDeadline);
+    }
+
+    /**
+     * 以指定截止时间打开作用域，截止时间自打开时起算
+     */
+    public Scope open(Duration deadline) {
+        return new Scope(System.nanoTime() + deadline.toNanos());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 扇出作用域，非线程安全，只在打开它的线程内使用
+     */
+    public final class Scope implements AutoCloseable {
+
+        private final long deadlineNanos;
+        private final List<Subtask<?>> subtasks = new ArrayList<>();
+
+        private Scope(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * 提交一个独立子任务
+         */
+        public <T> Subtask<T> fork(Callable<T> task) {
+            Subtask<T> subtask = new Subtask<>(monitoredExecutor.submit(UserContextHolder.wrap(task)));
+            subtasks.add(subtask);
+            return subtask;
+        }
+
+        /**
+         * 等待全部子任务完成或到达截止时间，超时的子任务被取消
+         */
+        public void join() {
+            for (Subtask<?> subtask : subtasks) {
+                subtask.await(deadlineNanos);
+            }
+        }
+
+        @Override
+        public void close() {
+            for (Subtask<?> subtask : subtasks) {
+                subtask.future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * 子任务结果
+     */
+    public final class Subtask<T> {
+
+        private final Future<T> future;
+        private T result;
+        private Throwable failure;
+        private boolean done;
+
+        private Subtask(Future<T> future) {
+            this.future = future;
+        }
+
+        /**
+         * 必需结果：失败或超时时抛出异常
+         */
+        public T get() {
+            if (!done) {
+                throw new IllegalStateException("子任务尚未 join");
+            }
+            if (failure != null) {
+                if (failure instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException(failure.getMessage(), failure);
+            }
+            return result;
+        }
+
+        /**
+         * 可降级结果：失败或超时时返回默认值
+         */
+        public T orElse(T fallback) {
+            return done && failure == null ? result : fallback;
+        }
+
+        public boolean isSuccess() {
+            return done && failure == null;
+        }
+
+        private void await(long deadlineNanos) {
+            if (done) {
+                return;
+            }
+            done = true;
+            try {
+                long remaining = deadlineNanos - System.nanoTime();
+                result = future.get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                future.cancel(true);
+                timeouts.increment();
+                failure = new IllegalStateException("身份服务调用超时", e);
+            } catch (ExecutionException e) {
+                failure = e.getCause();
+            } catch (CancellationException e) {
+                failure = e;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                future.cancel(true);
+                failure = e;
+            }
+            if (failure != null) {
+                log.debug("身份服务扇出子任务失败: {}", failure.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.admin.auth.client;
+
+import com.admin.common.core.domain.Result;
+import com.admin.identity.api.dto.IdentityUserDTO;
+import com.admin.identity.api.dto.UserRolesDTO;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.service.annotation.GetExchange;
+import org.springframework.web.service.annotation.HttpExchange;
+
+/**
+ * 身份服务只读查询客户端（HTTP 接口客户端）
+ * 用于需要并发发起的独立查询，由 {@link IdentityFanOut} 调度；失败时直接抛出异常，由调用方按部分失败处理，
+ * 不走 Feign 降级。其余调用仍使用 UserServiceClient。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@HttpExchange("/api/identity/users")
+public interface IdentityLookupClient {
+
+    /**
+     * 根据用户ID获取用户信息
+     */
+    @GetExchange("/{id}")
+    Result<IdentityUserDTO> getUserById(@PathVariable("id") Long id);
+
+    /**
+     * 获取用户角色
+     */
+    @GetExchange("/{userId}/roles")
+    Result<UserRolesDTO> getUserRoles(@PathVariable("userId") Long userId);
+}
@@ -45,8 +45,9 @@ public class AuthenticationConfig {
      */
     @Bean
     public AuthenticationManager authenticationManager() {
-        // 使用数据库认证提供者和自定义认证提供者
-        return new ProviderManager(daoAuthenticationProvider(), userAuthenticationProvider);
+        // 仅使用带登录限流的自定义认证提供者：两者查询同一用户源，
+        // 串联时失败的尝试会再走一遍用户查询与 BCrypt，使暴力破解成本翻倍
+        return new ProviderManager(userAuthenticationProvider);
     }
 
     /**
@@ -0,0 +1,91 @@
+package com.admin.auth.config;
+
+import com.admin.auth.client.IdentityLookupClient;
+import com.admin.common.web.converter.JsonbHttpMessageConverter;
+import com.admin.common.web.feign.FeignTransportAutoConfiguration;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+import java.time.Duration;
+
+/**
+ * 身份服务 HTTP 接口客户端配置
+ * 通过负载均衡的 RestClient 访问 admin-identity，与 Feign 客户端一致地优先协商 JSONB 二进制格式。
+ * 请求经由 Feign 的 HttpClient 5 连接池发送，按 admin-identity 的目标连接上限复用长连接，超时在单个请求上覆盖。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Configuration
+public class IdentityClientConfig {
+
+    private static final String ACCEPT_BINARY_FIRST =
+            JsonbHttpMessageConverter.MEDIA_TYPE_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+
+    /**
+     * 连接池中的目标服务名，与 Feign 客户端共享 feign.httpclient.targets.admin-identity 连接上限
+     */
+    private static final String IDENTITY_TARGET = "admin-identity";
+
+    @Value("${auth.identity-client.base-url:http://admin-identity}")
+    private String baseUrl;
+
+    @Value("${auth.identity-client.connect-timeout:PT2S}")
+    private Duration connectTimeout;
+
+    @Value("${auth.identity-client.read-timeout:PT5S}")
+    private Duration readTimeout;
+
+    @Value("${identity.client.binary-codec.enabled:true}")
+    private boolean binaryCodecEnabled;
+
+    /**
+     * 负载均衡的 RestClient 构建器，按服务名解析实例
+     */
+    @Bean
+    @LoadBalanced
+    public RestClient.Builder identityRestClientBuilder() {
+        return RestClient.builder();
+    }
+
+    @Bean
+    public IdentityLookupClient identityLookupClient(@Qualifier("identityRestClientBuilder") RestClient.Builder builder,
+                                                     CloseableHttpClient httpClient5) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient5) {
+            @Override
+            protected RequestConfig mergeRequestConfig(RequestConfig clientConfig) {
+                return RequestConfig.copy(super.mergeRequestConfig(clientConfig))
+                        .setResponseTimeout(Timeout.of(readTimeout))
+                        .build();
+            }
+        };
+        requestFactory.setConnectTimeout(connectTimeout);
+
+        RestClient restClient = builder
+                .baseUrl(baseUrl)
+                .requestFactory(requestFactory)
+                .messageConverters(converters -> converters.add(0, new JsonbHttpMessageConverter()))
+                .defaultHeaders(headers -> {
+                    headers.set(FeignTransportAutoConfiguration.TARGET_HEADER, IDENTITY_TARGET);
+                    if (binaryCodecEnabled) {
+                        headers.set(HttpHeaders.ACCEPT, ACCEPT_BINARY_FIRST);
+                    }
+                })
+                .build();
+        return HttpServiceProxyFactory.builderFor(RestClientAdapter.create(restClient))
+                .build()
+                .createClient(IdentityLookupClient.class);
+    }
+}
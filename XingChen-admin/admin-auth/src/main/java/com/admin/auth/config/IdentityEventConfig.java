@@ -0,0 +1,54 @@
+package com.admin.auth.config;
+
+import com.admin.auth.cache.CurrentUserCache;
+import com.admin.auth.cache.TokenIntrospectionCache;
+import com.admin.auth.cache.UserClaimsCache;
+import com.admin.common.event.IdentityChangeEvent;
+import com.alibaba.fastjson2.JSON;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 身份变更事件订阅配置
+ * 订阅 admin-identity 发布的用户/角色变更，失效本地用户声明缓存、当前用户资料缓存与该用户的令牌内省缓存；
+ * 同时订阅授权撤销事件，使各实例的内省缓存同步失效
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+@Configuration
+public class IdentityEventConfig {
+
+    @Bean
+    public RedisMessageListenerContainer identityEventListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                        UserClaimsCache userClaimsCache,
+                                                                        CurrentUserCache currentUserCache,
+                                                                        TokenIntrospectionCache introspectionCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            try {
+                IdentityChangeEvent event = JSON.parseObject(
+                        new String(message.getBody(), StandardCharsets.UTF_8), IdentityChangeEvent.class);
+                userClaimsCache.onIdentityChange(event);
+                currentUserCache.onIdentityChange(event);
+                if (event.getType() == IdentityChangeEvent.Type.USER) {
+                    introspectionCache.evictPrincipal(event.getUsername());
+                }
+            } catch (Exception e) {
+                log.warn("处理身份变更事件失败: {}", e.getMessage());
+            }
+        }, new ChannelTopic(IdentityChangeEvent.CHANNEL));
+        container.addMessageListener((message, pattern) ->
+                        introspectionCache.evictAuthorization(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(TokenIntrospectionCache.REVOKE_CHANNEL));
+        return container;
+    }
+}
@@ -1,5 +1,10 @@
 package com.admin.auth.config;
 
+import com.admin.common.util.JwtKeyRing;
+import com.admin.common.util.JwtUtil;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
 import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
 import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
@@ -7,6 +12,7 @@ import com.nimbusds.jose.jwk.source.JWKSource;
 import com.nimbusds.jose.proc.SecurityContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.core.annotation.Order;
 import org.springframework.http.MediaType;
 import org.springframework.security.config.Customizer;
@@ -33,9 +39,15 @@ import org.springframework.security.web.util.matcher.MediaTypeRequestMatcher;
 
 import java.security.KeyPair;
 import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
 import java.time.Duration;
+import java.util.List;
 import java.util.UUID;
 
 /**
@@ -190,20 +202,46 @@ public class OAuth2AuthorizationServerConfig {
 
     /**
      * JWK 源
+     * 同时发布 RSA 与 EC(P-256) 签名密钥，由 JwtTokenCustomizer 按令牌类型选择 RS256/ES256。
+     * 若 jwt.keys.* 已配置对应密钥则复用 JwtUtil 密钥环（kid 一致，网关可直接验签），否则生成临时密钥。
+     * 密钥环在 JwtUtil 初始化时加载，须在其之后创建。
      */
     @Bean
+    @DependsOn("jwtUtil")
     public JWKSource<SecurityContext> jwkSource() {
-        KeyPair keyPair = generateRsaKey();
-        RSAPublicKey publicKey = (RSAPublicKey) keyPair.getPublic();
-        RSAPrivateKey privateKey = (RSAPrivateKey) keyPair.getPrivate();
-        RSAKey rsaKey = new RSAKey.Builder(publicKey)
-                .privateKey(privateKey)
-                .keyID(UUID.randomUUID().toString())
+        JwtKeyRing keyRing = JwtUtil.getKeyRing();
+        KeyPair rsaKeyPair = signingKeyPair(keyRing, JwtKeyRing.Algorithm.RS256);
+        RSAKey rsaKey = new RSAKey.Builder((RSAPublicKey) rsaKeyPair.getPublic())
+                .privateKey((RSAPrivateKey) rsaKeyPair.getPrivate())
+                .keyID(keyIdOf(keyRing, JwtKeyRing.Algorithm.RS256))
+                .algorithm(JWSAlgorithm.RS256)
                 .build();
-        JWKSet jwkSet = new JWKSet(rsaKey);
+        KeyPair ecKeyPair = signingKeyPair(keyRing, JwtKeyRing.Algorithm.ES256);
+        ECKey ecKey = new ECKey.Builder(Curve.P_256, (ECPublicKey) ecKeyPair.getPublic())
+                .privateKey((ECPrivateKey) ecKeyPair.getPrivate())
+                .keyID(keyIdOf(keyRing, JwtKeyRing.Algorithm.ES256))
+                .algorithm(JWSAlgorithm.ES256)
+                .build();
+        JWKSet jwkSet = new JWKSet(List.of(rsaKey, ecKey));
         return new ImmutableJWKSet<>(jwkSet);
     }
 
+    /**
+     * 优先取密钥环中的签名密钥，缺失时生成临时密钥对
+     */
+    private static KeyPair signingKeyPair(JwtKeyRing keyRing, JwtKeyRing.Algorithm algorithm) {
+        JwtKeyRing.KeyEntry entry = keyRing != null ? keyRing.entry(algorithm) : null;
+        if (entry != null && entry.canSign()) {
+            return new KeyPair((PublicKey) entry.getVerificationKey(), (PrivateKey) entry.getSigningKey());
+        }
+        return algorithm == JwtKeyRing.Algorithm.ES256 ? generateEcKey() : generateRsaKey();
+    }
+
+    private static String keyIdOf(JwtKeyRing keyRing, JwtKeyRing.Algorithm algorithm) {
+        JwtKeyRing.KeyEntry entry = keyRing != null ? keyRing.entry(algorithm) : null;
+        return entry != null && entry.canSign() ? entry.getKeyId() : UUID.randomUUID().toString();
+    }
+
     /**
      * 生成 RSA 密钥对
      */
@@ -219,6 +257,19 @@ public class OAuth2AuthorizationServerConfig {
         return keyPair;
     }
 
+    /**
+     * 生成 EC P-256 密钥对
+     */
+    private static KeyPair generateEcKey() {
+        try {
+            KeyPairGenerator keyPairGenerator = KeyPairGenerator.getInstance("EC");
+            keyPairGenerator.initialize(new ECGenParameterSpec("secp256r1"));
+            return keyPairGenerator.generateKeyPair();
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
     /**
      * 授权服务器设置
      */
@@ -1,10 +1,13 @@
 package com.admin.auth.controller;
 
 import com.admin.common.core.domain.Result;
+import com.admin.common.core.exception.ServiceException;
 import com.admin.auth.domain.dto.UserRegisterDTO;
 import com.admin.auth.domain.dto.UserRegisterResultDTO;
 import com.admin.auth.domain.dto.UserLoginRequestDTO;
 import com.admin.auth.domain.dto.UserLoginResponseDTO;
+import com.admin.auth.security.ClientIpResolver;
+import com.admin.auth.security.RefreshRetryException;
 import com.admin.auth.service.AuthService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -32,6 +35,7 @@ import java.util.Map;
 public class AuthController {
 
     private final AuthService authService;
+    private final ClientIpResolver clientIpResolver;
 
     /**
      * 用户注册接口
@@ -48,6 +52,9 @@ public class AuthController {
             log.info("用户注册成功，用户ID: {}, 用户名: {}", result.getUserId(), registerDTO.getUsername());
             return Result.success("注册成功", result);
             
+        } catch (ServiceException e) {
+            log.warn("用户注册被拒绝，用户名: {}, 原因: {}", registerDTO.getUsername(), e.getMessage());
+            return Result.error(e.getCode(), "注册失败：" + e.getMessage());
         } catch (Exception e) {
             log.error("用户注册失败，用户名: {}, 错误信息: {}", registerDTO.getUsername(), e.getMessage(), e);
             return Result.error("注册失败：" + e.getMessage());
@@ -65,7 +72,7 @@ public class AuthController {
             log.info("用户登录请求，用户名: {}", loginRequest.getUsername());
             
             // 获取客户端IP地址
-            String clientIp = getClientIpAddress(request);
+            String clientIp = clientIpResolver.resolve(request);
             loginRequest.setLoginIp(clientIp);
             
             // 调用认证服务层登录方法
@@ -74,6 +81,9 @@ public class AuthController {
             log.info("用户登录成功，用户ID: {}, 用户名: {}", response.getUserId(), response.getUsername());
             return Result.success("登录成功", response);
             
+        } catch (ServiceException e) {
+            log.warn("用户登录被拒绝，用户名: {}, 原因: {}", loginRequest.getUsername(), e.getMessage());
+            return Result.error(e.getCode(), e.getMessage());
         } catch (Exception e) {
             log.error("用户登录失败，用户名: {}, 错误信息: {}", loginRequest.getUsername(), e.getMessage(), e);
             return Result.error("登录失败：" + e.getMessage());
@@ -109,6 +119,12 @@ public class AuthController {
         try {
             Map<String, Object> result = authService.refreshToken(refreshToken);
             return Result.success("Token刷新成功", result);
+        } catch (RefreshRetryException e) {
+            log.warn("Token刷新暂不可用，已返回新的刷新令牌: {}", e.getMessage());
+            return new Result<>(e.getCode(), e.getMessage(), Map.of("refreshToken", e.getRefreshToken()));
+        } catch (ServiceException e) {
+            log.warn("Token刷新被拒绝: {}", e.getMessage());
+            return Result.error(e.getCode(), "Token刷新失败：" + e.getMessage());
         } catch (Exception e) {
             log.error("Token刷新失败", e);
             return Result.error("Token刷新失败：" + e.getMessage());
@@ -145,6 +161,21 @@ public class AuthController {
         }
     }
 
+    /**
+     * 退出所有设备
+     */
+    @PostMapping("/logout-all")
+    @Operation(summary = "退出所有设备", description = "吊销当前用户此前签发的全部令牌")
+    public Result<String> logoutAll(@Parameter(description = "访问令牌") @RequestParam String token) {
+        try {
+            authService.logoutAll(token);
+            return Result.success("已退出所有设备", "OK");
+        } catch (Exception e) {
+            log.error("退出所有设备失败", e);
+            return Result.error("退出所有设备失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 服务健康检查
      */
@@ -153,21 +184,4 @@ public class AuthController {
     public Result<String> health() {
         return Result.success("认证服务运行正常", "OK");
     }
-
-    /**
-     * 获取客户端IP地址
-     */
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0];
-        }
-        
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
-        }
-        
-        return request.getRemoteAddr();
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,36 @@
+package com.admin.auth.controller;
+
+import com.admin.auth.domain.dto.CaptchaResponse;
+import com.admin.auth.service.CaptchaService;
+import com.admin.common.core.domain.Result;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 图形验证码控制器
+ * 挂在 /api/auth 下，经网关认证白名单与认证服务的匿名放行规则即可访问（登录前调用）
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@RestController
+@RequestMapping("/api/auth/captcha")
+@RequiredArgsConstructor
+@Tag(name = "图形验证码", description = "登录页图形验证码")
+public class CaptchaController {
+
+    private final CaptchaService captchaService;
+
+    /**
+     * 获取图形验证码
+     */
+    @GetMapping("/image")
+    @Operation(summary = "获取图形验证码", description = "返回验证码键与 base64 图片，答案有效期内只能校验一次")
+    public Result<CaptchaResponse> image() {
+        return Result.success(captchaService.issue());
+    }
+}
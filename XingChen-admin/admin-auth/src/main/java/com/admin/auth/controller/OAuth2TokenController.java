@@ -1,19 +1,26 @@
 package com.admin.auth.controller;
 
+import com.admin.auth.cache.TokenIntrospectionCache;
+import com.admin.auth.domain.dto.TokenIntrospectionRequest;
 import com.admin.common.core.domain.Result;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
 import org.springframework.security.oauth2.core.oidc.OidcScopes;
 import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
 import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
 import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -30,6 +37,11 @@ import java.util.Map;
 public class OAuth2TokenController {
 
     private final OAuth2AuthorizationService authorizationService;
+    private final TokenIntrospectionCache introspectionCache;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    @Value("${auth.token.introspection.max-batch:100}")
+    private int maxBatchSize;
 
     /**
      * 验证访问令牌
@@ -43,34 +55,10 @@ public class OAuth2TokenController {
         try {
             log.info("开始验证令牌: {}", token.substring(0, Math.min(token.length(), 20)) + "...");
 
-            // 查找授权信息
-            OAuth2Authorization authorization = authorizationService.findByToken(token, OAuth2TokenType.ACCESS_TOKEN);
-            
-            Map<String, Object> response = new HashMap<>();
-            
-            if (authorization != null && authorization.getAccessToken() != null) {
-                // 令牌有效
-                response.put("active", true);
-                response.put("client_id", authorization.getRegisteredClientId());
-                response.put("username", authorization.getPrincipalName());
-                response.put("scope", String.join(" ", authorization.getAuthorizedScopes()));
-                response.put("exp", authorization.getAccessToken().getToken().getExpiresAt().getEpochSecond());
-                response.put("iat", authorization.getAccessToken().getToken().getIssuedAt().getEpochSecond());
-                response.put("token_type", "Bearer");
-
-                // 添加自定义声明
-                if (authorization.getAccessToken().getClaims() != null) {
-                    authorization.getAccessToken().getClaims().forEach((key, value) -> {
-                        if (!response.containsKey(key)) {
-                            response.put(key, value);
-                        }
-                    });
-                }
-
-                log.info("令牌验证成功，用户: {}", authorization.getPrincipalName());
+            Map<String, Object> response = introspectionCache.introspect(token);
+            if (Boolean.TRUE.equals(response.get("active"))) {
+                log.info("令牌验证成功，用户: {}", response.get("username"));
             } else {
-                // 令牌无效
-                response.put("active", false);
                 log.warn("令牌验证失败，令牌无效或已过期");
             }
 
@@ -85,6 +73,29 @@ public class OAuth2TokenController {
         }
     }
 
+    /**
+     * 批量验证访问令牌
+     */
+    @PostMapping("/introspect/batch")
+    @Operation(summary = "批量令牌内省", description = "一次验证多个访问令牌，结果顺序与请求一致")
+    public Result<List<Map<String, Object>>> introspectTokens(@Valid @RequestBody TokenIntrospectionRequest request) {
+        List<String> tokens = request.getTokens();
+        if (tokens.size() > maxBatchSize) {
+            return Result.error(400, "单次最多内省" + maxBatchSize + "个令牌");
+        }
+        if (tokens.stream().anyMatch(token -> !StringUtils.hasText(token))) {
+            return Result.error(400, "令牌不能为空");
+        }
+        try {
+            List<Map<String, Object>> results = introspectionCache.introspectAll(tokens);
+            log.debug("批量令牌验证完成，数量: {}", tokens.size());
+            return Result.success("令牌验证完成", results);
+        } catch (Exception e) {
+            log.error("批量令牌验证失败", e);
+            return Result.error("令牌验证失败：" + e.getMessage());
+        }
+    }
+
     /**
      * 撤销令牌
      */
@@ -107,6 +118,8 @@ public class OAuth2TokenController {
             if (authorization != null) {
                 // 撤销授权（这会使所有相关令牌失效）
                 authorizationService.remove(authorization);
+                introspectionCache.evictAuthorization(authorization.getId());
+                publishRevocation(authorization.getId());
                 log.info("令牌撤销成功，用户: {}", authorization.getPrincipalName());
                 return Result.success("令牌撤销成功", "OK");
             } else {
@@ -120,6 +133,17 @@ public class OAuth2TokenController {
         }
     }
 
+    /**
+     * 通知其他实例失效该授权的内省缓存，发布失败时依赖缓存 TTL 兜底
+     */
+    private void publishRevocation(String authorizationId) {
+        try {
+            stringRedisTemplate.convertAndSend(TokenIntrospectionCache.REVOKE_CHANNEL, authorizationId);
+        } catch (Exception e) {
+            log.warn("发布授权撤销事件失败: {}", e.getMessage());
+        }
+    }
+
     /**
      * 获取授权服务器配置信息
      */
@@ -0,0 +1,28 @@
+package com.admin.auth.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 图形验证码响应
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "图形验证码")
+public class CaptchaResponse {
+
+    @Schema(description = "验证码key，登录时随验证码一并提交")
+    private String captchaKey;
+
+    @Schema(description = "验证码图片（data:image/png;base64,...）")
+    private String image;
+
+    @Schema(description = "有效期（秒）")
+    private long expiresIn;
+}
@@ -0,0 +1,22 @@
+package com.admin.auth.domain.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * 批量令牌内省请求
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Data
+@Schema(description = "批量令牌内省请求")
+public class TokenIntrospectionRequest {
+
+    @Schema(description = "访问令牌列表，结果按相同顺序返回")
+    @NotEmpty(message = "令牌列表不能为空")
+    private List<String> tokens;
+}
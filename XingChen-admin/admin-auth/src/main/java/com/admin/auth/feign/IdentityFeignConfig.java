@@ -0,0 +1,47 @@
+package com.admin.auth.feign;
+
+import com.admin.common.web.converter.JsonbHttpMessageConverter;
+import feign.RequestInterceptor;
+import feign.codec.Decoder;
+import feign.optionals.OptionalDecoder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
+import org.springframework.cloud.openfeign.support.HttpMessageConverterCustomizer;
+import org.springframework.cloud.openfeign.support.ResponseEntityDecoder;
+import org.springframework.cloud.openfeign.support.SpringDecoder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+/**
+ * 身份服务 Feign 客户端配置
+ * 优先协商 fastjson2 JSONB 二进制格式，服务端未支持时自动回退 JSON。
+ * 仅作用于 UserServiceClient，不声明 @Configuration，避免影响其他客户端。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class IdentityFeignConfig {
+
+    private static final String ACCEPT_BINARY_FIRST =
+            JsonbHttpMessageConverter.MEDIA_TYPE_VALUE + ", " + MediaType.APPLICATION_JSON_VALUE + ";q=0.9";
+
+    @Value("${identity.client.binary-codec.enabled:true}")
+    private boolean binaryCodecEnabled;
+
+    @Bean
+    public Decoder identityFeignDecoder(ObjectProvider<HttpMessageConverterCustomizer> customizers) {
+        HttpMessageConverters converters = new HttpMessageConverters(new JsonbHttpMessageConverter());
+        return new OptionalDecoder(new ResponseEntityDecoder(new SpringDecoder(() -> converters, customizers)));
+    }
+
+    @Bean
+    public RequestInterceptor identityAcceptInterceptor() {
+        return template -> {
+            if (binaryCodecEnabled) {
+                template.header(HttpHeaders.ACCEPT, ACCEPT_BINARY_FIRST);
+            }
+        };
+    }
+}
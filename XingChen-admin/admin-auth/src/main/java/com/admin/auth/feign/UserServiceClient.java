@@ -1,52 +1,62 @@
 package com.admin.auth.feign;
 
+import com.admin.common.core.domain.Result;
+import com.admin.identity.api.dto.CreateUserRequest;
+import com.admin.identity.api.dto.CreateUserResult;
+import com.admin.identity.api.dto.IdentityUserDTO;
+import com.admin.identity.api.dto.UserRolesDTO;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.Map;
-
 /**
  * 用户服务Feign客户端
  * 
  * @author admin
  * @since 2024-08-27
  */
-@FeignClient(name = "admin-identity", fallback = UserServiceClientFallback.class)
+@FeignClient(name = "admin-identity", fallback = UserServiceClientFallback.class,
+        configuration = IdentityFeignConfig.class)
 public interface UserServiceClient {
 
     /**
      * 检查用户名是否存在
      */
     @GetMapping("/api/identity/check-username")
-    Map<String, Object> checkUsername(@RequestParam("username") String username);
+    Result<Boolean> checkUsername(@RequestParam("username") String username);
 
     /**
      * 检查邮箱是否存在
      */
     @GetMapping("/api/identity/check-email")
-    Map<String, Object> checkEmail(@RequestParam("email") String email);
+    Result<Boolean> checkEmail(@RequestParam("email") String email);
 
     /**
      * 创建用户
      */
     @PostMapping("/api/identity/users")
-    Map<String, Object> createUser(@RequestBody Map<String, Object> userRequest);
+    Result<Long> createUser(@RequestBody CreateUserRequest userRequest);
+
+    /**
+     * 原子注册用户，冲突时返回 409 及冲突字段
+     */
+    @PostMapping("/api/identity/users/register")
+    Result<CreateUserResult> registerUser(@RequestBody CreateUserRequest userRequest);
 
     /**
      * 根据用户名获取用户信息
      */
     @GetMapping("/api/identity/users/username/{username}")
-    Map<String, Object> getUserByUsername(@PathVariable("username") String username);
+    Result<IdentityUserDTO> getUserByUsername(@PathVariable("username") String username);
 
     /**
      * 根据用户ID获取用户信息
      */
     @GetMapping("/api/identity/users/{id}")
-    Map<String, Object> getUserById(@PathVariable("id") Long id);
+    Result<IdentityUserDTO> getUserById(@PathVariable("id") Long id);
 
     /**
      * 获取用户角色
      */
     @GetMapping("/api/identity/users/{userId}/roles")
-    Map<String, Object> getUserRoles(@PathVariable("userId") Long userId);
-}
\ No newline at end of file
+    Result<UserRolesDTO> getUserRoles(@PathVariable("userId") Long userId);
+}
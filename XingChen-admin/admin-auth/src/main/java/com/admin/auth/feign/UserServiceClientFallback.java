@@ -1,11 +1,13 @@
 package com.admin.auth.feign;
 
+import com.admin.common.core.domain.Result;
+import com.admin.identity.api.dto.CreateUserRequest;
+import com.admin.identity.api.dto.CreateUserResult;
+import com.admin.identity.api.dto.IdentityUserDTO;
+import com.admin.identity.api.dto.UserRolesDTO;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * 用户服务Feign客户端降级处理
  * 
@@ -16,63 +18,47 @@ import java.util.Map;
 @Component
 public class UserServiceClientFallback implements UserServiceClient {
 
+    private static final String UNAVAILABLE_MESSAGE = "用户服务不可用，请稍后重试";
+
     @Override
-    public Map<String, Object> checkUsername(String username) {
+    public Result<Boolean> checkUsername(String username) {
         log.error("调用用户服务检查用户名失败，使用降级处理");
-        Map<String, Object> result = new HashMap<>();
-        result.put("code", 500);
-        result.put("message", "用户服务不可用，请稍后重试");
-        result.put("data", false);
-        return result;
+        return new Result<>(500, UNAVAILABLE_MESSAGE, false);
     }
 
     @Override
-    public Map<String, Object> checkEmail(String email) {
+    public Result<Boolean> checkEmail(String email) {
         log.error("调用用户服务检查邮箱失败，使用降级处理");
-        Map<String, Object> result = new HashMap<>();
-        result.put("code", 500);
-        result.put("message", "用户服务不可用，请稍后重试");
-        result.put("data", false);
-        return result;
+        return new Result<>(500, UNAVAILABLE_MESSAGE, false);
     }
 
     @Override
-    public Map<String, Object> createUser(Map<String, Object> userRequest) {
+    public Result<Long> createUser(CreateUserRequest userRequest) {
         log.error("调用用户服务创建用户失败，使用降级处理");
-        Map<String, Object> result = new HashMap<>();
-        result.put("code", 500);
-        result.put("message", "用户服务不可用，请稍后重试");
-        result.put("data", null);
-        return result;
+        return Result.error(500, UNAVAILABLE_MESSAGE);
+    }
+
+    @Override
+    public Result<CreateUserResult> registerUser(CreateUserRequest userRequest) {
+        log.error("调用用户服务注册用户失败，使用降级处理");
+        return Result.error(500, UNAVAILABLE_MESSAGE);
     }
 
     @Override
-    public Map<String, Object> getUserByUsername(String username) {
+    public Result<IdentityUserDTO> getUserByUsername(String username) {
         log.error("调用用户服务根据用户名获取用户失败，使用降级处理");
-        Map<String, Object> result = new HashMap<>();
-        result.put("code", 500);
-        result.put("message", "用户服务不可用，请稍后重试");
-        result.put("data", null);
-        return result;
+        return Result.error(500, UNAVAILABLE_MESSAGE);
     }
 
     @Override
-    public Map<String, Object> getUserById(Long id) {
+    public Result<IdentityUserDTO> getUserById(Long id) {
         log.error("调用用户服务根据ID获取用户失败，使用降级处理");
-        Map<String, Object> result = new HashMap<>();
-        result.put("code", 500);
-        result.put("message", "用户服务不可用，请稍后重试");
-        result.put("data", null);
-        return result;
+        return Result.error(500, UNAVAILABLE_MESSAGE);
     }
 
     @Override
-    public Map<String, Object> getUserRoles(Long userId) {
+    public Result<UserRolesDTO> getUserRoles(Long userId) {
         log.error("调用用户服务获取用户角色失败，使用降级处理");
-        Map<String, Object> result = new HashMap<>();
-        result.put("code", 500);
-        result.put("message", "用户服务不可用，请稍后重试");
-        result.put("data", null);
-        return result;
+        return Result.error(500, UNAVAILABLE_MESSAGE);
     }
 }
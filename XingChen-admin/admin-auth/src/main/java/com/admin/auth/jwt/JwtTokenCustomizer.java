@@ -1,14 +1,19 @@
 package com.admin.auth.jwt;
 
-import com.admin.auth.feign.UserServiceClient;
+import com.admin.auth.cache.UserClaimsCache;
+import com.admin.identity.api.dto.IdentityUserDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.oidc.endpoint.OidcParameterNames;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
 import org.springframework.security.oauth2.server.authorization.token.JwtEncodingContext;
 import org.springframework.security.oauth2.server.authorization.token.OAuth2TokenCustomizer;
 import org.springframework.stereotype.Component;
 
 import java.time.Instant;
-import java.util.Map;
+import java.util.List;
 
 /**
  * JWT Token 定制器
@@ -22,12 +27,28 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class JwtTokenCustomizer implements OAuth2TokenCustomizer<JwtEncodingContext> {
 
-    private final UserServiceClient userServiceClient;
+    private final UserClaimsCache userClaimsCache;
+
+    /**
+     * 访问令牌签名算法（RS256/ES256），EdDSA 暂不受 Spring Authorization Server 支持
+     */
+    @Value("${oauth2.jwt.access-token-algorithm:${oauth2.jwt.algorithm:RS256}}")
+    private String accessTokenAlgorithm;
+
+    /**
+     * ID Token 签名算法，OIDC 客户端普遍要求支持 RS256，默认保持不变
+     */
+    @Value("${oauth2.jwt.id-token-algorithm:RS256}")
+    private String idTokenAlgorithm;
 
     @Override
     public void customize(JwtEncodingContext context) {
-        if (context.getTokenType().getValue().equals("access_token")) {
+        String tokenType = context.getTokenType().getValue();
+        if (tokenType.equals("access_token")) {
+            context.getJwsHeader().algorithm(SignatureAlgorithm.from(accessTokenAlgorithm));
             customizeAccessToken(context);
+        } else if (tokenType.equals(OidcParameterNames.ID_TOKEN)) {
+            context.getJwsHeader().algorithm(SignatureAlgorithm.from(idTokenAlgorithm));
         }
     }
 
@@ -35,44 +56,45 @@ public class JwtTokenCustomizer implements OAuth2TokenCustomizer<JwtEncodingCont
      * 自定义访问令牌
      */
     private void customizeAccessToken(JwtEncodingContext context) {
+        // 客户端凭证模式的主体是客户端而非用户，无需查询用户服务
+        if (AuthorizationGrantType.CLIENT_CREDENTIALS.equals(context.getAuthorizationGrantType())) {
+            context.getClaims()
+                .claim("iat", Instant.now().getEpochSecond())
+                .claim("token_type", "Bearer");
+            return;
+        }
         try {
             // 获取用户名
             String username = context.getPrincipal().getName();
             log.info("正在为用户 {} 定制JWT Token", username);
 
-            // 调用用户服务获取用户信息
-            Map<String, Object> userResult = userServiceClient.getUserByUsername(username);
-            if (userResult != null && userResult.get("data") != null) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> userData = (Map<String, Object>) userResult.get("data");
-
+            // 获取用户信息（本地缓存，未命中时调用用户服务）
+            IdentityUserDTO user = userClaimsCache.getUser(username);
+            if (user != null) {
                 // 添加自定义声明
                 context.getClaims()
-                    .claim("userId", userData.get("id"))
-                    .claim("username", userData.get("username"))
-                    .claim("email", userData.get("email"))
-                    .claim("realName", userData.get("realName"))
-                    .claim("userType", userData.get("userType"))
-                    .claim("tenantId", userData.get("tenantId"))
-                    .claim("status", userData.get("status"))
+                    .claim("userId", user.getId())
+                    .claim("username", user.getUsername())
+                    .claim("email", user.getEmail())
+                    .claim("realName", user.getRealName())
+                    .claim("userType", user.getUserType())
+                    .claim("tenantId", user.getTenantId())
+                    .claim("status", user.getStatus())
                     .claim("iat", Instant.now().getEpochSecond())
                     .claim("token_type", "Bearer");
 
                 // 获取用户角色
                 try {
-                    Long userId = Long.valueOf(userData.get("id").toString());
-                    Map<String, Object> rolesResult = userServiceClient.getUserRoles(userId);
-                    if (rolesResult != null && rolesResult.get("data") != null) {
-                        @SuppressWarnings("unchecked")
-                        Map<String, Object> rolesData = (Map<String, Object>) rolesResult.get("data");
-                        context.getClaims().claim("roles", rolesData.get("roles"));
+                    List<String> roles = userClaimsCache.getRoles(user.getId());
+                    if (roles != null) {
+                        context.getClaims().claim("roles", roles);
                     }
                 } catch (Exception e) {
                     log.warn("获取用户角色失败: {}", e.getMessage());
                     context.getClaims().claim("roles", new String[]{"USER"});
                 }
 
-                log.info("JWT Token定制完成，用户: {}, ID: {}", username, userData.get("id"));
+                log.info("JWT Token定制完成，用户: {}, ID: {}", username, user.getId());
             } else {
                 log.warn("未能获取用户信息: {}", username);
                 // 添加基本声明
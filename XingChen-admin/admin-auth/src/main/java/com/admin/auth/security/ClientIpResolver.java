@@ -0,0 +1,94 @@
+package com.admin.auth.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.web.util.matcher.IpAddressMatcher;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * 客户端 IP 解析
+ * X-Forwarded-For 由客户端任意填写，只有经过可信代理（网关、负载均衡）追加的部分可信：
+ * <ul>
+ *     <li>直连地址不是可信代理：直接使用直连地址，忽略转发头</li>
+ *     <li>否则从 X-Forwarded-For 右侧向左，取第一个不是可信代理的地址</li>
+ *     <li>全部为可信代理（内网直接调用）：取最左侧地址</li>
+ * </ul>
+ * 可信代理通过 auth.security.trusted-proxies 配置（CIDR），默认回环与私有网段。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Component
+public class ClientIpResolver {
+
+    private static final Pattern IP_LITERAL = Pattern.compile("[0-9a-fA-F:.]+");
+
+    private final List<IpAddressMatcher> trustedProxies = new ArrayList<>();
+
+    public ClientIpResolver(@Value("${auth.security.trusted-proxies:127.0.0.0/8,::1,10.0.0.0/8,172.16.0.0/12,192.168.0.0/16}")
+                            List<String> trustedProxies) {
+        for (String proxy : trustedProxies) {
+            if (StringUtils.hasText(proxy)) {
+                this.trustedProxies.add(new IpAddressMatcher(proxy.trim()));
+            }
+        }
+    }
+
+    public String resolve(HttpServletRequest request) {
+        String remoteAddr = request.getRemoteAddr();
+        if (!isTrusted(remoteAddr)) {
+            return remoteAddr;
+        }
+        String forwardedFor = request.getHeader("X-Forwarded-For");
+        if (!StringUtils.hasText(forwardedFor)) {
+            String realIp = request.getHeader("X-Real-IP");
+            return isIpLiteral(realIp) ? realIp.trim() : remoteAddr;
+        }
+        String[] hops = forwardedFor.split(",");
+        String leftmost = remoteAddr;
+        for (int i = hops.length - 1; i >= 0; i--) {
+            String hop = hops[i].trim();
+            if (!isIpLiteral(hop)) {
+                // 无法识别的地址之前的部分都不可信
+                break;
+            }
+            if (!isTrusted(hop)) {
+                return hop;
+            }
+            leftmost = hop;
+        }
+        return leftmost;
+    }
+
+    private boolean isTrusted(String address) {
+        if (!isIpLiteral(address)) {
+            return false;
+        }
+        for (IpAddressMatcher matcher : trustedProxies) {
+            try {
+                if (matcher.matches(address)) {
+                    return true;
+                }
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 只接受 IP 字面量，避免对主机名做 DNS 解析
+     */
+    private static boolean isIpLiteral(String address) {
+        if (address == null) {
+            return false;
+        }
+        String trimmed = address.trim();
+        return IP_LITERAL.matcher(trimmed).matches() && (trimmed.indexOf('.') >= 0 || trimmed.indexOf(':') >= 0);
+    }
+}
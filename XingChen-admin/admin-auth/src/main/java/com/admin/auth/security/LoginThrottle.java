@@ -0,0 +1,188 @@
+package com.admin.auth.security;
+
+import com.admin.common.core.exception.ServiceException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 登录防暴力破解限流
+ * 三层防护，均在调用用户服务和 BCrypt 校验之前完成判断：
+ * <ol>
+ *     <li>按 IP 的本地令牌桶（resilience4j RateLimiter），无网络开销</li>
+ *     <li>按用户名的 Redis 失败计数，连续失败后指数退避，达到上限锁定 lockout-duration</li>
+ *     <li>全局密码校验并发上限，保护用户服务与 CPU</li>
+ * </ol>
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+@Component
+public class LoginThrottle {
+
+    private static final String FAIL_COUNT_PREFIX = "auth:login:fail:";
+    private static final String LOCK_PREFIX = "auth:login:lock:";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean ipLimitEnabled;
+    private final int maxLoginAttempts;
+    private final Duration lockoutDuration;
+    private final Duration backoffBase;
+    private final long passwordCheckWaitMillis;
+    private final RateLimiterConfig ipLimiterConfig;
+    private final Cache<String, RateLimiter> ipLimiters;
+    private final Semaphore passwordCheckPermits;
+
+    private final Counter ipRejected;
+    private final Counter userRejected;
+    private final Counter concurrencyRejected;
+    private final Counter failures;
+
+    public LoginThrottle(StringRedisTemplate stringRedisTemplate,
+                         MeterRegistry meterRegistry,
+                         @Value("${auth.security.enable-ip-limit:true}") boolean ipLimitEnabled,
+                         @Value("${auth.security.ip-rate-limit:100}") int ipRateLimit,
+                         @Value("${auth.security.max-login-attempts:5}") int maxLoginAttempts,
+                         @Value("${auth.security.lockout-duration:PT30M}") Duration lockoutDuration,
+                         @Value("${auth.security.backoff-base:PT1S}") Duration backoffBase,
+                         @Value("${auth.security.max-concurrent-password-checks:32}") int maxConcurrentChecks,
+                         @Value("${auth.security.password-check-wait:PT0.2S}") Duration passwordCheckWait) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.ipLimitEnabled = ipLimitEnabled;
+        this.maxLoginAttempts = maxLoginAttempts;
+        this.lockoutDuration = lockoutDuration;
+        this.backoffBase = backoffBase;
+        this.passwordCheckWaitMillis = passwordCheckWait.toMillis();
+        this.ipLimiterConfig = RateLimiterConfig.custom()
+                .limitForPeriod(ipRateLimit)
+                .limitRefreshPeriod(Duration.ofMinutes(1))
+                .timeoutDuration(Duration.ZERO)
+                .build();
+        this.ipLimiters = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMinutes(5))
+                .maximumSize(100_000)
+                .build();
+        this.passwordCheckPermits = new Semaphore(maxConcurrentChecks);
+
+        this.ipRejected = rejectedCounter(meterRegistry, "ip");
+        this.userRejected = rejectedCounter(meterRegistry, "user");
+        this.concurrencyRejected = rejectedCounter(meterRegistry, "concurrency");
+        this.failures = Counter.builder("auth.login.failures")
+                .description("登录密码校验失败次数")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.password.checks.active", passwordCheckPermits,
+                        permits -> maxConcurrentChecks - permits.availablePermits())
+                .description("正在进行的密码校验数")
+                .register(meterRegistry);
+        Gauge.builder("auth.login.ip.limiters", ipLimiters, Cache::estimatedSize)
+                .description("本地跟踪的IP限流器数量")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 登录前置检查：IP 限流与用户名退避锁定，不通过时抛出 429
+     */
+    public void checkAttempt(String clientIp, String username) {
+        if (ipLimitEnabled && StringUtils.hasText(clientIp)) {
+            RateLimiter limiter = ipLimiters.get(clientIp, ip -> RateLimiter.of("login-" + ip, ipLimiterConfig));
+            if (!limiter.acquirePermission()) {
+                ipRejected.increment();
+                log.warn("登录请求过于频繁，IP: {}", clientIp);
+                throw new ServiceException(429, "登录请求过于频繁，请稍后再试");
+            }
+        }
+        if (StringUtils.hasText(username)) {
+            Long remaining = stringRedisTemplate.getExpire(LOCK_PREFIX + username, TimeUnit.SECONDS);
+            if (remaining != null && remaining > 0) {
+                userRejected.increment();
+                throw new ServiceException(429, "登录失败次数过多，请 " + remaining + " 秒后再试");
+            }
+        }
+    }
+
+    /**
+     * 在全局并发上限内执行用户查询与密码校验
+     */
+    public <T> T withPasswordCheckPermit(Supplier<T> action) {
+        boolean acquired;
+        try {
+            acquired = passwordCheckPermits.tryAcquire(passwordCheckWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            concurrencyRejected.increment();
+            throw new ServiceException(503, "系统繁忙，请稍后再试");
+        }
+        try {
+            return action.get();
+        } finally {
+            passwordCheckPermits.release();
+        }
+    }
+
+    /**
+     * 记录一次失败：第 n 次失败锁定 backoff-base * 2^(n-1)，达到 max-login-attempts 后锁定 lockout-duration
+     */
+    public void onFailure(String username) {
+        failures.increment();
+        if (!StringUtils.hasText(username)) {
+            return;
+        }
+        String countKey = FAIL_COUNT_PREFIX + username;
+        Long count = stringRedisTemplate.opsForValue().increment(countKey);
+        if (count == null) {
+            return;
+        }
+        if (count == 1) {
+            stringRedisTemplate.expire(countKey, lockoutDuration);
+        }
+        Duration lock;
+        if (count >= maxLoginAttempts) {
+            lock = lockoutDuration;
+        } else {
+            long factor = 1L << Math.min(count - 1, 30);
+            lock = backoffBase.multipliedBy(factor);
+            if (lock.compareTo(lockoutDuration) > 0) {
+                lock = lockoutDuration;
+            }
+        }
+        stringRedisTemplate.opsForValue().set(LOCK_PREFIX + username, String.valueOf(count), lock);
+        if (count >= maxLoginAttempts) {
+            log.warn("用户 {} 连续登录失败 {} 次，锁定 {}", username, count, lockoutDuration);
+        }
+    }
+
+    /**
+     * 登录成功后清除失败记录
+     */
+    public void onSuccess(String username) {
+        if (StringUtils.hasText(username)) {
+            stringRedisTemplate.delete(List.of(FAIL_COUNT_PREFIX + username, LOCK_PREFIX + username));
+        }
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("auth.login.throttled")
+                .description("被限流拒绝的登录请求数")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,26 @@
+package com.admin.auth.security;
+
+import com.admin.common.core.exception.ServiceException;
+
+/**
+ * 刷新令牌已轮换、但身份服务暂不可用而无法签发访问令牌（503）
+ * 旧刷新令牌已失效，异常携带轮换后的新刷新令牌，客户端须保存并用它重试。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class RefreshRetryException extends ServiceException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String refreshToken;
+
+    public RefreshRetryException(String message, String refreshToken) {
+        super(503, message);
+        this.refreshToken = refreshToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+}
@@ -0,0 +1,287 @@
+package com.admin.auth.security;
+
+import com.admin.common.core.exception.ServiceException;
+import com.admin.common.security.TokenRevocationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 刷新令牌族存储（Redis）
+ * 刷新令牌为不透明字符串 {@code <familyId>.<secret>}，一次登录产生一个令牌族：
+ * <ul>
+ *     <li>族记录 auth:refresh:family:&lt;familyId&gt; 为 Hash，保存签发访问令牌所需的最小声明
+ *     （用户ID、用户名、租户、用户类型、角色、授权版本）以及当前 secret 的 SHA-256</li>
+ *     <li>每次刷新通过 Lua 脚本原子地比对并轮换 secret，旧令牌立即失效</li>
+ *     <li>出示已轮换过的旧令牌视为重放（令牌泄露），整个令牌族被删除，合法持有者也需重新登录</li>
+ *     <li>族的有效期自登录起固定为 refresh-expiration，轮换不延长</li>
+ *     <li>auth:refresh:user:&lt;userId&gt; 记录用户的令牌族，用于退出所有设备</li>
+ *     <li>族记录登录时间，刷新时与用户的吊销纪元（{@link TokenRevocationService#revokeAllForUser}，
+ *     如修改密码、管理员吊销、删除用户）比较，纪元之前登录的令牌族被删除</li>
+ * </ul>
+ * 创建、轮换与更新声明均为单个 Lua 脚本，不会留下无过期时间或只写了一半的族记录。
+ * Redis 中只保存 secret 的摘要，不保存令牌明文。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+@Component
+public class RefreshTokenStore {
+
+    private static final String FAMILY_PREFIX = "auth:refresh:family:";
+    private static final String USER_FAMILIES_PREFIX = "auth:refresh:user:";
+
+    private static final String F_USER_ID = "uid";
+    private static final String F_USERNAME = "un";
+    private static final String F_TENANT_ID = "tid";
+    private static final String F_USER_TYPE = "ut";
+    private static final String F_ROLES = "roles";
+    private static final String F_AUTHZ_VERSION = "ver";
+    private static final String F_CURRENT = "cur";
+    private static final String F_ISSUED_AT = "iat";
+
+    /**
+     * 写入族记录与用户族集合并设置过期时间：ARGV[1] 为 TTL（秒），ARGV[2] 为 familyId，其后为字段/值
+     */
+    static final RedisScript<Long> CREATE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('HSET', KEYS[1], unpack(ARGV, 3)) "
+                    + "redis.call('EXPIRE', KEYS[1], ARGV[1]) "
+                    + "redis.call('SADD', KEYS[2], ARGV[2]) "
+                    + "redis.call('EXPIRE', KEYS[2], ARGV[1]) "
+                    + "return 1",
+            Long.class);
+
+    /**
+     * 族存在时更新声明字段，不改变 secret 与过期时间；返回是否更新
+     */
+    static final RedisScript<Long> UPDATE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end "
+                    + "redis.call('HSET', KEYS[1], unpack(ARGV)) "
+                    + "return 1",
+            Long.class);
+
+    /**
+     * 比对并轮换 secret：族不存在返回 nil；摘要不匹配（重放）删除族并返回空列表；成功返回 HGETALL
+     */
+    static final RedisScript<List> ROTATE_SCRIPT = new DefaultRedisScript<>(
+            "local cur = redis.call('HGET', KEYS[1], 'cur') "
+                    + "if not cur then return nil end "
+                    + "if cur ~= ARGV[1] then redis.call('DEL', KEYS[1]) return {} end "
+                    + "redis.call('HSET', KEYS[1], 'cur', ARGV[2]) "
+                    + "return redis.call('HGETALL', KEYS[1])",
+            List.class);
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final TokenRevocationService tokenRevocationService;
+    private final Duration familyTtl;
+
+    private final Counter rotated;
+    private final Counter reuseDetected;
+
+    public RefreshTokenStore(StringRedisTemplate stringRedisTemplate,
+                             TokenRevocationService tokenRevocationService,
+                             MeterRegistry meterRegistry,
+                             @Value("${jwt.refresh-expiration:604800}") long refreshExpirationSeconds) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.tokenRevocationService = tokenRevocationService;
+        this.familyTtl = Duration.ofSeconds(refreshExpirationSeconds);
+        this.rotated = Counter.builder("auth.refresh.rotated")
+                .description("刷新令牌轮换次数")
+                .register(meterRegistry);
+        this.reuseDetected = Counter.builder("auth.refresh.reuse")
+                .description("检测到刷新令牌重放次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 登录时创建令牌族并返回首个刷新令牌
+     */
+    public String create(Session session) {
+        String familyId = UUID.randomUUID().toString().replace("-", "");
+        String secret = newSecret();
+
+        Map<String, String> fields = session.toFields();
+        fields.put(F_CURRENT, digest(secret));
+        fields.put(F_ISSUED_AT, String.valueOf(System.currentTimeMillis()));
+        List<String> args = new ArrayList<>(2 + fields.size() * 2);
+        args.add(String.valueOf(familyTtl.toSeconds()));
+        args.add(familyId);
+        addFields(args, fields);
+        stringRedisTemplate.execute(CREATE_SCRIPT,
+                Arrays.asList(FAMILY_PREFIX + familyId, USER_FAMILIES_PREFIX + session.userId()), args.toArray());
+        return familyId + "." + secret;
+    }
+
+    /**
+     * 使用刷新令牌：校验并轮换，返回会话声明与新的刷新令牌
+     *
+     * @throws ServiceException 令牌无效、已过期、检测到重放或登录后用户令牌已被整体吊销（401）
+     */
+    @SuppressWarnings("unchecked")
+    public Rotation rotate(String refreshToken) {
+        String[] parts = split(refreshToken);
+        if (parts == null) {
+            throw new ServiceException(401, "刷新令牌无效或已过期");
+        }
+        String familyId = parts[0];
+        String nextSecret = newSecret();
+
+        List<Object> result = stringRedisTemplate.execute(ROTATE_SCRIPT,
+                Collections.singletonList(FAMILY_PREFIX + familyId), digest(parts[1]), digest(nextSecret));
+        if (result == null) {
+            throw new ServiceException(401, "刷新令牌无效或已过期");
+        }
+        if (result.isEmpty()) {
+            reuseDetected.increment();
+            log.warn("检测到刷新令牌重放，令牌族已吊销: familyId={}", familyId);
+            throw new ServiceException(401, "刷新令牌已失效，请重新登录");
+        }
+        Map<String, String> fields = toMap(result);
+        Session session = Session.fromFields(fields);
+        // 修改密码、管理员吊销、删除用户等写入的吊销纪元同样作用于刷新令牌，缺少登录时间的旧族按已吊销处理
+        long issuedAt = TokenRevocationService.epochMillis(Long.parseLong(fields.getOrDefault(F_ISSUED_AT, "0")));
+        if (tokenRevocationService.isRevoked(null, String.valueOf(session.userId()), issuedAt)) {
+            revoke(familyId);
+            log.info("令牌族签发后用户令牌已被吊销: familyId={}, userId={}", familyId, session.userId());
+            throw new ServiceException(401, "刷新令牌已失效，请重新登录");
+        }
+        rotated.increment();
+        return new Rotation(familyId, session, familyId + "." + nextSecret);
+    }
+
+    /**
+     * 授权信息变更后更新令牌族中保存的声明，不影响当前 secret
+     */
+    public void update(String familyId, Session session) {
+        List<String> args = new ArrayList<>();
+        addFields(args, session.toFields());
+        stringRedisTemplate.execute(UPDATE_SCRIPT, Collections.singletonList(FAMILY_PREFIX + familyId), args.toArray());
+    }
+
+    /**
+     * 吊销单个令牌族
+     */
+    public void revoke(String familyId) {
+        stringRedisTemplate.delete(FAMILY_PREFIX + familyId);
+    }
+
+    /**
+     * 吊销用户全部令牌族（退出所有设备）
+     */
+    public void revokeAll(Long userId) {
+        String userKey = USER_FAMILIES_PREFIX + userId;
+        Set<String> familyIds = stringRedisTemplate.opsForSet().members(userKey);
+        List<String> keys = new ArrayList<>();
+        keys.add(userKey);
+        if (familyIds != null) {
+            for (String familyId : familyIds) {
+                keys.add(FAMILY_PREFIX + familyId);
+            }
+        }
+        stringRedisTemplate.delete(keys);
+        log.info("用户全部刷新令牌已吊销: userId={}, families={}", userId, keys.size() - 1);
+    }
+
+    private static void addFields(List<String> args, Map<String, String> fields) {
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            args.add(field.getKey());
+            args.add(field.getValue());
+        }
+    }
+
+    private static String[] split(String refreshToken) {
+        if (!StringUtils.hasText(refreshToken)) {
+            return null;
+        }
+        int dot = refreshToken.indexOf('.');
+        if (dot <= 0 || dot == refreshToken.length() - 1 || refreshToken.indexOf('.', dot + 1) >= 0) {
+            return null;
+        }
+        return new String[]{refreshToken.substring(0, dot), refreshToken.substring(dot + 1)};
+    }
+
+    private static String newSecret() {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    private static String digest(String secret) {
+        try {
+            MessageDigest sha256 = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(sha256.digest(secret.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Map<String, String> toMap(List<Object> flat) {
+        Map<String, String> map = new HashMap<>();
+        for (int i = 0; i + 1 < flat.size(); i += 2) {
+            map.put(String.valueOf(flat.get(i)), String.valueOf(flat.get(i + 1)));
+        }
+        return map;
+    }
+
+    /**
+     * 令牌族中保存的签发声明
+     */
+    public record Session(Long userId, String username, Long tenantId, String userType,
+                          List<String> roles, long authzVersion) {
+
+        Map<String, String> toFields() {
+            Map<String, String> fields = new HashMap<>();
+            fields.put(F_USER_ID, String.valueOf(userId));
+            fields.put(F_USERNAME, username);
+            fields.put(F_TENANT_ID, tenantId == null ? "" : String.valueOf(tenantId));
+            fields.put(F_USER_TYPE, userType == null ? "" : userType);
+            fields.put(F_ROLES, String.join(",", roles));
+            fields.put(F_AUTHZ_VERSION, String.valueOf(authzVersion));
+            return fields;
+        }
+
+        static Session fromFields(Map<String, String> fields) {
+            String tenantId = fields.get(F_TENANT_ID);
+            String userType = fields.get(F_USER_TYPE);
+            String roles = fields.get(F_ROLES);
+            return new Session(
+                    Long.valueOf(fields.get(F_USER_ID)),
+                    fields.get(F_USERNAME),
+                    StringUtils.hasText(tenantId) ? Long.valueOf(tenantId) : null,
+                    StringUtils.hasText(userType) ? userType : null,
+                    StringUtils.hasText(roles) ? Arrays.asList(roles.split(",")) : Collections.emptyList(),
+                    Long.parseLong(fields.getOrDefault(F_AUTHZ_VERSION, "0")));
+        }
+    }
+
+    /**
+     * 一次轮换的结果
+     */
+    public record Rotation(String familyId, Session session, String refreshToken) {
+    }
+}
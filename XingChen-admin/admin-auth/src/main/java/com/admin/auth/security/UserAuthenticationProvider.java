@@ -1,21 +1,26 @@
 package com.admin.auth.security;
 
 import com.admin.auth.feign.UserServiceClient;
+import com.admin.common.core.domain.Result;
+import com.admin.common.core.exception.ServiceException;
+import com.admin.identity.api.dto.IdentityUserDTO;
+import com.admin.identity.api.dto.UserRolesDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.LockedException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 用户认证提供者
@@ -30,6 +35,7 @@ public class UserAuthenticationProvider implements AuthenticationProvider {
 
     private final UserServiceClient userServiceClient;
     private final PasswordEncoder passwordEncoder;
+    private final LoginThrottle loginThrottle;
 
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
@@ -39,25 +45,17 @@ public class UserAuthenticationProvider implements AuthenticationProvider {
         log.info("开始认证用户: {}", username);
 
         try {
-            // 调用用户服务获取用户信息
-            Map<String, Object> userResult = userServiceClient.getUserByUsername(username);
-            if (userResult == null || userResult.get("data") == null) {
-                log.warn("用户不存在: {}", username);
-                throw new BadCredentialsException("用户名或密码错误");
-            }
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> userData = (Map<String, Object>) userResult.get("data");
+            // 限流检查，在调用用户服务与密码校验之前完成
+            String clientIp = authentication.getDetails() instanceof WebAuthenticationDetails details
+                    ? details.getRemoteAddress() : null;
+            loginThrottle.checkAttempt(clientIp, username);
 
-            // 验证密码
-            String storedPassword = (String) userData.get("password");
-            if (!passwordEncoder.matches(password, storedPassword)) {
-                log.warn("密码验证失败: {}", username);
-                throw new BadCredentialsException("用户名或密码错误");
-            }
+            // 调用用户服务获取用户信息并验证密码
+            IdentityUserDTO userData = loginThrottle.withPasswordCheckPermit(() -> verifyCredentials(username, password));
+            loginThrottle.onSuccess(username);
 
             // 检查用户状态
-            String status = (String) userData.get("status");
+            String status = userData.getStatus();
             if (!"0".equals(status)) {
                 log.warn("用户账户已禁用: {}", username);
                 throw new BadCredentialsException("账户已被禁用");
@@ -66,17 +64,10 @@ public class UserAuthenticationProvider implements AuthenticationProvider {
             // 获取用户角色
             List<GrantedAuthority> authorities = new ArrayList<>();
             try {
-                Long userId = Long.valueOf(userData.get("id").toString());
-                Map<String, Object> rolesResult = userServiceClient.getUserRoles(userId);
-                if (rolesResult != null && rolesResult.get("data") != null) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> rolesData = (Map<String, Object>) rolesResult.get("data");
-                    @SuppressWarnings("unchecked")
-                    List<String> roles = (List<String>) rolesData.get("roles");
-                    if (roles != null) {
-                        for (String role : roles) {
-                            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()));
-                        }
+                Result<UserRolesDTO> rolesResult = userServiceClient.getUserRoles(userData.getId());
+                if (rolesResult != null && rolesResult.getData() != null && rolesResult.getData().getRoles() != null) {
+                    for (String role : rolesResult.getData().getRoles()) {
+                        authorities.add(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()));
                     }
                 }
             } catch (Exception e) {
@@ -92,8 +83,7 @@ public class UserAuthenticationProvider implements AuthenticationProvider {
 
             // 更新登录信息
             try {
-                Long userId = Long.valueOf(userData.get("id").toString());
-                userServiceClient.getUserById(userId); // 触发登录信息更新
+                userServiceClient.getUserById(userData.getId()); // 触发登录信息更新
             } catch (Exception e) {
                 log.warn("更新登录信息失败: {}", e.getMessage());
             }
@@ -102,12 +92,35 @@ public class UserAuthenticationProvider implements AuthenticationProvider {
 
         } catch (AuthenticationException e) {
             throw e;
+        } catch (ServiceException e) {
+            // 限流拒绝按账户状态异常抛出，ProviderManager 不再尝试后续提供者
+            throw new LockedException(e.getMessage(), e);
         } catch (Exception e) {
             log.error("认证过程发生异常", e);
             throw new BadCredentialsException("认证失败");
         }
     }
 
+    /**
+     * 查询用户并校验密码，失败时计入用户名失败次数
+     */
+    private IdentityUserDTO verifyCredentials(String username, String password) {
+        Result<IdentityUserDTO> userResult = userServiceClient.getUserByUsername(username);
+        if (userResult == null || userResult.getData() == null) {
+            log.warn("用户不存在: {}", username);
+            loginThrottle.onFailure(username);
+            throw new BadCredentialsException("用户名或密码错误");
+        }
+
+        IdentityUserDTO userData = userResult.getData();
+        if (!passwordEncoder.matches(password, userData.getPassword())) {
+            log.warn("密码验证失败: {}", username);
+            loginThrottle.onFailure(username);
+            throw new BadCredentialsException("用户名或密码错误");
+        }
+        return userData;
+    }
+
     @Override
     public boolean supports(Class<?> authentication) {
         return UsernamePasswordAuthenticationToken.class.isAssignableFrom(authentication);
@@ -41,9 +41,11 @@ public interface AuthService {
 
     /**
      * 刷新Token
+     * 刷新令牌每次使用后轮换，调用方须保存返回的新刷新令牌
      * 
      * @param refreshToken 刷新令牌
-     * @return 新的令牌信息
+     * @return 新的访问令牌与刷新令牌
+     * @throws com.admin.auth.security.RefreshRetryException 已轮换但身份服务不可用，携带新的刷新令牌（503）
      */
     Map<String, Object> refreshToken(String refreshToken);
 
@@ -61,4 +63,11 @@ public interface AuthService {
      * @param token 访问令牌
      */
     void logout(String token);
-}
\ No newline at end of file
+
+    /**
+     * 退出所有设备，吊销该用户此前签发的全部令牌
+     * 
+     * @param token 访问令牌
+     */
+    void logoutAll(String token);
+}
@@ -0,0 +1,28 @@
+package com.admin.auth.service;
+
+import com.admin.auth.domain.dto.CaptchaResponse;
+
+/**
+ * 图形验证码服务接口
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public interface CaptchaService {
+
+    /**
+     * 签发验证码：取出一张预渲染图片，答案写入 Redis
+     *
+     * @return 验证码key与图片
+     */
+    CaptchaResponse issue();
+
+    /**
+     * 校验验证码，无论成功与否答案只能使用一次
+     *
+     * @param captchaKey 验证码key
+     * @param captcha    用户输入
+     * @return 是否正确
+     */
+    boolean verify(String captchaKey, String captcha);
+}
@@ -1,6 +1,9 @@
 package com.admin.auth.service;
 
 import com.admin.auth.feign.UserServiceClient;
+import com.admin.common.core.domain.Result;
+import com.admin.identity.api.dto.IdentityUserDTO;
+import com.admin.identity.api.dto.UserRolesDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.GrantedAuthority;
@@ -13,7 +16,6 @@ import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 自定义用户详情服务
@@ -35,17 +37,16 @@ public class CustomUserDetailsService implements UserDetailsService {
 
         try {
             // 调用用户服务获取用户信息
-            Map<String, Object> userResult = userServiceClient.getUserByUsername(username);
-            if (userResult == null || userResult.get("data") == null) {
+            Result<IdentityUserDTO> userResult = userServiceClient.getUserByUsername(username);
+            if (userResult == null || userResult.getData() == null) {
                 log.warn("用户不存在: {}", username);
                 throw new UsernameNotFoundException("用户不存在: " + username);
             }
 
-            @SuppressWarnings("unchecked")
-            Map<String, Object> userData = (Map<String, Object>) userResult.get("data");
+            IdentityUserDTO userData = userResult.getData();
 
             // 检查用户状态
-            String status = (String) userData.get("status");
+            String status = userData.getStatus();
             if (!"0".equals(status)) {
                 log.warn("用户账户已禁用: {}", username);
                 throw new UsernameNotFoundException("账户已被禁用: " + username);
@@ -54,17 +55,10 @@ public class CustomUserDetailsService implements UserDetailsService {
             // 获取用户角色
             List<GrantedAuthority> authorities = new ArrayList<>();
             try {
-                Long userId = Long.valueOf(userData.get("id").toString());
-                Map<String, Object> rolesResult = userServiceClient.getUserRoles(userId);
-                if (rolesResult != null && rolesResult.get("data") != null) {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> rolesData = (Map<String, Object>) rolesResult.get("data");
-                    @SuppressWarnings("unchecked")
-                    List<String> roles = (List<String>) rolesData.get("roles");
-                    if (roles != null) {
-                        for (String role : roles) {
-                            authorities.add(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()));
-                        }
+                Result<UserRolesDTO> rolesResult = userServiceClient.getUserRoles(userData.getId());
+                if (rolesResult != null && rolesResult.getData() != null && rolesResult.getData().getRoles() != null) {
+                    for (String role : rolesResult.getData().getRoles()) {
+                        authorities.add(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()));
                     }
                 }
             } catch (Exception e) {
@@ -76,7 +70,7 @@ public class CustomUserDetailsService implements UserDetailsService {
                 authorities.add(new SimpleGrantedAuthority("ROLE_USER"));
             }
 
-            String password = (String) userData.get("password");
+            String password = userData.getPassword();
             boolean enabled = "0".equals(status);
             boolean accountNonExpired = true;
             boolean credentialsNonExpired = true;
@@ -1,12 +1,29 @@
 package com.admin.auth.service.impl;
 
+import com.admin.auth.cache.CurrentUserCache;
+import com.admin.auth.client.IdentityFanOut;
+import com.admin.auth.client.IdentityLookupClient;
+import com.admin.auth.cache.TokenClaimsCache;
 import com.admin.auth.domain.dto.UserRegisterDTO;
 import com.admin.auth.domain.dto.UserRegisterResultDTO;
 import com.admin.auth.domain.dto.UserLoginRequestDTO;
 import com.admin.auth.domain.dto.UserLoginResponseDTO;
 import com.admin.auth.service.AuthService;
 import com.admin.auth.feign.UserServiceClient;
+import com.admin.auth.security.LoginThrottle;
+import com.admin.auth.security.RefreshRetryException;
+import com.admin.auth.security.RefreshTokenStore;
+import com.admin.common.constant.CommonConstants;
+import com.admin.common.core.domain.Result;
+import com.admin.common.core.exception.ServiceException;
+import com.admin.common.security.AuthorizationVersionService;
+import com.admin.common.security.TokenRevocationService;
 import com.admin.common.util.JwtUtil;
+import com.admin.identity.api.dto.CreateUserRequest;
+import com.admin.identity.api.dto.CreateUserResult;
+import com.admin.identity.api.dto.IdentityUserDTO;
+import com.admin.identity.api.dto.UserRolesDTO;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,7 +32,9 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -30,16 +49,26 @@ import java.util.concurrent.TimeUnit;
 @RequiredArgsConstructor
 public class AuthServiceImpl implements AuthService {
 
+    /**
+     * 令牌族声明未从身份服务加载时记录的授权版本，授权版本从0开始，首次刷新必然重新加载
+     */
+    private static final long UNLOADED_AUTHZ_VERSION = -1L;
+
     private final UserServiceClient userServiceClient;
     private final PasswordEncoder passwordEncoder;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final TokenRevocationService tokenRevocationService;
+    private final AuthorizationVersionService authorizationVersionService;
+    private final LoginThrottle loginThrottle;
+    private final TokenClaimsCache tokenClaimsCache;
+    private final CurrentUserCache currentUserCache;
+    private final RefreshTokenStore refreshTokenStore;
+    private final IdentityLookupClient identityLookupClient;
+    private final IdentityFanOut identityFanOut;
 
     @Value("${jwt.expiration:86400}")
     private Long accessTokenExpiration;
 
-    @Value("${jwt.refresh-expiration:604800}")
-    private Long refreshTokenExpiration;
-
     @Override
     public UserRegisterResultDTO register(UserRegisterDTO registerDTO) {
         // 1. 验证密码匹配
@@ -47,38 +76,33 @@ public class AuthServiceImpl implements AuthService {
             throw new RuntimeException("两次输入的密码不一致");
         }
 
-        // 2. 检查用户名是否已存在
-        Map<String, Object> checkResult = userServiceClient.checkUsername(registerDTO.getUsername());
-        if ((Boolean) checkResult.get("data")) {
-            throw new RuntimeException("用户名已存在");
-        }
+        // 2. 加密密码（用户名/邮箱/手机号判重由身份服务唯一索引在创建时完成）
+        String encodedPassword = passwordEncoder.encode(registerDTO.getPassword());
 
-        // 3. 检查邮箱是否已存在
-        Map<String, Object> emailCheckResult = userServiceClient.checkEmail(registerDTO.getEmail());
-        if ((Boolean) emailCheckResult.get("data")) {
-            throw new RuntimeException("邮箱已被使用");
+        // 3. 构建用户创建请求
+        CreateUserRequest createUserRequest = new CreateUserRequest();
+        createUserRequest.setTenantId(registerDTO.getTenantId());
+        createUserRequest.setUsername(registerDTO.getUsername());
+        createUserRequest.setPassword(encodedPassword);
+        createUserRequest.setEmail(registerDTO.getEmail());
+        createUserRequest.setPhone(registerDTO.getPhone());
+        createUserRequest.setRealName(registerDTO.getRealName());
+        createUserRequest.setNickname(registerDTO.getNickname());
+        createUserRequest.setSex(registerDTO.getSex());
+        createUserRequest.setUserType(registerDTO.getUserType());
+
+        // 4. 调用用户服务原子创建用户，一次往返完成判重与插入
+        Result<CreateUserResult> createResult = userServiceClient.registerUser(createUserRequest);
+        if (createResult == null || createResult.getData() == null) {
+            throw new RuntimeException(createResult != null ? createResult.getMessage() : "创建用户失败");
         }
+        CreateUserResult created = createResult.getData();
+        if (created.hasConflict()) {
+            throw new ServiceException(409, created.conflictMessage());
+        }
+        Long userId = created.getUserId();
 
-        // 4. 加密密码
-        String encodedPassword = passwordEncoder.encode(registerDTO.getPassword());
-
-        // 5. 构建用户创建请求
-        Map<String, Object> createUserRequest = new HashMap<>();
-        createUserRequest.put("tenantId", registerDTO.getTenantId());
-        createUserRequest.put("username", registerDTO.getUsername());
-        createUserRequest.put("password", encodedPassword);
-        createUserRequest.put("email", registerDTO.getEmail());
-        createUserRequest.put("phone", registerDTO.getPhone());
-        createUserRequest.put("realName", registerDTO.getRealName());
-        createUserRequest.put("nickname", registerDTO.getNickname());
-        createUserRequest.put("sex", registerDTO.getSex());
-        createUserRequest.put("userType", registerDTO.getUserType());
-
-        // 6. 调用用户服务创建用户
-        Map<String, Object> createResult = userServiceClient.createUser(createUserRequest);
-        Long userId = Long.valueOf(createResult.get("data").toString());
-
-        // 7. 构建注册结果
+        // 5. 构建注册结果
         UserRegisterResultDTO result = new UserRegisterResultDTO();
         result.setUserId(userId);
         result.setUsername(registerDTO.getUsername());
@@ -95,48 +119,47 @@ public class AuthServiceImpl implements AuthService {
 
     @Override
     public UserLoginResponseDTO login(UserLoginRequestDTO loginRequest) {
-        // 1. 验证用户名和密码
-        Map<String, Object> userResult = userServiceClient.getUserByUsername(loginRequest.getUsername());
-        if (userResult.get("data") == null) {
-            throw new RuntimeException("用户名或密码错误");
-        }
+        // 1. 限流检查（IP/用户名退避），在任何远程调用与密码哈希之前完成
+        loginThrottle.checkAttempt(loginRequest.getLoginIp(), loginRequest.getUsername());
 
-        @SuppressWarnings("unchecked")
-        Map<String, Object> userData = (Map<String, Object>) userResult.get("data");
-
-        // 2. 验证密码
-        String storedPassword = (String) userData.get("password");
-        if (!passwordEncoder.matches(loginRequest.getPassword(), storedPassword)) {
-            throw new RuntimeException("用户名或密码错误");
-        }
+        // 2. 验证用户名和密码（受全局并发上限保护）
+        IdentityUserDTO userData = loginThrottle.withPasswordCheckPermit(() -> verifyCredentials(loginRequest));
+        loginThrottle.onSuccess(loginRequest.getUsername());
 
         // 3. 检查用户状态
-        Integer status = (Integer) userData.get("status");
-        if (status != null && status != 0) {
+        String status = userData.getStatus();
+        if (status != null && !"0".equals(status)) {
             throw new RuntimeException("账户已被禁用");
         }
 
-        // 4. 生成Token
-        Long userId = Long.valueOf(userData.get("id").toString());
-        String username = (String) userData.get("username");
-        
-        String accessToken = generateAccessToken(userData);
-        String refreshToken = generateRefreshToken(userId, username);
-
-        // 5. 缓存用户登录信息
+        // 4. 获取角色：在密码校验许可之外调用身份服务，远程调用不占用 BCrypt 并发名额；授权版本须在角色之前读取
+        Long userId = userData.getId();
+        String username = userData.getUsername();
+        long authzVersion = authorizationVersionService.currentVersion(userId);
+        List<String> fetchedRoles = fetchRoles(userId);
+
+        // 5. 生成Token（访问令牌携带租户、用户类型、角色与授权版本）
+        // 角色获取失败时本次使用默认角色，令牌族不保存默认角色，并以未加载版本记录，首次刷新时重新获取
+        List<String> roles = fetchedRoles != null ? fetchedRoles : Collections.singletonList("USER");
+        RefreshTokenStore.Session session = toSession(userData, roles, authzVersion);
+        String accessToken = generateAccessToken(session);
+        String refreshToken = refreshTokenStore.create(fetchedRoles != null ? session
+                : toSession(userData, Collections.emptyList(), UNLOADED_AUTHZ_VERSION));
+
+        // 6. 缓存用户登录信息
         cacheUserLoginInfo(userId, accessToken, loginRequest.getLoginIp());
 
-        // 6. 构建登录响应
+        // 7. 构建登录响应
         UserLoginResponseDTO response = new UserLoginResponseDTO();
         response.setUserId(userId);
         response.setUsername(username);
-        response.setNickname((String) userData.get("nickname"));
-        response.setRealName((String) userData.get("realName"));
-        response.setEmail((String) userData.get("email"));
-        response.setPhone((String) userData.get("phone"));
-        response.setSex((String) userData.get("sex"));
-        response.setUserType((String) userData.get("userType"));
-        response.setTenantId(Long.valueOf(userData.get("tenantId").toString()));
+        response.setNickname(userData.getNickname());
+        response.setRealName(userData.getRealName());
+        response.setEmail(userData.getEmail());
+        response.setPhone(userData.getPhone());
+        response.setSex(userData.getSex());
+        response.setUserType(userData.getUserType());
+        response.setTenantId(userData.getTenantId());
         response.setLoginTime(LocalDateTime.now());
         response.setLoginIp(loginRequest.getLoginIp());
         response.setMessage("登录成功，欢迎回来！");
@@ -147,22 +170,7 @@ public class AuthServiceImpl implements AuthService {
         response.setTokenType("Bearer");
         response.setExpiresIn(accessTokenExpiration);
 
-        // 获取用户角色
-        try {
-            Map<String, Object> rolesResult = userServiceClient.getUserRoles(userId);
-            @SuppressWarnings("unchecked")
-            Map<String, Object> rolesData = (Map<String, Object>) rolesResult.get("data");
-            if (rolesData != null) {
-                @SuppressWarnings("unchecked")
-                java.util.List<String> roles = (java.util.List<String>) rolesData.get("roles");
-                response.setRoles(roles != null ? roles : java.util.Arrays.asList("USER"));
-            } else {
-                response.setRoles(java.util.Arrays.asList("USER"));
-            }
-        } catch (Exception e) {
-            log.warn("获取用户角色失败: {}", e.getMessage());
-            response.setRoles(java.util.Arrays.asList("USER"));
-        }
+        response.setRoles(roles);
 
         return response;
     }
@@ -172,14 +180,12 @@ public class AuthServiceImpl implements AuthService {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            boolean isValid = JwtUtil.validateToken(token);
-            result.put("valid", isValid);
+            Claims claims = parseActiveToken(token);
+            result.put("valid", claims != null);
             
-            if (isValid) {
-                String userId = JwtUtil.getUserIdFromToken(token);
-                String username = JwtUtil.getUsernameFromToken(token);
-                result.put("userId", userId);
-                result.put("username", username);
+            if (claims != null) {
+                result.put("userId", claims.get("userId"));
+                result.put("username", claims.getSubject());
             }
         } catch (Exception e) {
             log.error("Token验证失败", e);
@@ -192,31 +198,27 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public Map<String, Object> refreshToken(String refreshToken) {
         try {
-            // 验证刷新令牌
-            if (!JwtUtil.validateToken(refreshToken)) {
-                throw new RuntimeException("刷新令牌无效或已过期");
+            // 校验并轮换刷新令牌，旧令牌立即失效，重放时整个令牌族被吊销
+            RefreshTokenStore.Rotation rotation = refreshTokenStore.rotate(refreshToken);
+            RefreshTokenStore.Session session = rotation.session();
+
+            // 授权版本未变时直接使用令牌族中的声明，不访问身份服务
+            long authzVersion = authorizationVersionService.currentVersion(session.userId());
+            if (authzVersion != session.authzVersion()) {
+                session = reloadSession(rotation, authzVersion);
             }
-
-            String userId = JwtUtil.getUserIdFromToken(refreshToken);
-            String username = JwtUtil.getUsernameFromToken(refreshToken);
-
-            // 获取用户信息生成新的访问令牌
-            Map<String, Object> userResult = userServiceClient.getUserByUsername(username);
-            if (userResult.get("data") == null) {
-                throw new RuntimeException("用户不存在");
-            }
-
-            @SuppressWarnings("unchecked")
-            Map<String, Object> userData = (Map<String, Object>) userResult.get("data");
-            String newAccessToken = generateAccessToken(userData);
+            String newAccessToken = generateAccessToken(session);
 
             Map<String, Object> result = new HashMap<>();
             result.put("accessToken", newAccessToken);
+            result.put("refreshToken", rotation.refreshToken());
             result.put("tokenType", "Bearer");
             result.put("expiresIn", accessTokenExpiration);
             result.put("message", "Token刷新成功");
 
             return result;
+        } catch (ServiceException e) {
+            throw e;
         } catch (Exception e) {
             throw new RuntimeException("Token刷新失败：" + e.getMessage());
         }
@@ -225,52 +227,61 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public UserLoginResponseDTO getCurrentUser(String token) {
         // 验证Token
-        if (!JwtUtil.validateToken(token)) {
+        Claims claims = parseActiveToken(token);
+        if (claims == null) {
             throw new RuntimeException("Token无效或已过期");
         }
 
         // 获取用户信息
-        String userId = JwtUtil.getUserIdFromToken(token);
+        Object userIdClaim = claims.get("userId");
+        String userId = userIdClaim != null ? userIdClaim.toString() : null;
         if (userId == null) {
             throw new RuntimeException("无法从Token中获取用户信息");
         }
 
-        Map<String, Object> userResult = userServiceClient.getUserById(Long.valueOf(userId));
-        if (userResult.get("data") == null) {
-            throw new RuntimeException("用户不存在");
+        // 热路径：按 (用户ID, 权限版本) 命中缓存，不访问身份服务
+        Long id = Long.valueOf(userId);
+        long version = permissionVersion(claims);
+        UserLoginResponseDTO cached = currentUserCache.get(id, version);
+        if (cached != null) {
+            return cached;
         }
 
-        @SuppressWarnings("unchecked")
-        Map<String, Object> userData = (Map<String, Object>) userResult.get("data");
+        // 用户信息与角色相互独立，并发获取并共享截止时间
+        IdentityUserDTO userData;
+        List<String> roles;
+        try (IdentityFanOut.Scope scope = identityFanOut.open()) {
+            IdentityFanOut.Subtask<Result<IdentityUserDTO>> user = scope.fork(() -> identityLookupClient.getUserById(id));
+            IdentityFanOut.Subtask<List<String>> userRoles = scope.fork(() -> rolesOf(identityLookupClient.getUserRoles(id)));
+            scope.join();
+
+            Result<IdentityUserDTO> userResult = user.orElse(null);
+            if (userResult == null || userResult.getData() == null) {
+                throw new RuntimeException("用户不存在");
+            }
+            userData = userResult.getData();
+            roles = userRoles.orElse(null);
+        }
 
         // 构建响应
         UserLoginResponseDTO response = new UserLoginResponseDTO();
-        response.setUserId(Long.valueOf(userData.get("id").toString()));
-        response.setUsername((String) userData.get("username"));
-        response.setNickname((String) userData.get("nickname"));
-        response.setRealName((String) userData.get("realName"));
-        response.setEmail((String) userData.get("email"));
-        response.setPhone((String) userData.get("phone"));
-        response.setSex((String) userData.get("sex"));
-        response.setUserType((String) userData.get("userType"));
-        response.setTenantId(Long.valueOf(userData.get("tenantId").toString()));
+        response.setUserId(userData.getId());
+        response.setUsername(userData.getUsername());
+        response.setNickname(userData.getNickname());
+        response.setRealName(userData.getRealName());
+        response.setEmail(userData.getEmail());
+        response.setPhone(userData.getPhone());
+        response.setSex(userData.getSex());
+        response.setUserType(userData.getUserType());
+        response.setTenantId(userData.getTenantId());
         response.setAccountStatus("ACTIVE");
 
-        // 获取用户角色
-        try {
-            Map<String, Object> rolesResult = userServiceClient.getUserRoles(Long.valueOf(userId));
-            @SuppressWarnings("unchecked")
-            Map<String, Object> rolesData = (Map<String, Object>) rolesResult.get("data");
-            if (rolesData != null) {
-                @SuppressWarnings("unchecked")
-                java.util.List<String> roles = (java.util.List<String>) rolesData.get("roles");
-                response.setRoles(roles != null ? roles : java.util.Arrays.asList("USER"));
-            } else {
-                response.setRoles(java.util.Arrays.asList("USER"));
-            }
-        } catch (Exception e) {
-            log.warn("获取用户角色失败: {}", e.getMessage());
-            response.setRoles(java.util.Arrays.asList("USER"));
+        // 角色获取失败时使用默认角色且不缓存
+        if (roles != null) {
+            response.setRoles(roles);
+            currentUserCache.put(id, version, response);
+        } else {
+            response.setRoles(Collections.singletonList("USER"));
         }
 
         return response;
@@ -279,12 +290,16 @@ public class AuthServiceImpl implements AuthService {
     @Override
     public void logout(String token) {
         try {
-            // 将Token加入黑名单
-            String blacklistKey = "auth:blacklist:" + token;
-            redisTemplate.opsForValue().set(blacklistKey, "1", accessTokenExpiration, TimeUnit.SECONDS);
+            Claims claims = tokenClaimsCache.parse(token);
+            if (claims == null) {
+                return;
+            }
+
+            // 按 jti 吊销，记录保留至令牌过期
+            tokenRevocationService.revoke(claims);
             
             // 清除用户登录缓存
-            String userId = JwtUtil.getUserIdFromToken(token);
+            Object userId = claims.get("userId");
             if (userId != null) {
                 String loginKey = "auth:login:" + userId;
                 redisTemplate.delete(loginKey);
@@ -295,31 +310,140 @@ public class AuthServiceImpl implements AuthService {
         }
     }
 
+    @Override
+    public void logoutAll(String token) {
+        Claims claims = parseActiveToken(token);
+        if (claims == null || claims.get("userId") == null) {
+            throw new RuntimeException("Token无效或已过期");
+        }
+        String userId = claims.get("userId").toString();
+        tokenRevocationService.revokeAllForUser(userId);
+        refreshTokenStore.revokeAll(Long.valueOf(userId));
+        redisTemplate.delete("auth:login:" + userId);
+    }
+
+    /**
+     * 解析令牌并校验吊销状态，无效或已吊销返回null
+     */
+    private Claims parseActiveToken(String token) {
+        Claims claims = tokenClaimsCache.parse(token);
+        if (claims == null || tokenRevocationService.isRevoked(claims)) {
+            return null;
+        }
+        return claims;
+    }
+
+    /**
+     * 查询用户并校验密码，失败时计入用户名失败次数
+     * 角色由调用方在密码校验通过、释放许可之后查询，错误密码不会产生角色查询
+     */
+    private IdentityUserDTO verifyCredentials(UserLoginRequestDTO loginRequest) {
+        Result<IdentityUserDTO> userResult = userServiceClient.getUserByUsername(loginRequest.getUsername());
+        if (userResult == null || userResult.getData() == null) {
+            loginThrottle.onFailure(loginRequest.getUsername());
+            throw new RuntimeException("用户名或密码错误");
+        }
+
+        IdentityUserDTO userData = userResult.getData();
+        if (!passwordEncoder.matches(loginRequest.getPassword(), userData.getPassword())) {
+            loginThrottle.onFailure(loginRequest.getUsername());
+            throw new RuntimeException("用户名或密码错误");
+        }
+        return userData;
+    }
+
+    /**
+     * 授权版本变化后从身份服务重新加载令牌族声明
+     * 仅当身份服务明确答复用户不存在（404）或已禁用时吊销令牌族；调用失败或降级时令牌族保持不变，
+     * 以503返回轮换后的新刷新令牌供客户端重试。角色获取失败时本次使用默认角色，且不写回令牌族以便下次刷新重试
+     */
+    private RefreshTokenStore.Session reloadSession(RefreshTokenStore.Rotation rotation, long authzVersion) {
+        String familyId = rotation.familyId();
+        Long userId = rotation.session().userId();
+        Result<IdentityUserDTO> userResult;
+        try {
+            userResult = userServiceClient.getUserById(userId);
+        } catch (Exception e) {
+            log.warn("重新加载令牌族声明失败: userId={}, 原因: {}", userId, e.getMessage());
+            userResult = null;
+        }
+        if (userResult != null && CommonConstants.NOT_FOUND_CODE.equals(userResult.getCode())) {
+            refreshTokenStore.revoke(familyId);
+            throw new ServiceException(401, "用户不存在或已被禁用");
+        }
+        if (userResult == null || !userResult.isSuccess() || userResult.getData() == null) {
+            throw new RefreshRetryException("身份服务暂不可用，请使用新的刷新令牌重试", rotation.refreshToken());
+        }
+
+        IdentityUserDTO userData = userResult.getData();
+        if (userData.getStatus() != null && !"0".equals(userData.getStatus())) {
+            refreshTokenStore.revoke(familyId);
+            throw new ServiceException(401, "用户不存在或已被禁用");
+        }
+
+        List<String> roles = fetchRoles(userId);
+        if (roles == null) {
+            return toSession(userData, Collections.singletonList("USER"), authzVersion);
+        }
+        RefreshTokenStore.Session session = toSession(userData, roles, authzVersion);
+        refreshTokenStore.update(familyId, session);
+        return session;
+    }
+
+    private static RefreshTokenStore.Session toSession(IdentityUserDTO userData, List<String> roles, long authzVersion) {
+        return new RefreshTokenStore.Session(userData.getId(), userData.getUsername(), userData.getTenantId(),
+                userData.getUserType(), roles, authzVersion);
+    }
+
     /**
      * 生成访问令牌
+     * 授权版本须在读取角色之前获取：两次读取之间发生的变更会使令牌版本落后而被拒绝，而不是带着旧角色通过
      */
-    private String generateAccessToken(Map<String, Object> userData) {
+    private String generateAccessToken(RefreshTokenStore.Session session) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", userData.get("id"));
-        claims.put("username", userData.get("username"));
-        claims.put("tenantId", userData.get("tenantId"));
-        claims.put("userType", userData.get("userType"));
-        claims.put("email", userData.get("email"));
-        claims.put("tokenType", "access");
-
-        return JwtUtil.generateToken(userData.get("username").toString(), userData.get("id").toString());
+        if (session.tenantId() != null) {
+            claims.put(JwtUtil.CLAIM_TENANT_ID, session.tenantId());
+        }
+        if (session.userType() != null) {
+            claims.put(JwtUtil.CLAIM_USER_TYPE, session.userType());
+        }
+        claims.put(JwtUtil.CLAIM_ROLES, session.roles());
+        claims.put(JwtUtil.CLAIM_AUTHZ_VERSION, session.authzVersion());
+        return JwtUtil.generateToken(session.userId().toString(), session.username(),
+                JwtUtil.TokenType.ACCESS, claims);
     }
 
     /**
-     * 生成刷新令牌
+     * 获取用户角色，失败或为空时返回null
      */
-    private String generateRefreshToken(Long userId, String username) {
-        Map<String, Object> claims = new HashMap<>();
-        claims.put("userId", userId);
-        claims.put("username", username);
-        claims.put("tokenType", "refresh");
+    private List<String> fetchRoles(Long userId) {
+        try {
+            Result<UserRolesDTO> rolesResult = userServiceClient.getUserRoles(userId);
+            if (rolesResult != null && rolesResult.getData() != null && rolesResult.getData().getRoles() != null) {
+                return rolesResult.getData().getRoles();
+            }
+        } catch (Exception e) {
+            log.warn("获取用户角色失败: {}", e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * 角色查询结果中的角色列表，查询失败或为空时抛出异常，交由扇出作用域记为失败
+     */
+    private static List<String> rolesOf(Result<UserRolesDTO> rolesResult) {
+        if (rolesResult != null && rolesResult.getData() != null && rolesResult.getData().getRoles() != null) {
+            return rolesResult.getData().getRoles();
+        }
+        throw new IllegalStateException("获取用户角色失败");
+    }
 
-        return JwtUtil.generateToken(username, userId.toString());
+    /**
+     * 令牌中的权限版本（ver 声明），未携带时为0
+     */
+    private static long permissionVersion(Claims claims) {
+        Object version = claims.get(JwtUtil.CLAIM_AUTHZ_VERSION);
+        return version == null ? 0L : Long.parseLong(version.toString());
     }
 
     /**
@@ -338,4 +462,4 @@ public class AuthServiceImpl implements AuthService {
             log.warn("缓存用户登录信息失败: {}", e.getMessage());
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,199 @@
+package com.admin.auth.service.impl;
+
+import com.admin.auth.domain.dto.CaptchaResponse;
+import com.admin.auth.service.CaptchaService;
+import com.admin.common.core.exception.ServiceException;
+import com.wf.captcha.SpecCaptcha;
+import com.wf.captcha.base.Captcha;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 图形验证码服务实现
+ * <ul>
+ *     <li>后台线程按 refill-rate 持续渲染，补满容量为 pool-size 的预渲染池</li>
+ *     <li>签发 = 出池一张 + 一次 Redis SET（答案，TTL 为有效期），请求线程不做图片渲染</li>
+ *     <li>池耗尽时按配置在请求线程内渲染兜底或直接返回 503，并计入耗尽次数</li>
+ *     <li>校验使用 GETDEL，答案只能使用一次</li>
+ * </ul>
+ * 每张预渲染图片只出池一次，不会重复下发。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+@Service
+public class CaptchaServiceImpl implements CaptchaService {
+
+    private static final String CAPTCHA_PREFIX = "auth:captcha:";
+    private static final long REFILL_TICK_MILLIS = 100;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final BlockingQueue<RenderedCaptcha> pool;
+    private final double refillPerTick;
+    private final Duration ttl;
+    private final boolean inlineFallback;
+    private final int width;
+    private final int height;
+    private final int length;
+
+    private final Counter issuedFromPool;
+    private final Counter issuedInline;
+    private final Counter exhausted;
+    private final Timer renderTimer;
+
+    private ScheduledExecutorService refiller;
+
+    /**
+     * 累计的可渲染张数，低于每周期一张的速率按小数累加；只由补充线程访问
+     */
+    private double refillCredit;
+
+    public CaptchaServiceImpl(StringRedisTemplate stringRedisTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${auth.captcha.pool-size:500}") int poolSize,
+                              @Value("${auth.captcha.refill-rate:50}") double refillRate,
+                              @Value("${auth.captcha.ttl:PT2M}") Duration ttl,
+                              @Value("${auth.captcha.inline-fallback:true}") boolean inlineFallback,
+                              @Value("${auth.captcha.width:130}") int width,
+                              @Value("${auth.captcha.height:48}") int height,
+                              @Value("${auth.captcha.length:4}") int length) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.pool = new ArrayBlockingQueue<>(poolSize);
+        this.refillPerTick = refillRate * REFILL_TICK_MILLIS / 1000.0;
+        this.ttl = ttl;
+        this.inlineFallback = inlineFallback;
+        this.width = width;
+        this.height = height;
+        this.length = length;
+
+        this.issuedFromPool = issuedCounter(meterRegistry, "pool");
+        this.issuedInline = issuedCounter(meterRegistry, "inline");
+        this.exhausted = Counter.builder("auth.captcha.pool.exhausted")
+                .description("签发时验证码池为空的次数")
+                .register(meterRegistry);
+        this.renderTimer = Timer.builder("auth.captcha.render")
+                .description("单张验证码渲染耗时")
+                .register(meterRegistry);
+        Gauge.builder("auth.captcha.pool.size", pool, BlockingQueue::size)
+                .description("预渲染验证码池当前数量")
+                .register(meterRegistry);
+        Gauge.builder("auth.captcha.pool.capacity", () -> poolSize)
+                .description("预渲染验证码池容量")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        refiller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "captcha-refill");
+            thread.setDaemon(true);
+            // 渲染是后台工作，让位于请求线程
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        refiller.scheduleWithFixedDelay(this::refill, 0, REFILL_TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (refiller != null) {
+            refiller.shutdownNow();
+        }
+    }
+
+    @Override
+    public CaptchaResponse issue() {
+        RenderedCaptcha captcha = pool.poll();
+        if (captcha != null) {
+            issuedFromPool.increment();
+        } else {
+            exhausted.increment();
+            if (!inlineFallback) {
+                throw new ServiceException(503, "验证码服务繁忙，请稍后再试");
+            }
+            log.debug("验证码池已空，在请求线程内渲染");
+            captcha = render();
+            issuedInline.increment();
+        }
+
+        String captchaKey = UUID.randomUUID().toString().replace("-", "");
+        stringRedisTemplate.opsForValue().set(CAPTCHA_PREFIX + captchaKey, captcha.answer(), ttl);
+        return new CaptchaResponse(captchaKey, captcha.image(), ttl.toSeconds());
+    }
+
+    @Override
+    public boolean verify(String captchaKey, String captcha) {
+        if (!StringUtils.hasText(captchaKey) || !StringUtils.hasText(captcha)) {
+            return false;
+        }
+        String answer = stringRedisTemplate.opsForValue().getAndDelete(CAPTCHA_PREFIX + captchaKey);
+        return answer != null && answer.equals(normalize(captcha));
+    }
+
+    /**
+     * 补充验证码池，按 refill-rate 累计可渲染张数，每个周期渲染其整数部分
+     * 池满时清零，避免空闲期间累计后集中渲染
+     */
+    void refill() {
+        if (pool.remainingCapacity() == 0) {
+            refillCredit = 0;
+            return;
+        }
+        refillCredit = Math.min(refillCredit + refillPerTick, Math.max(1.0, refillPerTick));
+        try {
+            while (refillCredit >= 1 && pool.remainingCapacity() > 0) {
+                refillCredit -= 1;
+                if (!pool.offer(render())) {
+                    return;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("补充验证码池失败: {}", e.getMessage());
+        }
+    }
+
+    private RenderedCaptcha render() {
+        return renderTimer.record(() -> {
+            SpecCaptcha captcha = new SpecCaptcha(width, height, length);
+            captcha.setCharType(Captcha.TYPE_DEFAULT);
+            String answer = normalize(captcha.text());
+            return new RenderedCaptcha(answer, captcha.toBase64());
+        });
+    }
+
+    private static String normalize(String text) {
+        return text.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter issuedCounter(MeterRegistry meterRegistry, String source) {
+        return Counter.builder("auth.captcha.issued")
+                .description("已签发验证码数")
+                .tag("source", source)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 预渲染的验证码：答案与 base64 图片
+     */
+    private record RenderedCaptcha(String answer, String image) {
+    }
+}
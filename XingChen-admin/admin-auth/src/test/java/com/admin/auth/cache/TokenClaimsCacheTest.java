@@ -0,0 +1,70 @@
+package com.admin.auth.cache;
+
+import com.admin.common.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 已验签令牌声明缓存测试
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+class TokenClaimsCacheTest {
+
+    private SimpleMeterRegistry registry;
+    private TokenClaimsCache cache;
+
+    @BeforeAll
+    static void initKeyRing() {
+        JwtUtil jwtUtil = new JwtUtil();
+        jwtUtil.setSecretKey("tokenClaimsCacheTestSecret0123456789abcdef");
+        jwtUtil.setExpiration(1800L);
+        jwtUtil.setRefreshExpiration(604800L);
+        jwtUtil.setAccessAlgorithm("HS256");
+        jwtUtil.setRefreshAlgorithm("HS256");
+        jwtUtil.initKeyRing();
+    }
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        cache = new TokenClaimsCache(registry, 100);
+    }
+
+    @Test
+    void validTokenIsVerifiedOnce() {
+        String token = JwtUtil.generateToken("7", "alice");
+
+        Claims first = cache.parse(token);
+        Claims second = cache.parse(token);
+
+        assertNotNull(first);
+        assertEquals("7", first.get("userId"));
+        assertSame(first, second);
+        assertEquals(1.0, cacheSize());
+    }
+
+    @Test
+    void invalidTokenIsNotCached() {
+        String token = JwtUtil.generateToken("7", "alice");
+        String tampered = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        assertNull(cache.parse(tampered));
+        assertNull(cache.parse("not-a-token"));
+        assertNull(cache.parse(null));
+        assertEquals(0.0, cacheSize());
+    }
+
+    private double cacheSize() {
+        return registry.get("cache.size").tag("cache", "auth.token.claims").gauge().value();
+    }
+}
@@ -0,0 +1,129 @@
+package com.admin.auth.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.ClientAuthenticationMethod;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.server.authorization.InMemoryOAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2Authorization;
+import org.springframework.security.oauth2.server.authorization.OAuth2AuthorizationService;
+import org.springframework.security.oauth2.server.authorization.OAuth2TokenType;
+import org.springframework.security.oauth2.server.authorization.client.RegisteredClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 令牌内省吞吐基准
+ * 授权存储中预置 10000 个授权，按批大小 1/10/100 对比：
+ * <ul>
+ *     <li>direct：逐个查询授权存储（改造前每个令牌的服务端开销）</li>
+ *     <li>cachedSingle：逐个走内省缓存（单令牌接口）</li>
+ *     <li>cachedBatch：整批走内省缓存（批量接口）</li>
+ * </ul>
+ * 吞吐单位为批次/秒，乘以批大小即令牌/秒；不含 HTTP 往返，批量接口另外节省 (N-1) 次往返。
+ * <p>
+ * 运行方式：mvn -pl admin-auth -am test-compile 生成 JMH 元数据后执行 main 方法
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TokenIntrospectionBenchmark {
+
+    private static final int AUTHORIZATIONS = 10_000;
+
+    @Param({"1", "10", "100"})
+    private int batchSize;
+
+    private OAuth2AuthorizationService authorizationService;
+    private TokenIntrospectionCache introspectionCache;
+    private List<String> batch;
+
+    @Setup
+    public void setup() {
+        RegisteredClient client = RegisteredClient.withId("bench-client")
+                .clientId("bench-client")
+                .clientAuthenticationMethod(ClientAuthenticationMethod.CLIENT_SECRET_BASIC)
+                .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                .build();
+        InMemoryOAuth2AuthorizationService service = new InMemoryOAuth2AuthorizationService();
+        List<String> tokens = new ArrayList<>(AUTHORIZATIONS);
+        Instant now = Instant.now();
+        for (int i = 0; i < AUTHORIZATIONS; i++) {
+            String value = "token-" + i;
+            Map<String, Object> claims = Map.of("userId", (long) i, "tenantId", 1L);
+            OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, value,
+                    now, now.plus(Duration.ofHours(1)), Set.of("read"));
+            service.save(OAuth2Authorization.withRegisteredClient(client)
+                    .id("authorization-" + i)
+                    .principalName("user" + i)
+                    .authorizationGrantType(AuthorizationGrantType.CLIENT_CREDENTIALS)
+                    .authorizedScopes(Set.of("read"))
+                    .token(accessToken, metadata -> metadata.put(OAuth2Authorization.Token.CLAIMS_METADATA_NAME, claims))
+                    .build());
+            tokens.add(value);
+        }
+        authorizationService = service;
+        introspectionCache = new TokenIntrospectionCache(service, new SimpleMeterRegistry(),
+                Duration.ofMinutes(5), Duration.ofSeconds(10), AUTHORIZATIONS);
+
+        // 取存储中分布均匀的令牌组成一批，并预热缓存
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add(tokens.get(i * (AUTHORIZATIONS / batchSize)));
+        }
+        introspectionCache.introspectAll(batch);
+    }
+
+    @Benchmark
+    public void direct(Blackhole blackhole) {
+        for (String token : batch) {
+            blackhole.consume(authorizationService.findByToken(token, OAuth2TokenType.ACCESS_TOKEN));
+        }
+    }
+
+    @Benchmark
+    public void cachedSingle(Blackhole blackhole) {
+        for (String token : batch) {
+            blackhole.consume(introspectionCache.introspect(token));
+        }
+    }
+
+    @Benchmark
+    public Object cachedBatch() {
+        return introspectionCache.introspectAll(batch);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(TokenIntrospectionBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,128 @@
+package com.admin.auth.client;
+
+import com.admin.common.core.domain.Result;
+import com.admin.identity.api.dto.IdentityUserDTO;
+import com.admin.identity.api.dto.UserRolesDTO;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.support.RestClientAdapter;
+import org.springframework.web.service.invoker.HttpServiceProxyFactory;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 身份服务调用串行与并发扇出的延迟对比
+ * 本地 HttpServer 模拟身份服务，每个接口固定延迟 latencyMs，
+ * meSerial / meFanOut 对比 /api/auth/me 缓存未命中时获取用户信息与角色。
+ * 串行版本与改造前的 Feign 调用顺序一致，两者使用同一 HTTP 客户端，差异只来自调用编排。
+ * <p>
+ * 运行方式：mvn -pl admin-auth -am test-compile 生成 JMH 元数据后执行 main 方法
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdentityFanOutBenchmark {
+
+    private static final String USER_JSON =
+            "{\"code\":200,\"message\":\"ok\",\"data\":{\"id\":1,\"username\":\"admin\",\"tenantId\":1,\"status\":\"0\"}}";
+    private static final String ROLES_JSON =
+            "{\"code\":200,\"message\":\"ok\",\"data\":{\"userId\":1,\"roles\":[\"ADMIN\",\"USER\"]}}";
+
+    @Param({"5", "20"})
+    public int latencyMs;
+
+    private HttpServer server;
+    private IdentityLookupClient client;
+    private IdentityFanOut fanOut;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newFixedThreadPool(16));
+        server.createContext("/api/identity/users/", exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            byte[] body = (path.endsWith("/roles") ? ROLES_JSON : USER_JSON).getBytes(StandardCharsets.UTF_8);
+            try {
+                Thread.sleep(latencyMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+
+        RestClient restClient = RestClient.builder()
+                .baseUrl("http://127.0.0.1:" + server.getAddress().getPort())
+                .build();
+        client = HttpServiceProxyFactory.builderFor(RestClientAdapter.create(restClient))
+                .build()
+                .createClient(IdentityLookupClient.class);
+        fanOut = new IdentityFanOut(new SimpleMeterRegistry(), 8, 64, Duration.ofSeconds(2));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        fanOut.shutdown();
+        server.stop(0);
+    }
+
+    @Benchmark
+    public void meSerial(Blackhole bh) {
+        Result<IdentityUserDTO> user = client.getUserById(1L);
+        Result<UserRolesDTO> roles = client.getUserRoles(1L);
+        bh.consume(user);
+        bh.consume(roles);
+    }
+
+    @Benchmark
+    public void meFanOut(Blackhole bh) {
+        try (IdentityFanOut.Scope scope = fanOut.open()) {
+            IdentityFanOut.Subtask<Result<IdentityUserDTO>> user = scope.fork(() -> client.getUserById(1L));
+            IdentityFanOut.Subtask<Result<UserRolesDTO>> roles = scope.fork(() -> client.getUserRoles(1L));
+            scope.join();
+            bh.consume(user.get());
+            bh.consume(roles.orElse(null));
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(IdentityFanOutBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,48 @@
+package com.admin.auth.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 客户端 IP 解析测试
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+class ClientIpResolverTest {
+
+    private final ClientIpResolver resolver = new ClientIpResolver(List.of("127.0.0.0/8", "10.0.0.0/8"));
+
+    @Test
+    void ignoresForwardedHeadersFromUntrustedPeer() {
+        MockHttpServletRequest request = request("203.0.113.7", "198.51.100.1");
+        request.addHeader("X-Real-IP", "198.51.100.2");
+        assertEquals("203.0.113.7", resolver.resolve(request));
+    }
+
+    @Test
+    void takesRightmostUntrustedHopBehindProxies() {
+        // 客户端伪造的首段被忽略，网关追加的真实地址生效
+        assertEquals("203.0.113.7", resolver.resolve(request("10.0.0.5", "198.51.100.1, 203.0.113.7, 10.0.0.4")));
+        assertEquals("203.0.113.7", resolver.resolve(request("10.0.0.5", "not-an-ip, 203.0.113.7")));
+    }
+
+    @Test
+    void fallsBackToLeftmostWhenAllHopsTrusted() {
+        assertEquals("10.0.0.3", resolver.resolve(request("127.0.0.1", "10.0.0.3, 10.0.0.4")));
+        assertEquals("127.0.0.1", resolver.resolve(request("127.0.0.1", null)));
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr, String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(remoteAddr);
+        if (forwardedFor != null) {
+            request.addHeader("X-Forwarded-For", forwardedFor);
+        }
+        return request;
+    }
+}
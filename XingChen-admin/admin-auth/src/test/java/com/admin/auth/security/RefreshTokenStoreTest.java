@@ -0,0 +1,199 @@
+package com.admin.auth.security;
+
+import com.admin.common.core.exception.ServiceException;
+import com.admin.common.security.TokenRevocationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.SetOperations;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * 刷新令牌族测试
+ * 没有可用的 Redis，三个 Lua 脚本按相同语义在内存中模拟，验证的是脚本之外的轮换、重放与吊销逻辑。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RefreshTokenStoreTest {
+
+    private static final RefreshTokenStore.Session SESSION =
+            new RefreshTokenStore.Session(7L, "alice", 1L, "NORMAL", List.of("USER"), 3L);
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private SetOperations<String, String> setOperations;
+
+    private final Map<String, String> strings = new HashMap<>();
+    private final Map<String, Map<String, String>> hashes = new HashMap<>();
+    private final Map<String, Set<String>> sets = new HashMap<>();
+
+    private TokenRevocationService revocationService;
+    private RefreshTokenStore store;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(stringRedisTemplate.opsForSet()).thenReturn(setOperations);
+        when(valueOperations.multiGet(anyList())).thenAnswer(invocation -> {
+            List<String> values = new ArrayList<>();
+            for (String key : (List<String>) invocation.getArgument(0)) {
+                values.add(strings.get(key));
+            }
+            return values;
+        });
+        doAnswer(invocation -> strings.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        when(setOperations.members(anyString())).thenAnswer(invocation -> sets.get(invocation.<String>getArgument(0)));
+        when(stringRedisTemplate.delete(anyString())).thenAnswer(invocation -> remove(invocation.getArgument(0)));
+        when(stringRedisTemplate.delete(anyCollection())).thenAnswer(invocation -> {
+            long removed = 0;
+            for (String key : (Collection<String>) invocation.getArgument(0)) {
+                removed += remove(key) ? 1 : 0;
+            }
+            return removed;
+        });
+        when(stringRedisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class)))
+                .thenAnswer(invocation -> script(invocation.getArgument(0), invocation.getArgument(1),
+                        invocation.getRawArguments()[2]));
+
+        revocationService = new TokenRevocationService(stringRedisTemplate);
+        store = new RefreshTokenStore(stringRedisTemplate, revocationService, new SimpleMeterRegistry(), 604800);
+    }
+
+    @Test
+    void rotationIssuesNewTokenAndKeepsClaims() {
+        String first = store.create(SESSION);
+        RefreshTokenStore.Rotation rotation = store.rotate(first);
+
+        assertNotEquals(first, rotation.refreshToken());
+        assertEquals(SESSION, rotation.session());
+        assertEquals(SESSION, store.rotate(rotation.refreshToken()).session());
+        assertTrue(sets.get("auth:refresh:user:7").contains(rotation.familyId()));
+    }
+
+    @Test
+    void reusedTokenRevokesWholeFamily() {
+        String first = store.create(SESSION);
+        String second = store.rotate(first).refreshToken();
+
+        ServiceException reuse = assertThrows(ServiceException.class, () -> store.rotate(first));
+        assertEquals(401, reuse.getCode());
+        // 合法持有者的最新令牌同样失效
+        assertThrows(ServiceException.class, () -> store.rotate(second));
+        assertTrue(hashes.isEmpty());
+    }
+
+    @Test
+    void userRevocationInvalidatesEarlierFamilies() throws Exception {
+        String token = store.create(SESSION);
+        Thread.sleep(2);
+        revocationService.revokeAllForUser("7");
+
+        assertThrows(ServiceException.class, () -> store.rotate(token));
+        assertTrue(hashes.isEmpty());
+
+        // 吊销后立即重新登录（同一秒内）的令牌族不受影响
+        Thread.sleep(2);
+        String relogin = store.create(SESSION);
+        assertEquals(SESSION, store.rotate(relogin).session());
+    }
+
+    @Test
+    void updateOnlyTouchesExistingFamilies() {
+        String token = store.create(SESSION);
+        String familyId = token.substring(0, token.indexOf('.'));
+        RefreshTokenStore.Session updated =
+                new RefreshTokenStore.Session(7L, "alice", 1L, "ADMIN", List.of("ADMIN"), 4L);
+
+        store.update(familyId, updated);
+        store.update("missing", updated);
+
+        assertFalse(hashes.containsKey("auth:refresh:family:missing"));
+        assertEquals(updated, store.rotate(token).session());
+    }
+
+    /**
+     * 按 Lua 脚本的语义模拟执行
+     */
+    private Object script(RedisScript<?> script, List<String> keys, Object rawArgs) {
+        Object[] args = (Object[]) rawArgs;
+        if (script == RefreshTokenStore.CREATE_SCRIPT) {
+            putFields(hashes.computeIfAbsent(keys.get(0), key -> new HashMap<>()), args, 2);
+            sets.computeIfAbsent(keys.get(1), key -> new HashSet<>()).add((String) args[1]);
+            return 1L;
+        }
+        if (script == RefreshTokenStore.UPDATE_SCRIPT) {
+            Map<String, String> hash = hashes.get(keys.get(0));
+            if (hash == null) {
+                return 0L;
+            }
+            putFields(hash, args, 0);
+            return 1L;
+        }
+        if (script == RefreshTokenStore.ROTATE_SCRIPT) {
+            Map<String, String> hash = hashes.get(keys.get(0));
+            if (hash == null) {
+                return null;
+            }
+            if (!hash.get("cur").equals(args[0])) {
+                hashes.remove(keys.get(0));
+                return List.of();
+            }
+            hash.put("cur", (String) args[1]);
+            List<Object> flat = new ArrayList<>();
+            hash.forEach((field, value) -> {
+                flat.add(field);
+                flat.add(value);
+            });
+            return flat;
+        }
+        throw new IllegalArgumentException("未知脚本");
+    }
+
+    private static void putFields(Map<String, String> hash, Object[] args, int from) {
+        for (int i = from; i + 1 < args.length; i += 2) {
+            hash.put((String) args[i], (String) args[i + 1]);
+        }
+    }
+
+    private boolean remove(String key) {
+        return strings.remove(key) != null | hashes.remove(key) != null | sets.remove(key) != null;
+    }
+}
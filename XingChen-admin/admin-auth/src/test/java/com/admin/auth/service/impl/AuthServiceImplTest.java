@@ -0,0 +1,315 @@
+package com.admin.auth.service.impl;
+
+import com.admin.auth.cache.CurrentUserCache;
+import com.admin.auth.cache.TokenClaimsCache;
+import com.admin.auth.client.IdentityFanOut;
+import com.admin.auth.client.IdentityLookupClient;
+import com.admin.auth.domain.dto.UserLoginRequestDTO;
+import com.admin.auth.domain.dto.UserLoginResponseDTO;
+import com.admin.auth.feign.UserServiceClient;
+import com.admin.auth.security.LoginThrottle;
+import com.admin.auth.security.RefreshRetryException;
+import com.admin.auth.security.RefreshTokenStore;
+import com.admin.common.core.domain.Result;
+import com.admin.common.core.exception.ServiceException;
+import com.admin.common.event.IdentityChangeEvent;
+import com.admin.common.security.AuthorizationVersionService;
+import com.admin.common.security.TokenRevocationService;
+import com.admin.common.util.JwtUtil;
+import com.admin.identity.api.dto.IdentityUserDTO;
+import com.admin.identity.api.dto.UserRolesDTO;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 认证服务测试
+ * 当前用户资料缓存：命中跳过身份服务、版本或变更事件失效、角色失败不缓存；
+ * 刷新时重新加载声明：仅身份服务明确答复用户不存在或已禁用时吊销令牌族；
+ * 登录：角色在密码校验许可释放后查询，错误密码不查询角色
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AuthServiceImplTest {
+
+    private static final Long USER_ID = 7L;
+
+    @Mock
+    private UserServiceClient userServiceClient;
+
+    @Mock
+    private PasswordEncoder passwordEncoder;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private AuthorizationVersionService authorizationVersionService;
+
+    @Mock
+    private LoginThrottle loginThrottle;
+
+    @Mock
+    private TokenClaimsCache tokenClaimsCache;
+
+    @Mock
+    private RefreshTokenStore refreshTokenStore;
+
+    @Mock
+    private IdentityLookupClient identityLookupClient;
+
+    private CurrentUserCache currentUserCache;
+    private IdentityFanOut identityFanOut;
+    private AuthServiceImpl authService;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        currentUserCache = new CurrentUserCache(registry, Duration.ofMinutes(10), 100);
+        identityFanOut = new IdentityFanOut(registry, 2, 4, Duration.ofSeconds(2));
+        authService = new AuthServiceImpl(userServiceClient, passwordEncoder, redisTemplate,
+                tokenRevocationService, authorizationVersionService, loginThrottle, tokenClaimsCache,
+                currentUserCache, refreshTokenStore, identityLookupClient, identityFanOut);
+
+        when(tokenClaimsCache.parse("v1")).thenReturn(claims(1L));
+        when(tokenClaimsCache.parse("v2")).thenReturn(claims(2L));
+        when(tokenRevocationService.isRevoked(any(Claims.class))).thenReturn(false);
+
+        IdentityUserDTO user = new IdentityUserDTO();
+        user.setId(USER_ID);
+        user.setUsername("alice");
+        when(identityLookupClient.getUserById(USER_ID)).thenReturn(Result.success(user));
+        when(identityLookupClient.getUserRoles(USER_ID))
+                .thenReturn(Result.success(new UserRolesDTO(USER_ID, List.of("ADMIN"))));
+    }
+
+    @AfterEach
+    void tearDown() {
+        identityFanOut.shutdown();
+    }
+
+    @Test
+    void sameVersionHitSkipsIdentityCalls() {
+        UserLoginResponseDTO first = authService.getCurrentUser("v1");
+        clearInvocations(identityLookupClient);
+
+        UserLoginResponseDTO second = authService.getCurrentUser("v1");
+
+        assertSame(first, second);
+        assertEquals(List.of("ADMIN"), second.getRoles());
+        verify(identityLookupClient, never()).getUserById(any());
+        verify(identityLookupClient, never()).getUserRoles(any());
+    }
+
+    @Test
+    void versionBumpMisses() {
+        authService.getCurrentUser("v1");
+        clearInvocations(identityLookupClient);
+
+        authService.getCurrentUser("v2");
+
+        verify(identityLookupClient, times(1)).getUserById(USER_ID);
+        verify(identityLookupClient, times(1)).getUserRoles(USER_ID);
+    }
+
+    @Test
+    void identityChangeEventMisses() {
+        authService.getCurrentUser("v1");
+        currentUserCache.onIdentityChange(IdentityChangeEvent.user(USER_ID, "alice"));
+        clearInvocations(identityLookupClient);
+
+        authService.getCurrentUser("v1");
+        verify(identityLookupClient, times(1)).getUserById(USER_ID);
+
+        // 角色变更清空全部用户
+        currentUserCache.onIdentityChange(IdentityChangeEvent.role(3L));
+        clearInvocations(identityLookupClient);
+
+        authService.getCurrentUser("v1");
+        verify(identityLookupClient, times(1)).getUserRoles(USER_ID);
+    }
+
+    @Test
+    void failedRolesLookupIsNotCached() {
+        when(identityLookupClient.getUserRoles(USER_ID)).thenReturn(Result.error(500, "身份服务不可用"));
+
+        UserLoginResponseDTO degraded = authService.getCurrentUser("v1");
+        assertEquals(List.of("USER"), degraded.getRoles());
+        assertNull(currentUserCache.get(USER_ID, 1L));
+
+        // 身份服务恢复后下一次请求重新获取完整角色
+        when(identityLookupClient.getUserRoles(USER_ID))
+                .thenReturn(Result.success(new UserRolesDTO(USER_ID, List.of("ADMIN"))));
+        clearInvocations(identityLookupClient);
+
+        UserLoginResponseDTO recovered = authService.getCurrentUser("v1");
+        assertEquals(List.of("ADMIN"), recovered.getRoles());
+        verify(identityLookupClient, times(1)).getUserRoles(USER_ID);
+    }
+
+    @Test
+    void identityUnavailableDuringReloadKeepsFamilyAndReturnsRotatedToken() {
+        stubRotation();
+        when(userServiceClient.getUserById(USER_ID)).thenReturn(Result.error(500, "用户服务不可用，请稍后重试"));
+
+        RefreshRetryException e = assertThrows(RefreshRetryException.class, () -> authService.refreshToken("fam.old"));
+
+        assertEquals(503, e.getCode());
+        assertEquals("fam.next", e.getRefreshToken());
+        verify(refreshTokenStore, never()).revoke(any());
+        verify(refreshTokenStore, never()).update(any(), any());
+    }
+
+    @Test
+    void identityCallFailureDuringReloadKeepsFamily() {
+        stubRotation();
+        when(userServiceClient.getUserById(USER_ID)).thenThrow(new IllegalStateException("connect timed out"));
+
+        RefreshRetryException e = assertThrows(RefreshRetryException.class, () -> authService.refreshToken("fam.old"));
+
+        assertEquals("fam.next", e.getRefreshToken());
+        verify(refreshTokenStore, never()).revoke(any());
+    }
+
+    @Test
+    void missingUserDuringReloadRevokesFamily() {
+        stubRotation();
+        when(userServiceClient.getUserById(USER_ID)).thenReturn(Result.notFound("用户不存在"));
+
+        ServiceException e = assertThrows(ServiceException.class, () -> authService.refreshToken("fam.old"));
+
+        assertEquals(401, e.getCode());
+        verify(refreshTokenStore).revoke("fam");
+    }
+
+    @Test
+    void disabledUserDuringReloadRevokesFamily() {
+        stubRotation();
+        IdentityUserDTO disabled = new IdentityUserDTO();
+        disabled.setId(USER_ID);
+        disabled.setUsername("alice");
+        disabled.setStatus("1");
+        when(userServiceClient.getUserById(USER_ID)).thenReturn(Result.success(disabled));
+
+        ServiceException e = assertThrows(ServiceException.class, () -> authService.refreshToken("fam.old"));
+
+        assertEquals(401, e.getCode());
+        verify(refreshTokenStore).revoke("fam");
+    }
+
+    @Test
+    void loginFetchesRolesAfterReleasingPasswordCheckPermit() {
+        initKeyRing();
+        AtomicBoolean holdingPermit = new AtomicBoolean();
+        when(loginThrottle.withPasswordCheckPermit(any())).thenAnswer(invocation -> {
+            holdingPermit.set(true);
+            try {
+                return ((Supplier<?>) invocation.getArgument(0)).get();
+            } finally {
+                holdingPermit.set(false);
+            }
+        });
+        IdentityUserDTO user = new IdentityUserDTO();
+        user.setId(USER_ID);
+        user.setUsername("alice");
+        user.setPassword("hash");
+        user.setStatus("0");
+        when(userServiceClient.getUserByUsername("alice")).thenReturn(Result.success(user));
+        when(passwordEncoder.matches("secret", "hash")).thenReturn(true);
+        AtomicBoolean rolesFetchedUnderPermit = new AtomicBoolean();
+        when(userServiceClient.getUserRoles(USER_ID)).thenAnswer(invocation -> {
+            rolesFetchedUnderPermit.set(holdingPermit.get());
+            return Result.success(new UserRolesDTO(USER_ID, List.of("ADMIN")));
+        });
+        when(refreshTokenStore.create(any())).thenReturn("fam.first");
+
+        UserLoginRequestDTO request = new UserLoginRequestDTO();
+        request.setUsername("alice");
+        request.setPassword("secret");
+        UserLoginResponseDTO response = authService.login(request);
+
+        assertEquals(List.of("ADMIN"), response.getRoles());
+        verify(userServiceClient).getUserRoles(USER_ID);
+        assertFalse(rolesFetchedUnderPermit.get());
+    }
+
+    @Test
+    void wrongPasswordSkipsRolesLookup() {
+        when(loginThrottle.withPasswordCheckPermit(any()))
+                .thenAnswer(invocation -> ((Supplier<?>) invocation.getArgument(0)).get());
+        IdentityUserDTO user = new IdentityUserDTO();
+        user.setId(USER_ID);
+        user.setPassword("hash");
+        when(userServiceClient.getUserByUsername("alice")).thenReturn(Result.success(user));
+        when(passwordEncoder.matches("wrong", "hash")).thenReturn(false);
+
+        UserLoginRequestDTO request = new UserLoginRequestDTO();
+        request.setUsername("alice");
+        request.setPassword("wrong");
+        assertThrows(RuntimeException.class, () -> authService.login(request));
+
+        verify(userServiceClient, never()).getUserRoles(any());
+        verify(identityLookupClient, never()).getUserRoles(any());
+    }
+
+    private static void initKeyRing() {
+        JwtUtil jwtUtil = new JwtUtil();
+        jwtUtil.setSecretKey("authServiceImplTestSecret0123456789abcdef");
+        jwtUtil.setExpiration(1800L);
+        jwtUtil.setRefreshExpiration(604800L);
+        jwtUtil.setAccessAlgorithm("HS256");
+        jwtUtil.setRefreshAlgorithm("HS256");
+        jwtUtil.initKeyRing();
+    }
+
+    /**
+     * 令牌族保存的授权版本为1，当前版本为2，刷新时需要重新加载
+     */
+    private void stubRotation() {
+        RefreshTokenStore.Session session =
+                new RefreshTokenStore.Session(USER_ID, "alice", 1L, "NORMAL", List.of("USER"), 1L);
+        when(refreshTokenStore.rotate("fam.old")).thenReturn(new RefreshTokenStore.Rotation("fam", session, "fam.next"));
+        when(authorizationVersionService.currentVersion(USER_ID)).thenReturn(2L);
+    }
+
+    private static Claims claims(long version) {
+        return Jwts.claims()
+                .subject("alice")
+                .add(Map.of("userId", USER_ID.toString(), JwtUtil.CLAIM_AUTHZ_VERSION, version))
+                .build();
+    }
+}
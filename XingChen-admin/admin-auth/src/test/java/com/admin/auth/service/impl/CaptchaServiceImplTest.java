@@ -0,0 +1,108 @@
+package com.admin.auth.service.impl;
+
+import com.admin.auth.domain.dto.CaptchaResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * 图形验证码池补充与一次性校验测试
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CaptchaServiceImplTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final Map<String, String> store = new HashMap<>();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @BeforeEach
+    void setUp() {
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        doAnswer(invocation -> store.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        when(valueOperations.getAndDelete(anyString())).thenAnswer(invocation -> store.remove(invocation.getArgument(0)));
+    }
+
+    @Test
+    void refillHonoursRatesBelowOnePerTick() {
+        // 2 张/秒 = 每 100ms 周期 0.2 张
+        CaptchaServiceImpl service = service(10, 2);
+        for (int i = 0; i < 4; i++) {
+            service.refill();
+        }
+        assertEquals(0, poolSize());
+        service.refill();
+        assertEquals(1, poolSize());
+        for (int i = 0; i < 5; i++) {
+            service.refill();
+        }
+        assertEquals(2, poolSize());
+    }
+
+    @Test
+    void refillStopsAtCapacity() {
+        // 50 张/秒 = 每周期 5 张
+        CaptchaServiceImpl service = service(8, 50);
+        service.refill();
+        assertEquals(5, poolSize());
+        service.refill();
+        assertEquals(8, poolSize());
+        service.refill();
+        assertEquals(8, poolSize());
+    }
+
+    @Test
+    void answerVerifiesOnlyOnce() {
+        CaptchaServiceImpl service = service(4, 50);
+        service.refill();
+
+        CaptchaResponse first = service.issue();
+        String answer = store.values().iterator().next();
+        assertEquals(3, poolSize());
+        assertTrue(service.verify(first.getCaptchaKey(), answer.toUpperCase()));
+        assertFalse(service.verify(first.getCaptchaKey(), answer));
+
+        // 答错同样消耗答案
+        CaptchaResponse second = service.issue();
+        assertFalse(service.verify(second.getCaptchaKey(), "wrong"));
+        assertFalse(service.verify(second.getCaptchaKey(), store.getOrDefault("auth:captcha:" + second.getCaptchaKey(), "")));
+    }
+
+    private CaptchaServiceImpl service(int poolSize, double refillRate) {
+        return new CaptchaServiceImpl(stringRedisTemplate, meterRegistry, poolSize, refillRate,
+                Duration.ofMinutes(2), true, 130, 48, 4);
+    }
+
+    private int poolSize() {
+        return (int) meterRegistry.get("auth.captcha.pool.size").gauge().value();
+    }
+}
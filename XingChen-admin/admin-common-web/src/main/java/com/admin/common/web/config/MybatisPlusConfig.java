@@ -1,16 +1,34 @@
 package com.admin.common.web.config;
 
+import com.admin.common.web.page.CountCachingPaginationInnerInterceptor;
+import com.admin.common.web.page.CountMode;
+import com.admin.common.web.sql.QueryBudgetFilter;
+import com.admin.common.web.sql.QueryCountInterceptor;
+import com.admin.common.web.sql.SqlMetricsInterceptor;
+import com.admin.common.web.sql.SqlStatsEndpoint;
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.core.handlers.MetaObjectHandler;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
-import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.ibatis.reflection.MetaObject;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.Map;
 
 /**
  * MyBatis Plus 配置
@@ -19,17 +37,84 @@ import java.time.LocalDateTime;
 @ConditionalOnClass(name = "com.baomidou.mybatisplus.core.MybatisConfiguration")
 public class MybatisPlusConfig {
 
+    @Value("${admin.sql.slow-threshold:PT0.5S}")
+    private Duration slowThreshold;
+
+    @Value("${admin.page.count.default-mode:EXACT}")
+    private CountMode countDefaultMode;
+
+    @Value("${admin.page.count.cache-ttl:PT10S}")
+    private Duration countCacheTtl;
+
+    @Value("${admin.page.count.cache-size:10000}")
+    private long countCacheSize;
+
     /**
      * 分页插件
+     * 总数统计方式默认 admin.page.count.default-mode（EXACT），可通过 CountModePage 按查询指定 CACHED / APPROXIMATE
      */
     @Bean
-    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+    public MybatisPlusInterceptor mybatisPlusInterceptor(MeterRegistry meterRegistry) {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
         // 分页插件
-        interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
+        interceptor.addInnerInterceptor(new CountCachingPaginationInnerInterceptor(DbType.MYSQL,
+                countDefaultMode, countCacheTtl, countCacheSize, meterRegistry));
         return interceptor;
     }
 
+    /**
+     * SQL 语句级耗时与行数监控，admin.sql.metrics.enabled=false 关闭
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "admin.sql.metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public SqlMetricsInterceptor sqlMetricsInterceptor(MeterRegistry meterRegistry) {
+        return new SqlMetricsInterceptor(meterRegistry, slowThreshold);
+    }
+
+    /**
+     * 按总耗时排序的 SQL 语句统计端点
+     */
+    @Bean
+    @ConditionalOnBean(SqlMetricsInterceptor.class)
+    @ConditionalOnAvailableEndpoint(endpoint = SqlStatsEndpoint.class)
+    public SqlStatsEndpoint sqlStatsEndpoint(SqlMetricsInterceptor sqlMetricsInterceptor) {
+        return new SqlStatsEndpoint(sqlMetricsInterceptor);
+    }
+
+    /**
+     * 每请求 SQL 条数统计与 N+1 检测，admin.sql.query-budget.enabled=false 关闭
+     * 单个接口的预算通过 admin.sql.query-budget.endpoints."[GET /api/xxx/{id}]" 配置
+     */
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    @ConditionalOnProperty(prefix = "admin.sql.query-budget", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public static class QueryBudgetConfig {
+
+        @Value("${admin.sql.query-budget.repeat-threshold:5}")
+        private int repeatThreshold;
+
+        @Value("${admin.sql.query-budget.max-queries:50}")
+        private int maxQueries;
+
+        @Bean
+        public QueryCountInterceptor queryCountInterceptor() {
+            return new QueryCountInterceptor();
+        }
+
+        @Bean
+        public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(MeterRegistry meterRegistry,
+                                                                           Environment environment) {
+            Map<String, Integer> endpoints = Binder.get(environment)
+                    .bind("admin.sql.query-budget.endpoints", Bindable.mapOf(String.class, Integer.class))
+                    .orElse(Map.of());
+            FilterRegistrationBean<QueryBudgetFilter> registration = new FilterRegistrationBean<>(
+                    new QueryBudgetFilter(meterRegistry, repeatThreshold, maxQueries, endpoints));
+            registration.addUrlPatterns("/*");
+            registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+            return registration;
+        }
+    }
+
     /**
      * 自动填充处理器
      */
@@ -0,0 +1,80 @@
+package com.admin.common.web.config;
+
+import com.admin.common.web.datasource.ReadOnlyRoutingAspect;
+import com.admin.common.web.datasource.ReadWriteDataSourcePostProcessor;
+import com.admin.common.web.datasource.ReadWriteDataSourceProperties;
+import com.admin.common.web.datasource.ReadWriteRoutingDataSource;
+import com.admin.common.web.datasource.ReadWriteRoutingFilter;
+import com.admin.common.web.datasource.ReadWriteRoutingInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+/**
+ * 读写分离配置，admin.datasource.read-write.enabled=true 且配置了从库时生效
+ * <ul>
+ *     <li>主数据源包装为 {@link ReadWriteRoutingDataSource}，从库定时健康检查</li>
+ *     <li>MyBatis 拦截器：事务外的 SELECT 走从库，写入后本请求读主库</li>
+ *     <li>{@link com.admin.common.web.datasource.ReadOnly} 切面与请求范围过滤器</li>
+ * </ul>
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Configuration
+@ConditionalOnProperty(prefix = ReadWriteDataSourceProperties.PREFIX, name = "enabled", havingValue = "true")
+public class ReadWriteDataSourceConfig {
+
+    /**
+     * BeanPostProcessor 需在普通 Bean 之前创建，配置直接从 Environment 绑定
+     */
+    @Bean
+    public static ReadWriteDataSourcePostProcessor readWriteDataSourcePostProcessor(Environment environment) {
+        ReadWriteDataSourceProperties properties = Binder.get(environment)
+                .bind(ReadWriteDataSourceProperties.PREFIX, ReadWriteDataSourceProperties.class)
+                .orElseGet(ReadWriteDataSourceProperties::new);
+        return new ReadWriteDataSourcePostProcessor(properties);
+    }
+
+    @Bean
+    public ReadWriteRoutingInterceptor readWriteRoutingInterceptor() {
+        return new ReadWriteRoutingInterceptor();
+    }
+
+    @Bean
+    public ReadOnlyRoutingAspect readOnlyRoutingAspect() {
+        return new ReadOnlyRoutingAspect();
+    }
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    public FilterRegistrationBean<ReadWriteRoutingFilter> readWriteRoutingFilter() {
+        FilterRegistrationBean<ReadWriteRoutingFilter> registration = new FilterRegistrationBean<>(new ReadWriteRoutingFilter());
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 30);
+        return registration;
+    }
+
+    /**
+     * 全部单例创建完成后再注册路由指标，避免 MeterRegistry 与数据源相互提前初始化
+     */
+    @Bean
+    public SmartInitializingSingleton readWriteRoutingMetrics(ObjectProvider<DataSource> dataSource,
+                                                              ObjectProvider<MeterRegistry> meterRegistry) {
+        return () -> {
+            if (dataSource.getIfUnique() instanceof ReadWriteRoutingDataSource routing) {
+                meterRegistry.ifAvailable(routing::bindTo);
+            }
+        };
+    }
+}
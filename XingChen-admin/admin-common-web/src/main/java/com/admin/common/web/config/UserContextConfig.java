@@ -0,0 +1,47 @@
+package com.admin.common.web.config;
+
+import com.admin.common.context.UserContextHolder;
+import com.admin.common.web.context.UserContextFeignInterceptor;
+import com.admin.common.web.context.UserContextFilter;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+
+/**
+ * 用户上下文配置
+ * <ul>
+ *     <li>过滤器：每个请求解析一次网关用户请求头</li>
+ *     <li>TaskDecorator：Spring Boot 自动配置的 applicationTaskExecutor（@Async 默认执行器）会使用它，异步任务可读取提交时的用户上下文</li>
+ *     <li>Feign 拦截器：服务间调用透传用户上下文</li>
+ * </ul>
+ * 自建线程池可通过 {@link UserContextHolder#wrap} 包装任务获得同样效果。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Configuration
+public class UserContextConfig {
+
+    @Bean
+    public FilterRegistrationBean<UserContextFilter> userContextFilter() {
+        FilterRegistrationBean<UserContextFilter> registration = new FilterRegistrationBean<>(new UserContextFilter());
+        registration.addUrlPatterns("/*");
+        // 尽早执行，后续过滤器即可读取用户上下文
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(TaskDecorator.class)
+    public TaskDecorator userContextTaskDecorator() {
+        return UserContextHolder::wrap;
+    }
+
+    @Bean
+    public UserContextFeignInterceptor userContextFeignInterceptor() {
+        return new UserContextFeignInterceptor();
+    }
+}
@@ -15,7 +15,9 @@ import org.springframework.context.annotation.Import;
 @EnableFeignClients
 @Import({
     MybatisPlusConfig.class,
+    ReadWriteDataSourceConfig.class,
     WebConfig.class,
+    UserContextConfig.class,
     GlobalExceptionHandler.class
 })
 public class WebCommonAutoConfiguration {
@@ -1,9 +1,13 @@
 package com.admin.common.web.config;
 
+import com.admin.common.web.converter.JsonbHttpMessageConverter;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import java.util.List;
+
 /**
  * Web MVC 配置 - 仅用于 Web 服务
  * 
@@ -25,4 +29,12 @@ public class WebConfig implements WebMvcConfigurer {
     //             .allowCredentials(true)
     //             .maxAge(3600);
     // }
+
+    /**
+     * 追加 JSONB 转换器：放在末尾，只有 Accept/Content-Type 为 application/x-jsonb 的服务间调用才会命中
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(new JsonbHttpMessageConverter());
+    }
 }
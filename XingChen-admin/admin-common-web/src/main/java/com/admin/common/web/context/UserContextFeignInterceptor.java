@@ -0,0 +1,42 @@
+package com.admin.common.web.context;
+
+import com.admin.common.constant.CommonConstants;
+import com.admin.common.context.UserContext;
+import com.admin.common.context.UserContextHolder;
+import feign.RequestInterceptor;
+import feign.RequestTemplate;
+
+/**
+ * 服务间 Feign 调用透传用户上下文
+ * 当前线程持有用户上下文时，将其写回网关约定的请求头，认证来源标记为内部调用；
+ * 调用方已显式设置的请求头保持不变。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class UserContextFeignInterceptor implements RequestInterceptor {
+
+    @Override
+    public void apply(RequestTemplate template) {
+        UserContext context = UserContextHolder.get();
+        if (context == null || context.userId() == null) {
+            return;
+        }
+        header(template, CommonConstants.USER_ID_HEADER, context.userId());
+        header(template, CommonConstants.USERNAME_HEADER, context.username());
+        header(template, CommonConstants.TENANT_ID_HEADER, context.tenantId());
+        header(template, CommonConstants.USER_TYPE_HEADER, context.userType());
+        header(template, CommonConstants.USER_ROLES_HEADER, context.roles());
+        header(template, CommonConstants.AUTHZ_VERSION_HEADER,
+                context.authzVersion() != null ? String.valueOf(context.authzVersion()) : null);
+        header(template, CommonConstants.CLIENT_IP_HEADER, context.clientIp());
+        header(template, CommonConstants.AUTH_TIME_HEADER, context.authTime());
+        header(template, CommonConstants.AUTH_SOURCE_HEADER, UserContext.AUTH_SOURCE_INTERNAL);
+    }
+
+    private static void header(RequestTemplate template, String name, String value) {
+        if (value != null && !template.headers().containsKey(name)) {
+            template.header(name, value);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.admin.common.web.context;
+
+import com.admin.common.context.UserContext;
+import com.admin.common.context.UserContextHolder;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 用户上下文过滤器
+ * 请求进入时将网关转发的用户请求头解析一次为 {@link UserContext}，缓存到请求属性并写入当前线程，请求结束时清除。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class UserContextFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        UserContext context = UserContext.from(request);
+        request.setAttribute(UserContext.REQUEST_ATTRIBUTE, context);
+        UserContextHolder.set(context);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            UserContextHolder.clear();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.admin.common.web.converter;
+
+import com.alibaba.fastjson2.JSONB;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractGenericHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+
+/**
+ * fastjson2 JSONB 二进制消息转换器
+ * 仅在请求显式声明 application/x-jsonb 时生效，用于服务间调用；浏览器等客户端仍使用 JSON。
+ * 不开启 autoType，反序列化只按目标类型解析。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class JsonbHttpMessageConverter extends AbstractGenericHttpMessageConverter<Object> {
+
+    public static final String MEDIA_TYPE_VALUE = "application/x-jsonb";
+
+    public static final MediaType MEDIA_TYPE = MediaType.parseMediaType(MEDIA_TYPE_VALUE);
+
+    public JsonbHttpMessageConverter() {
+        super(MEDIA_TYPE);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return true;
+    }
+
+    @Override
+    public Object read(Type type, Class<?> contextClass, HttpInputMessage inputMessage) throws IOException {
+        return parse(GenericTypeResolver.resolveType(type, contextClass), inputMessage);
+    }
+
+    @Override
+    protected Object readInternal(Class<?> clazz, HttpInputMessage inputMessage) throws IOException {
+        return parse(clazz, inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object object, Type type, HttpOutputMessage outputMessage) throws IOException {
+        outputMessage.getBody().write(JSONB.toBytes(object));
+    }
+
+    private Object parse(Type type, HttpInputMessage inputMessage) throws IOException {
+        byte[] bytes = StreamUtils.copyToByteArray(inputMessage.getBody());
+        try {
+            return JSONB.parseObject(bytes, type);
+        } catch (Exception e) {
+            throw new HttpMessageNotReadableException("JSONB 解析失败: " + e.getMessage(), e, inputMessage);
+        }
+    }
+}
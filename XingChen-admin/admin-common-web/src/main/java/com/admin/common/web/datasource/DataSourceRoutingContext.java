@@ -0,0 +1,80 @@
+package com.admin.common.web.datasource;
+
+/**
+ * 当前线程的读写路由状态
+ * <ul>
+ *     <li>只读范围：{@link ReadOnly} 方法执行期间，可嵌套</li>
+ *     <li>查询标记：MyBatis 执行 SELECT 期间，由 {@link ReadWriteRoutingInterceptor} 设置</li>
+ *     <li>最近一次写入时间：用于读己之写，写入后本请求内（非请求线程为 sticky-window 内）的读取都走主库</li>
+ * </ul>
+ * 请求结束时由 {@link ReadWriteRoutingFilter} 清除。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public final class DataSourceRoutingContext {
+
+    private static final ThreadLocal<State> STATE = ThreadLocal.withInitial(State::new);
+
+    private DataSourceRoutingContext() {
+    }
+
+    static void enterReadOnly() {
+        STATE.get().readOnlyDepth++;
+    }
+
+    static void exitReadOnly() {
+        STATE.get().readOnlyDepth--;
+    }
+
+    public static boolean isReadOnly() {
+        return STATE.get().readOnlyDepth > 0;
+    }
+
+    /**
+     * 设置查询标记，返回之前的值供恢复
+     */
+    static boolean select(boolean select) {
+        State state = STATE.get();
+        boolean previous = state.select;
+        state.select = select;
+        return previous;
+    }
+
+    static boolean isSelect() {
+        return STATE.get().select;
+    }
+
+    /**
+     * 记录一次写入，之后的读取走主库
+     */
+    public static void markWrite() {
+        STATE.get().lastWriteNanos = System.nanoTime();
+    }
+
+    /**
+     * 是否需要读主库：请求内写过，或非请求线程在 windowNanos 内写过
+     */
+    static boolean isSticky(long windowNanos) {
+        State state = STATE.get();
+        if (state.lastWriteNanos == 0) {
+            return false;
+        }
+        return state.inRequest || System.nanoTime() - state.lastWriteNanos < windowNanos;
+    }
+
+    static void beginRequest() {
+        STATE.get().inRequest = true;
+    }
+
+    public static void clear() {
+        STATE.remove();
+    }
+
+    private static final class State {
+        private int readOnlyDepth;
+        private boolean select;
+        private boolean inRequest;
+        private long lastWriteNanos;
+    }
+}
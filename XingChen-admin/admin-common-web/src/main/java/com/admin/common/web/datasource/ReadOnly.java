@@ -0,0 +1,27 @@
+package com.admin.common.web.datasource;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 只读路由注解
+ * 标注的方法（或类的全部方法）执行期间获取的数据库连接优先路由到从库，不限于 MyBatis 的 SELECT
+ * （如 JdbcTemplate 查询）。以下情况仍使用主库：
+ * <ul>
+ *     <li>处于读写事务中（@Transactional 非 readOnly）</li>
+ *     <li>当前请求已经写过数据库（读己之写）</li>
+ *     <li>没有健康的从库</li>
+ * </ul>
+ * 仅在开启 admin.datasource.read-write.enabled 后生效；与 Spring AOP 一致，同一类内部的自调用不生效。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Target({ElementType.METHOD, ElementType.TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnly {
+}
@@ -0,0 +1,29 @@
+package com.admin.common.web.datasource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * {@link ReadOnly} 切面
+ * 优先级高于事务切面，只读标记在事务开启（及惰性获取连接）之前设置。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Aspect
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ReadOnlyRoutingAspect {
+
+    @Around("@annotation(com.admin.common.web.datasource.ReadOnly) || @within(com.admin.common.web.datasource.ReadOnly)")
+    public Object readOnly(ProceedingJoinPoint joinPoint) throws Throwable {
+        DataSourceRoutingContext.enterReadOnly();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            DataSourceRoutingContext.exitReadOnly();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.admin.common.web.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 将主数据源（名为 dataSource 的 Bean，即 Druid 自动配置的连接池）包装为 {@link ReadWriteRoutingDataSource}
+ * 保留原 Bean 名称与全部 Druid 配置，MyBatis、事务管理器等使用方无需改动；未配置从库时保持原样。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class ReadWriteDataSourcePostProcessor implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteDataSourcePostProcessor.class);
+
+    private static final String PRIMARY_BEAN_NAME = "dataSource";
+
+    private final ReadWriteDataSourceProperties properties;
+
+    public ReadWriteDataSourcePostProcessor(ReadWriteDataSourceProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!PRIMARY_BEAN_NAME.equals(beanName) || !(bean instanceof DataSource primary)
+                || bean instanceof ReadWriteRoutingDataSource) {
+            return bean;
+        }
+        List<ReadWriteDataSourceProperties.Replica> configured = properties.getReplicas();
+        if (configured.isEmpty()) {
+            logger.warn("已开启读写分离但未配置从库（{}.replicas），全部读写走主库", ReadWriteDataSourceProperties.PREFIX);
+            return bean;
+        }
+
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < configured.size(); i++) {
+            ReadWriteDataSourceProperties.Replica replica = configured.get(i);
+            String name = StringUtils.hasText(replica.getName()) ? replica.getName() : "replica-" + (i + 1);
+            replicas.put(name, createReplica(primary, replica, name, properties.getReplicaMaxWait()));
+        }
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicas,
+                properties.getStickyWindow(), properties.isAutoRouteSelects(), properties.getHealthCheckTimeout());
+        routing.startHealthCheck(properties.getHealthCheckInterval());
+        logger.info("读写分离已启用: replicas={}, autoRouteSelects={}", replicas.keySet(), properties.isAutoRouteSelects());
+        return routing;
+    }
+
+    /**
+     * Druid 主库直接复制连接池配置，获取连接等待改为 replica-max-wait；其他连接池通过 DataSourceBuilder 派生，沿用连接池默认等待
+     */
+    static DataSource createReplica(DataSource primary, ReadWriteDataSourceProperties.Replica replica,
+                                    String name, Duration maxWait) {
+        if (primary instanceof DruidDataSource druid) {
+            DruidDataSource dataSource = druid.cloneDruidDataSource();
+            dataSource.setName(name);
+            dataSource.setMaxWait(maxWait.toMillis());
+            dataSource.setUrl(replica.getUrl());
+            dataSource.setUsername(replica.getUsername());
+            dataSource.setPassword(replica.getPassword());
+            if (replica.getMaxActive() != null) {
+                dataSource.setMaxActive(replica.getMaxActive());
+                dataSource.setMinIdle(Math.min(dataSource.getMinIdle(), replica.getMaxActive()));
+                dataSource.setInitialSize(Math.min(dataSource.getInitialSize(), replica.getMaxActive()));
+            }
+            return dataSource;
+        }
+        return DataSourceBuilder.derivedFrom(primary)
+                .url(replica.getUrl())
+                .username(replica.getUsername())
+                .password(replica.getPassword())
+                .build();
+    }
+}
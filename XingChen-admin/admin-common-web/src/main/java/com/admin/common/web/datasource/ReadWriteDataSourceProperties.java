@@ -0,0 +1,182 @@
+package com.admin.common.web.datasource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置（admin.datasource.read-write）
+ * <pre>
+ * admin:
+ *   datasource:
+ *     read-write:
+ *       enabled: true
+ *       replicas:
+ *         - name: replica-1
+ *           url: jdbc:mysql://mysql-replica-1:3306/admin_identity?...
+ *           username: reader
+ *           password: xxx
+ * </pre>
+ * 从库连接池复制主库（spring.datasource.druid）的配置，只替换地址、账号、可选的 max-active 与获取连接等待时间。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class ReadWriteDataSourceProperties {
+
+    public static final String PREFIX = "admin.datasource.read-write";
+
+    /**
+     * 总开关，默认关闭
+     */
+    private boolean enabled;
+
+    /**
+     * 是否将事务外的 MyBatis SELECT 自动路由到从库；关闭后只有 @ReadOnly 与只读事务走从库
+     */
+    private boolean autoRouteSelects = true;
+
+    /**
+     * 非请求线程（定时任务、MQ 消费等）写入后继续读主库的时长；请求线程写入后整个请求都读主库
+     */
+    private Duration stickyWindow = Duration.ofSeconds(5);
+
+    /**
+     * 从库健康检查间隔
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * 单次健康检查（Connection#isValid）超时
+     */
+    private Duration healthCheckTimeout = Duration.ofSeconds(1);
+
+    /**
+     * 从库连接池获取连接的最长等待（Druid max-wait），不沿用主库的等待时间；
+     * 从库不可用或连接池耗尽时尽快失败并改走主库，而不是让读请求长时间阻塞
+     */
+    private Duration replicaMaxWait = Duration.ofSeconds(1);
+
+    /**
+     * 从库列表，为空时不启用路由
+     */
+    private List<Replica> replicas = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isAutoRouteSelects() {
+        return autoRouteSelects;
+    }
+
+    public void setAutoRouteSelects(boolean autoRouteSelects) {
+        this.autoRouteSelects = autoRouteSelects;
+    }
+
+    public Duration getStickyWindow() {
+        return stickyWindow;
+    }
+
+    public void setStickyWindow(Duration stickyWindow) {
+        this.stickyWindow = stickyWindow;
+    }
+
+    public Duration getHealthCheckInterval() {
+        return healthCheckInterval;
+    }
+
+    public void setHealthCheckInterval(Duration healthCheckInterval) {
+        this.healthCheckInterval = healthCheckInterval;
+    }
+
+    public Duration getHealthCheckTimeout() {
+        return healthCheckTimeout;
+    }
+
+    public void setHealthCheckTimeout(Duration healthCheckTimeout) {
+        this.healthCheckTimeout = healthCheckTimeout;
+    }
+
+    public Duration getReplicaMaxWait() {
+        return replicaMaxWait;
+    }
+
+    public void setReplicaMaxWait(Duration replicaMaxWait) {
+        this.replicaMaxWait = replicaMaxWait;
+    }
+
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+
+    public void setReplicas(List<Replica> replicas) {
+        this.replicas = replicas;
+    }
+
+    /**
+     * 从库
+     */
+    public static class Replica {
+
+        /**
+         * 名称，用于日志与连接池命名，默认 replica-序号
+         */
+        private String name;
+
+        private String url;
+
+        private String username;
+
+        private String password;
+
+        /**
+         * 最大连接数，默认与主库相同
+         */
+        private Integer maxActive;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public Integer getMaxActive() {
+            return maxActive;
+        }
+
+        public void setMaxActive(Integer maxActive) {
+            this.maxActive = maxActive;
+        }
+    }
+}
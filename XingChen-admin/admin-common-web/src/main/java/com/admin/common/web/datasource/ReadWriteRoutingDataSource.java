@@ -0,0 +1,254 @@
+package com.admin.common.web.datasource;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 读写分离数据源
+ * 对外是 {@link LazyConnectionDataSourceProxy}：物理连接推迟到第一条语句执行时才获取，此时事务的只读属性、
+ * {@link ReadOnly} 与 MyBatis 的查询标记都已就绪。路由规则依次为：
+ * <ol>
+ *     <li>没有健康的从库：主库</li>
+ *     <li>处于 Spring 事务同步范围内：只读事务走从库，其余走主库，读写事务同时记为一次写入</li>
+ *     <li>本请求已写入（读己之写）：主库</li>
+ *     <li>{@link ReadOnly} 范围内，或事务外的 MyBatis SELECT：从库</li>
+ *     <li>其他：主库</li>
+ * </ol>
+ * 从库按轮询选择；获取连接失败的从库立即摘除，由定时健康检查恢复。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy implements MeterBinder, AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+
+    private final DataSource primary;
+    private final List<Replica> replicas = new ArrayList<>();
+    private final long stickyWindowNanos;
+    private final boolean autoRouteSelects;
+    private final int healthCheckTimeoutSeconds;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final LongAdder primaryRoutes = new LongAdder();
+    private final LongAdder replicaRoutes = new LongAdder();
+    private final LongAdder fallbacks = new LongAdder();
+
+    private ScheduledExecutorService healthChecker;
+
+    public ReadWriteRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, Duration stickyWindow,
+                                      boolean autoRouteSelects, Duration healthCheckTimeout) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.stickyWindowNanos = stickyWindow.toNanos();
+        this.autoRouteSelects = autoRouteSelects;
+        this.healthCheckTimeoutSeconds = (int) Math.max(1, (healthCheckTimeout.toMillis() + 999) / 1000);
+        setTargetDataSource(new Router());
+        afterPropertiesSet();
+    }
+
+    /**
+     * 启动定时健康检查（守护线程）
+     */
+    public synchronized void startHealthCheck(Duration interval) {
+        if (healthChecker != null || replicas.isEmpty()) {
+            return;
+        }
+        healthChecker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "datasource-replica-health");
+            thread.setDaemon(true);
+            return thread;
+        });
+        healthChecker.scheduleWithFixedDelay(this::checkReplicas, interval.toMillis(), interval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 检查全部从库：能取得连接且 {@link Connection#isValid} 通过即视为健康
+     */
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(healthCheckTimeoutSeconds)) {
+                    markUp(replica);
+                } else {
+                    markDown(replica, "连接校验未通过");
+                }
+            } catch (SQLException | RuntimeException e) {
+                markDown(replica, e.getMessage());
+            }
+        }
+    }
+
+    public int healthyReplicas() {
+        int healthy = 0;
+        for (Replica replica : replicas) {
+            if (replica.healthy) {
+                healthy++;
+            }
+        }
+        return healthy;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("datasource.replicas.healthy", this, ReadWriteRoutingDataSource::healthyReplicas)
+                .description("健康的从库数量")
+                .register(registry);
+        routeCounter(registry, "primary", primaryRoutes);
+        routeCounter(registry, "replica", replicaRoutes);
+        routeCounter(registry, "fallback", fallbacks);
+    }
+
+    @Override
+    public synchronized void close() throws Exception {
+        if (healthChecker != null) {
+            healthChecker.shutdownNow();
+            healthChecker = null;
+        }
+        for (Replica replica : replicas) {
+            closeQuietly(replica.dataSource);
+        }
+        closeQuietly(primary);
+    }
+
+    /**
+     * 选择本次连接使用的从库，返回 null 表示主库
+     */
+    private Replica route() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // 同一事务范围内连接会被复用，只有整个范围只读时才能交给从库
+            if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                    DataSourceRoutingContext.markWrite();
+                }
+                return null;
+            }
+            return DataSourceRoutingContext.isSticky(stickyWindowNanos) ? null : nextHealthy();
+        }
+        if (DataSourceRoutingContext.isSticky(stickyWindowNanos)) {
+            return null;
+        }
+        if (DataSourceRoutingContext.isReadOnly() || (autoRouteSelects && DataSourceRoutingContext.isSelect())) {
+            return nextHealthy();
+        }
+        return null;
+    }
+
+    private Replica nextHealthy() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica;
+            }
+        }
+        return null;
+    }
+
+    private void markUp(Replica replica) {
+        if (!replica.healthy) {
+            replica.healthy = true;
+            logger.info("从库恢复，重新承接读请求: replica={}", replica.name);
+        }
+    }
+
+    private void markDown(Replica replica, String reason) {
+        if (replica.healthy) {
+            replica.healthy = false;
+            logger.warn("从库不可用，读请求改走主库: replica={}, reason={}", replica.name, reason);
+        }
+    }
+
+    private static void routeCounter(MeterRegistry registry, String target, LongAdder adder) {
+        FunctionCounter.builder("datasource.route", adder, LongAdder::sum)
+                .description("读写分离获取物理连接次数；fallback 为从库取连接失败后改用主库")
+                .tag("target", target)
+                .register(registry);
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                logger.warn("关闭数据源失败: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 实际获取物理连接的路由数据源；unwrap 委托主库，连接池监控等仍可拿到主库连接池
+     */
+    private class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Replica replica = route();
+            if (replica != null) {
+                try {
+                    Connection connection = replica.dataSource.getConnection();
+                    replicaRoutes.increment();
+                    return connection;
+                } catch (SQLException e) {
+                    markDown(replica, e.getMessage());
+                    fallbacks.increment();
+                }
+            }
+            primaryRoutes.increment();
+            return primary.getConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            primaryRoutes.increment();
+            return primary.getConnection(username, password);
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) throws SQLException {
+            return iface.isInstance(this) ? iface.cast(this) : primary.unwrap(iface);
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) throws SQLException {
+            return iface.isInstance(this) || primary.isWrapperFor(iface);
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.admin.common.web.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 读写路由请求范围
+ * 请求内发生写入后，该请求剩余的读取都走主库；请求结束时清除路由状态。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class ReadWriteRoutingFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        DataSourceRoutingContext.beginRequest();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            DataSourceRoutingContext.clear();
+        }
+    }
+}
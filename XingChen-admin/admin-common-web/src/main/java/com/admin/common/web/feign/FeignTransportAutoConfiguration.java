@@ -0,0 +1,129 @@
+package com.admin.common.web.feign;
+
+import feign.RequestInterceptor;
+import feign.hc5.ApacheHttp5Client;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.impl.ChainElement;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.cloud.openfeign.FeignAutoConfiguration;
+import org.springframework.cloud.openfeign.clientconfig.HttpClient5FeignConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Feign 公共传输层自动配置
+ * 以 Apache HttpClient 5 连接池替代默认的 HttpURLConnection，服务间调用复用长连接。
+ * 连接池参数沿用 feign.httpclient.* 配置，可通过 feign.httpclient.targets.&lt;服务名&gt; 为单个目标服务单独设置连接上限。
+ * <p>
+ * 需在 FeignAutoConfiguration 之前加载，使 Spring Cloud 默认的 hc5ConnectionManager 让位于带监控的连接池。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@AutoConfiguration(before = FeignAutoConfiguration.class)
+@ConditionalOnClass(ApacheHttp5Client.class)
+@ConditionalOnProperty(value = "spring.cloud.openfeign.httpclient.hc5.enabled", matchIfMissing = true)
+public class FeignTransportAutoConfiguration {
+
+    private static final Logger logger = LoggerFactory.getLogger(FeignTransportAutoConfiguration.class);
+
+    /**
+     * 内部请求头：携带 Feign 客户端名，供连接池识别目标服务，发送前移除
+     */
+    public static final String TARGET_HEADER = "X-Feign-Target";
+
+    @Value("${feign.httpclient.max-connections:200}")
+    private int maxConnections;
+
+    @Value("${feign.httpclient.max-connections-per-route:50}")
+    private int maxConnectionsPerRoute;
+
+    @Value("${feign.httpclient.time-to-live:PT15M}")
+    private Duration timeToLive;
+
+    @Value("${feign.httpclient.keep-alive:PT15S}")
+    private Duration keepAlive;
+
+    @Value("${feign.httpclient.validate-after-inactivity:PT2S}")
+    private Duration validateAfterInactivity;
+
+    @Value("${feign.httpclient.connection-request-timeout:PT1S}")
+    private Duration connectionRequestTimeout;
+
+    @Bean
+    public InstrumentedConnectionManager feignConnectionManager(Environment environment,
+                                                                ObjectProvider<MeterRegistry> meterRegistry) {
+        Map<String, Integer> targets = Binder.get(environment)
+                .bind("feign.httpclient.targets", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Map.of());
+
+        InstrumentedConnectionManager manager = new InstrumentedConnectionManager(targets,
+                Timeout.of(connectionRequestTimeout), meterRegistry.getIfAvailable());
+        manager.setMaxTotal(maxConnections);
+        manager.setDefaultMaxPerRoute(maxConnectionsPerRoute);
+        manager.setDefaultConnectionConfig(ConnectionConfig.custom()
+                .setTimeToLive(TimeValue.of(timeToLive))
+                .setValidateAfterInactivity(TimeValue.of(validateAfterInactivity))
+                .build());
+
+        logger.info("Feign连接池: maxTotal={}, maxPerRoute={}, targets={}, keepAlive={}",
+                maxConnections, maxConnectionsPerRoute, targets, keepAlive);
+        return manager;
+    }
+
+    /**
+     * 连接保活与路由识别：
+     * 保活时间取服务端 Keep-Alive 声明与 feign.httpclient.keep-alive 的较小值，
+     * 并低于 Tomcat 默认 20 秒空闲关闭，避免复用已被服务端关闭的连接
+     */
+    @Bean
+    public HttpClient5FeignConfiguration.HttpClientBuilderCustomizer feignTransportCustomizer(
+            InstrumentedConnectionManager feignConnectionManager) {
+        TimeValue maxKeepAlive = TimeValue.of(keepAlive);
+        return builder -> builder
+                .setKeepAliveStrategy((response, context) -> {
+                    TimeValue advertised = response.containsHeader("Keep-Alive")
+                            ? DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context)
+                            : maxKeepAlive;
+                    return TimeValue.isPositive(advertised) && advertised.compareTo(maxKeepAlive) < 0
+                            ? advertised : maxKeepAlive;
+                })
+                .evictIdleConnections(maxKeepAlive)
+                .addExecInterceptorBefore(ChainElement.CONNECT.name(), "feign-target", (request, scope, chain) -> {
+                    Header target = request.getFirstHeader(TARGET_HEADER);
+                    if (target != null) {
+                        request.removeHeaders(TARGET_HEADER);
+                        feignConnectionManager.bindTarget(scope.route, target.getValue());
+                    }
+                    return chain.proceed(request, scope);
+                });
+    }
+
+    /**
+     * 为每个 Feign 请求附加客户端名
+     */
+    @Bean
+    public RequestInterceptor feignTargetInterceptor() {
+        return template -> {
+            if (template.feignTarget() != null) {
+                template.header(TARGET_HEADER, template.feignTarget().name());
+            }
+        };
+    }
+}
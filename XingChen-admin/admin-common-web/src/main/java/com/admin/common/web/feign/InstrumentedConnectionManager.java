@@ -0,0 +1,137 @@
+package com.admin.common.web.feign;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.io.ConnectionEndpoint;
+import org.apache.hc.client5.http.io.LeaseRequest;
+import org.apache.hc.core5.util.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 带监控的 Feign 连接池
+ * 在 HttpClient 5 连接池基础上：
+ * <ul>
+ *     <li>按 Feign 客户端名（目标服务）设置单路由连接上限，首次访问某路由时生效</li>
+ *     <li>限制获取连接的最长等待时间，池耗尽时快速失败而不是挂起请求线程</li>
+ *     <li>按目标服务与路由导出 leased/pending/available 连接数及获取连接耗时</li>
+ * </ul>
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager {
+
+    private static final Logger logger = LoggerFactory.getLogger(InstrumentedConnectionManager.class);
+
+    private static final String UNKNOWN_TARGET = "unknown";
+
+    private final Map<String, Integer> targetMaxPerRoute;
+    private final Timeout maxLeaseWait;
+    private final MeterRegistry meterRegistry;
+    private final Map<HttpRoute, String> routeTargets = new ConcurrentHashMap<>();
+    private final Map<HttpRoute, Timer> leaseTimers = new ConcurrentHashMap<>();
+
+    /**
+     * @param targetMaxPerRoute 按目标服务名配置的单路由连接上限
+     * @param maxLeaseWait      获取连接的最长等待时间
+     * @param meterRegistry     指标注册表，为 null 时不导出指标
+     */
+    public InstrumentedConnectionManager(Map<String, Integer> targetMaxPerRoute, Timeout maxLeaseWait,
+                                         MeterRegistry meterRegistry) {
+        this.targetMaxPerRoute = targetMaxPerRoute;
+        this.maxLeaseWait = maxLeaseWait;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * 关联路由与目标服务，首次出现时应用该服务的连接上限并注册连接池指标
+     */
+    public void bindTarget(HttpRoute route, String target) {
+        routeTargets.computeIfAbsent(route, r -> {
+            Integer max = targetMaxPerRoute.get(target);
+            if (max != null) {
+                setMaxPerRoute(r, max);
+            }
+            registerPoolGauges(r, target);
+            logger.debug("Feign连接池路由: {} -> {}, 上限: {}", target, r.getTargetHost(), getMaxPerRoute(r));
+            return target;
+        });
+    }
+
+    @Override
+    public LeaseRequest lease(String id, HttpRoute route, Timeout requestTimeout, Object state) {
+        LeaseRequest delegate = super.lease(id, route, capTimeout(requestTimeout), state);
+        Timer timer = leaseTimer(route);
+        return new LeaseRequest() {
+            @Override
+            public ConnectionEndpoint get(Timeout timeout)
+                    throws InterruptedException, ExecutionException, TimeoutException {
+                long start = System.nanoTime();
+                try {
+                    return delegate.get(capTimeout(timeout));
+                } finally {
+                    if (timer != null) {
+                        timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                    }
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+                return delegate.cancel();
+            }
+        };
+    }
+
+    private Timeout capTimeout(Timeout timeout) {
+        if (Timeout.isPositive(timeout) && timeout.compareTo(maxLeaseWait) < 0) {
+            return timeout;
+        }
+        return maxLeaseWait;
+    }
+
+    private Timer leaseTimer(HttpRoute route) {
+        if (meterRegistry == null) {
+            return null;
+        }
+        return leaseTimers.computeIfAbsent(route, r -> Timer.builder("feign.http.pool.lease")
+                .description("从连接池获取连接的等待时间")
+                .tags(routeTags(r, routeTargets.getOrDefault(r, UNKNOWN_TARGET)))
+                .register(meterRegistry));
+    }
+
+    private void registerPoolGauges(HttpRoute route, String target) {
+        if (meterRegistry == null) {
+            return;
+        }
+        Tags tags = routeTags(route, target);
+        gauge("feign.http.pool.leased", "已借出的连接数", tags, m -> m.getStats(route).getLeased());
+        gauge("feign.http.pool.pending", "等待获取连接的请求数", tags, m -> m.getStats(route).getPending());
+        gauge("feign.http.pool.available", "空闲可复用的连接数", tags, m -> m.getStats(route).getAvailable());
+        gauge("feign.http.pool.max", "单路由连接上限", tags, m -> m.getMaxPerRoute(route));
+    }
+
+    private void gauge(String name, String description, Tags tags,
+                       ToDoubleFunction<InstrumentedConnectionManager> value) {
+        Gauge.builder(name, this, value)
+                .description(description)
+                .tags(tags)
+                .register(meterRegistry);
+    }
+
+    private static Tags routeTags(HttpRoute route, String target) {
+        return Tags.of("target", target, "route", route.getTargetHost().toHostString());
+    }
+}
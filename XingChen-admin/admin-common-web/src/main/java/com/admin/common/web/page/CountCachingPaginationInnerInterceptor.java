@@ -0,0 +1,235 @@
+package com.admin.common.web.page;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.ParameterUtils;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 支持总数缓存与估算的分页插件
+ * 在 {@link PaginationInnerInterceptor} 之上按 {@link CountMode} 处理 COUNT：
+ * <ul>
+ *     <li>EXACT：与父类一致</li>
+ *     <li>CACHED：以 MyBatis CacheKey（语句ID、SQL、全部参数值）加所涉及表的写版本为键缓存总数，TTL 较短</li>
+ *     <li>APPROXIMATE：单表查询在 MySQL 上用 EXPLAIN 的 rows × filtered 估算总数，不扫描数据；
+ *     多表查询或估算失败时按 CACHED 处理</li>
+ * </ul>
+ * 本节点对某表执行 insert/update/delete 时递增该表写版本，旧的缓存键不再命中；
+ * Spring 事务内的写入在提交后再递增一次，提交前其他请求读到的旧总数即使以新版本缓存也随之失效。
+ * 其他节点的写入不会通知本节点，由 TTL 限制过期时长。
+ * <p>
+ * 分页参数为 {@link CountModePage} 时使用其指定方式，否则使用默认方式。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class CountCachingPaginationInnerInterceptor extends PaginationInnerInterceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(CountCachingPaginationInnerInterceptor.class);
+
+    private final CountMode defaultMode;
+    private final Cache<CountKey, Long> counts;
+    private final Cache<String, Set<String>> sqlTables = Caffeine.newBuilder().maximumSize(10_000).build();
+    private final ConcurrentHashMap<String, AtomicLong> tableVersions = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter estimates;
+
+    public CountCachingPaginationInnerInterceptor(DbType dbType, CountMode defaultMode, Duration ttl, long maxSize,
+                                                  MeterRegistry meterRegistry) {
+        super(dbType);
+        this.defaultMode = defaultMode;
+        this.counts = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .build();
+        this.hits = counter(meterRegistry, "hit");
+        this.misses = counter(meterRegistry, "miss");
+        this.estimates = counter(meterRegistry, "estimate");
+    }
+
+    @Override
+    public boolean willDoQuery(Executor executor, MappedStatement ms, Object parameter, RowBounds rowBounds,
+                               ResultHandler resultHandler, BoundSql boundSql) throws SQLException {
+        IPage<?> page = ParameterUtils.findPage(parameter).orElse(null);
+        CountMode mode = page instanceof CountModePage<?> countModePage && countModePage.getCountMode() != null
+                ? countModePage.getCountMode() : defaultMode;
+        if (page == null || mode == CountMode.EXACT || page.getSize() < 0 || !page.searchCount()
+                || resultHandler != Executor.NO_RESULT_HANDLER) {
+            return super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+
+        Set<String> tables = tablesOf(boundSql.getSql());
+        if (tables.isEmpty()) {
+            return super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        }
+        CountKey key = new CountKey(mode, executor.createCacheKey(ms, parameter, RowBounds.DEFAULT, boundSql),
+                versionsOf(tables));
+        Long cached = counts.getIfPresent(key);
+        if (cached != null) {
+            hits.increment();
+            return applyTotal(page, cached, mode == CountMode.APPROXIMATE);
+        }
+
+        if (mode == CountMode.APPROXIMATE && tables.size() == 1) {
+            Long estimate = estimate(executor, ms, parameter, boundSql);
+            if (estimate != null) {
+                estimates.increment();
+                counts.put(key, estimate);
+                return applyTotal(page, estimate, true);
+            }
+        }
+
+        misses.increment();
+        boolean proceed = super.willDoQuery(executor, ms, parameter, rowBounds, resultHandler, boundSql);
+        counts.put(key, page.getTotal());
+        return proceed;
+    }
+
+    @Override
+    public void beforeUpdate(Executor executor, MappedStatement ms, Object parameter) throws SQLException {
+        Set<String> tables = tablesOf(ms.getBoundSql(parameter).getSql());
+        bumpVersions(tables);
+        if (!tables.isEmpty() && TransactionSynchronizationManager.isSynchronizationActive()) {
+            bumpAfterCommit(tables);
+        }
+        super.beforeUpdate(executor, ms, parameter);
+    }
+
+    private void bumpVersions(Set<String> tables) {
+        for (String table : tables) {
+            tableVersions.computeIfAbsent(table, name -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    /**
+     * 登记当前事务写过的表，提交后统一再递增一次；同一事务只注册一个同步回调
+     */
+    @SuppressWarnings("unchecked")
+    private void bumpAfterCommit(Set<String> tables) {
+        Set<String> pending = (Set<String>) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            Set<String> written = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, written);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpVersions(written);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(CountCachingPaginationInnerInterceptor.this);
+                }
+            });
+            pending = written;
+        }
+        pending.addAll(tables);
+    }
+
+    private boolean applyTotal(IPage<?> page, long total, boolean approximate) {
+        page.setTotal(total);
+        if (page instanceof CountModePage<?> countModePage) {
+            countModePage.setApproximateTotal(approximate);
+        }
+        return continuePage(page);
+    }
+
+    /**
+     * MySQL 执行计划估算行数：首行（驱动表）的 rows × filtered%
+     */
+    private Long estimate(Executor executor, MappedStatement ms, Object parameter, BoundSql boundSql) {
+        if (getDbType() != DbType.MYSQL && getDbType() != DbType.MARIADB) {
+            return null;
+        }
+        try {
+            Connection connection = executor.getTransaction().getConnection();
+            try (PreparedStatement statement = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+                ms.getConfiguration().newParameterHandler(ms, parameter, boundSql).setParameters(statement);
+                try (ResultSet rs = statement.executeQuery()) {
+                    if (rs.next()) {
+                        long rows = rs.getLong("rows");
+                        double filtered = rs.getDouble("filtered");
+                        return Math.round(rows * (filtered > 0 ? filtered : 100) / 100.0);
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            logger.debug("估算分页总数失败，改为精确统计: statement={}, {}", ms.getId(), e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * SQL 涉及的表名（小写、去引号与库名），按 SQL 文本缓存（动态 SQL 的不同分支分别解析）；
+     * 无法解析时返回空集合，查询按 EXACT 统计
+     */
+    private Set<String> tablesOf(String sql) {
+        return sqlTables.get(sql, text -> {
+            try {
+                Set<String> tables = new LinkedHashSet<>();
+                for (String table : new TablesNamesFinder().getTableList(CCJSqlParserUtil.parse(text))) {
+                    String name = table.substring(table.lastIndexOf('.') + 1).replace("`", "").replace("\"", "");
+                    tables.add(name.toLowerCase(Locale.ROOT));
+                }
+                return Collections.unmodifiableSet(tables);
+            } catch (Exception e) {
+                logger.debug("解析 SQL 涉及的表失败: {}", e.getMessage());
+                return Collections.emptySet();
+            }
+        });
+    }
+
+    private List<Long> versionsOf(Set<String> tables) {
+        List<Long> versions = new ArrayList<>(tables.size());
+        for (String table : tables) {
+            AtomicLong version = tableVersions.get(table);
+            versions.add(version != null ? version.get() : 0L);
+        }
+        return versions;
+    }
+
+    private static Counter counter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("page.count")
+                .description("分页总数统计：缓存命中、未命中（执行COUNT）与估算次数")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 缓存键：统计方式 + 查询（语句、SQL、参数） + 所涉及表的写版本
+     */
+    private record CountKey(CountMode mode, CacheKey query, List<Long> versions) {
+    }
+}
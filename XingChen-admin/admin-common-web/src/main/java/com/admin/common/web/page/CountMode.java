@@ -0,0 +1,25 @@
+package com.admin.common.web.page;
+
+/**
+ * 分页总数统计方式
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public enum CountMode {
+
+    /**
+     * 每次执行 COUNT 查询
+     */
+    EXACT,
+
+    /**
+     * 精确 COUNT，结果按查询语句与参数缓存一小段时间，相关表有写入时失效
+     */
+    CACHED,
+
+    /**
+     * 使用数据库执行计划的行数估算（MySQL EXPLAIN），不执行 COUNT；无法估算时退回 CACHED
+     */
+    APPROXIMATE
+}
@@ -0,0 +1,43 @@
+package com.admin.common.web.page;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+
+/**
+ * 指定总数统计方式的分页参数
+ * 由 {@link CountCachingPaginationInnerInterceptor} 识别；approximateTotal 为 true 表示 total 为估算值。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class CountModePage<T> extends Page<T> {
+
+    private static final long serialVersionUID = 1L;
+
+    private final CountMode countMode;
+
+    private boolean approximateTotal;
+
+    public CountModePage(long current, long size, CountMode countMode) {
+        super(current, size);
+        this.countMode = countMode;
+    }
+
+    /**
+     * countMode 为 null 时使用拦截器的默认方式
+     */
+    public static <T> CountModePage<T> of(long current, long size, CountMode countMode) {
+        return new CountModePage<>(current, size, countMode);
+    }
+
+    public CountMode getCountMode() {
+        return countMode;
+    }
+
+    public boolean isApproximateTotal() {
+        return approximateTotal;
+    }
+
+    public void setApproximateTotal(boolean approximateTotal) {
+        this.approximateTotal = approximateTotal;
+    }
+}
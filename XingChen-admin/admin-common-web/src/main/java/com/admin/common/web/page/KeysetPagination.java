@@ -0,0 +1,85 @@
+package com.admin.common.web.page;
+
+import com.admin.common.core.domain.CursorPageResult;
+import com.admin.common.core.exception.ServiceException;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.service.IService;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 键集（游标）分页
+ * 以自增主键倒序作为稳定排序键：下一页条件为 id &lt; 上一页最后一条的 id，走主键索引定位，
+ * 耗时与翻到第几页无关；不执行 COUNT 查询（Page 的 searchCount=false），LIMIT 仍由 PaginationInnerInterceptor 按方言生成。
+ * <p>
+ * 调用方传入的查询条件不要再设置排序。游标对客户端不透明，格式变化时只需调整本类。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public final class KeysetPagination {
+
+    /**
+     * 单页最大条数
+     */
+    public static final long MAX_SIZE = 500;
+
+    private static final String CURSOR_PREFIX = "k1:";
+
+    private KeysetPagination() {
+    }
+
+    /**
+     * 按主键倒序查询一页
+     *
+     * @param service  实体服务
+     * @param wrapper  过滤条件（不含排序）
+     * @param idColumn 主键列
+     * @param idGetter 主键取值
+     * @param cursor   上一页返回的 nextCursor，首页传 null
+     * @param size     每页条数，限制在 1 ~ {@link #MAX_SIZE}
+     * @throws ServiceException 游标无效（400）
+     */
+    public static <T> CursorPageResult<T> page(IService<T> service, LambdaQueryWrapper<T> wrapper,
+                                               SFunction<T, Long> idColumn, Function<T, Long> idGetter,
+                                               String cursor, long size) {
+        long pageSize = Math.max(1, Math.min(size, MAX_SIZE));
+        Long after = decode(cursor);
+        wrapper.lt(after != null, idColumn, after).orderByDesc(idColumn);
+
+        // 多取一条判断是否还有下一页
+        List<T> rows = service.page(new Page<>(1, pageSize + 1, false), wrapper).getRecords();
+        if (rows.size() <= pageSize) {
+            return CursorPageResult.of(rows, null, pageSize);
+        }
+        List<T> records = new ArrayList<>(rows.subList(0, (int) pageSize));
+        return CursorPageResult.of(records, encode(idGetter.apply(records.get(records.size() - 1))), pageSize);
+    }
+
+    static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Long decode(String cursor) {
+        if (!StringUtils.hasText(cursor)) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (value.startsWith(CURSOR_PREFIX)) {
+                return Long.valueOf(value.substring(CURSOR_PREFIX.length()));
+            }
+        } catch (IllegalArgumentException e) {
+            // 非法 base64 或数字，统一按无效游标处理
+        }
+        throw new ServiceException(400, "无效的分页游标");
+    }
+}
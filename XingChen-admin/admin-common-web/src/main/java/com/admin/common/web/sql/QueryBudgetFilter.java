@@ -0,0 +1,104 @@
+package com.admin.common.web.sql;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 每请求 SQL 预算过滤器
+ * 为每个请求打开 {@link QueryCounter} 计数范围，请求结束后：
+ * <ul>
+ *     <li>记录 http.server.queries{method,uri}：每请求执行的 SQL 条数分布，uri 为路由模板</li>
+ *     <li>同一语句执行次数达到 repeat-threshold 时记疑似 N+1 日志并计数 sql.repeated.statements</li>
+ *     <li>总条数超出预算时记日志并计数 sql.query.budget.exceeded；预算可按 "方法 路由模板" 单独配置</li>
+ * </ul>
+ * 只做观测，不中断请求；需要阻断回归请在测试中使用 {@link QueryCounter.Scope#assertMaxQueries}。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private static final String UNKNOWN_URI = "UNKNOWN";
+
+    private final MeterRegistry meterRegistry;
+    private final int repeatThreshold;
+    private final int defaultBudget;
+    private final Map<String, Integer> endpointBudgets;
+    private final ConcurrentHashMap<String, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    public QueryBudgetFilter(MeterRegistry meterRegistry, int repeatThreshold, int defaultBudget,
+                             Map<String, Integer> endpointBudgets) {
+        this.meterRegistry = meterRegistry;
+        this.repeatThreshold = repeatThreshold;
+        this.defaultBudget = defaultBudget;
+        this.endpointBudgets = endpointBudgets;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        try (QueryCounter.Scope scope = QueryCounter.start()) {
+            try {
+                filterChain.doFilter(request, response);
+            } finally {
+                report(request, scope);
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, QueryCounter.Scope scope) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : UNKNOWN_URI;
+        String endpoint = request.getMethod() + " " + uri;
+
+        summaries.computeIfAbsent(endpoint, key -> DistributionSummary.builder("http.server.queries")
+                        .description("每请求执行的SQL条数")
+                        .tag("method", request.getMethod())
+                        .tag("uri", uri)
+                        .register(meterRegistry))
+                .record(scope.total());
+
+        if (scope.total() == 0) {
+            return;
+        }
+        if (repeatThreshold > 0) {
+            for (Map.Entry<String, Integer> entry : scope.statements().entrySet()) {
+                if (entry.getValue() >= repeatThreshold) {
+                    logger.warn("疑似N+1查询: endpoint={}, statement={}, count={}",
+                            endpoint, entry.getKey(), entry.getValue());
+                    Counter.builder("sql.repeated.statements")
+                            .description("单个请求内重复执行达到阈值的语句次数")
+                            .tag("uri", uri)
+                            .tag("statement", entry.getKey())
+                            .register(meterRegistry)
+                            .increment();
+                }
+            }
+        }
+        int budget = endpointBudgets.getOrDefault(endpoint, defaultBudget);
+        if (budget > 0 && scope.total() > budget) {
+            logger.warn("请求SQL条数超出预算: endpoint={}, queries={}, budget={}, statements={}",
+                    endpoint, scope.total(), budget, scope.statements());
+            Counter.builder("sql.query.budget.exceeded")
+                    .description("SQL条数超出预算的请求数")
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
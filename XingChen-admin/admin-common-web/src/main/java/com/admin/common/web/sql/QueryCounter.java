@@ -0,0 +1,136 @@
+package com.admin.common.web.sql;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 当前线程的 SQL 执行计数
+ * 请求过滤器为每个请求打开一个计数范围；测试中也可直接使用，防止循环查询（N+1）回归：
+ * <pre>
+ * try (QueryCounter.Scope scope = QueryCounter.start()) {
+ *     organizationService.hasMembers(orgId, true);
+ *     scope.assertMaxQueries(3);
+ *     scope.assertMaxRepeats(1);
+ * }
+ * </pre>
+ * 计数按映射语句（Mapper 简单类名.方法名）区分，同一语句被执行多次即视为重复。
+ * 范围可嵌套，关闭时恢复外层范围；外层范围同样累计内层执行的语句。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public final class QueryCounter {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private QueryCounter() {
+    }
+
+    /**
+     * 在当前线程打开一个计数范围
+     */
+    public static Scope start() {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    /**
+     * 当前计数范围，未打开时返回 null
+     */
+    public static Scope current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 记录一次语句执行，未打开计数范围时忽略
+     */
+    static void record(String statement) {
+        for (Scope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.increment(statement);
+        }
+    }
+
+    /**
+     * 一个计数范围，只在打开它的线程内使用
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final Scope parent;
+        private final Map<String, Integer> statements = new LinkedHashMap<>();
+        private int total;
+        private boolean closed;
+
+        private Scope(Scope parent) {
+            this.parent = parent;
+        }
+
+        private void increment(String statement) {
+            total++;
+            statements.merge(statement, 1, Integer::sum);
+        }
+
+        /**
+         * 已执行的语句总数
+         */
+        public int total() {
+            return total;
+        }
+
+        /**
+         * 各语句执行次数（按首次执行顺序）
+         */
+        public Map<String, Integer> statements() {
+            return Collections.unmodifiableMap(statements);
+        }
+
+        /**
+         * 执行次数最多的语句的执行次数
+         */
+        public int maxRepeats() {
+            int max = 0;
+            for (int count : statements.values()) {
+                max = Math.max(max, count);
+            }
+            return max;
+        }
+
+        /**
+         * 断言语句总数不超过 max
+         *
+         * @throws AssertionError 超出时，消息中列出各语句执行次数
+         */
+        public void assertMaxQueries(int max) {
+            if (total > max) {
+                throw new AssertionError("期望最多执行 " + max + " 条SQL，实际 " + total + ": " + statements);
+            }
+        }
+
+        /**
+         * 断言同一语句的执行次数不超过 max
+         *
+         * @throws AssertionError 超出时，消息中列出各语句执行次数
+         */
+        public void assertMaxRepeats(int max) {
+            if (maxRepeats() > max) {
+                throw new AssertionError("期望同一SQL最多执行 " + max + " 次，实际: " + statements);
+            }
+        }
+
+        @Override
+        public void close() {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            if (CURRENT.get() == this) {
+                if (parent != null) {
+                    CURRENT.set(parent);
+                } else {
+                    CURRENT.remove();
+                }
+            }
+        }
+    }
+}
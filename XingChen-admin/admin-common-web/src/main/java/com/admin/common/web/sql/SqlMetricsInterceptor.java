@@ -0,0 +1,208 @@
+package com.admin.common.web.sql;
+
+import com.baomidou.mybatisplus.core.toolkit.PluginUtils;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL 语句级监控拦截器
+ * 拦截 StatementHandler 的 query / update，每次 JDBC 执行只计一次（与分页等 Executor 插件不重复）：
+ * <ul>
+ *     <li>sql.statement.duration：按映射语句（Mapper 简单类名.方法名）与结果记录耗时，含执行与结果映射</li>
+ *     <li>sql.statement.rows：查询返回行数 / 更新影响行数</li>
+ *     <li>超过 slow-threshold 的语句记慢 SQL 日志，只输出带占位符的 SQL 与参数个数，不输出参数值</li>
+ *     <li>进程内按语句累计次数、总耗时、最大耗时与行数，供 sqlstats 端点查询</li>
+ * </ul>
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Intercepts({
+        @Signature(type = StatementHandler.class, method = "query", args = {Statement.class, ResultHandler.class}),
+        @Signature(type = StatementHandler.class, method = "update", args = {Statement.class})
+})
+public class SqlMetricsInterceptor implements Interceptor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SqlMetricsInterceptor.class);
+
+    private final MeterRegistry meterRegistry;
+    private final long slowThresholdNanos;
+    private final ConcurrentHashMap<String, StatementMeters> statements = new ConcurrentHashMap<>();
+
+    public SqlMetricsInterceptor(MeterRegistry meterRegistry, Duration slowThreshold) {
+        this.meterRegistry = meterRegistry;
+        this.slowThresholdNanos = slowThreshold.toNanos();
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        PluginUtils.MPStatementHandler handler = PluginUtils.mpStatementHandler((StatementHandler) invocation.getTarget());
+        MappedStatement mappedStatement = handler.mappedStatement();
+        StatementMeters meters = statements.computeIfAbsent(mappedStatement.getId(),
+                id -> new StatementMeters(shortId(id), mappedStatement.getSqlCommandType().name()));
+
+        long start = System.nanoTime();
+        Object result = null;
+        boolean success = false;
+        try {
+            result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            long rows = rows(result);
+            meters.record(elapsed, rows, success);
+            if (elapsed >= slowThresholdNanos) {
+                logSlow(meters.statement, handler.boundSql(), elapsed, rows, success);
+            }
+        }
+    }
+
+    /**
+     * 按总耗时降序返回前 limit 条语句的累计统计
+     */
+    public List<StatementStats> top(int limit) {
+        Collection<StatementMeters> all = statements.values();
+        List<StatementStats> stats = new ArrayList<>(all.size());
+        for (StatementMeters meters : all) {
+            stats.add(meters.snapshot());
+        }
+        stats.sort(Comparator.comparingDouble(StatementStats::totalMillis).reversed());
+        return stats.size() > limit ? new ArrayList<>(stats.subList(0, limit)) : stats;
+    }
+
+    private static void logSlow(String statement, BoundSql boundSql, long elapsedNanos, long rows, boolean success) {
+        int parameters = boundSql.getParameterMappings() != null ? boundSql.getParameterMappings().size() : 0;
+        logger.warn("慢SQL: statement={}, elapsed={}ms, rows={}, success={}, params=[{} redacted], sql={}",
+                statement, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), rows, success, parameters,
+                compact(boundSql.getSql()));
+    }
+
+    /**
+     * 压缩 SQL 中的换行与连续空白，便于单行日志检索
+     */
+    private static String compact(String sql) {
+        StringBuilder builder = new StringBuilder(sql.length());
+        boolean space = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (Character.isWhitespace(c)) {
+                space = builder.length() > 0;
+            } else {
+                if (space) {
+                    builder.append(' ');
+                    space = false;
+                }
+                builder.append(c);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static long rows(Object result) {
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Number number) {
+            return number.longValue();
+        }
+        return 0;
+    }
+
+    /**
+     * com.admin.identity.mapper.OrganizationMapper.selectById → OrganizationMapper.selectById
+     */
+    static String shortId(String id) {
+        int method = id.lastIndexOf('.');
+        int type = method > 0 ? id.lastIndexOf('.', method - 1) : -1;
+        return type >= 0 ? id.substring(type + 1) : id;
+    }
+
+    /**
+     * 单条映射语句的指标与累计值
+     */
+    private final class StatementMeters {
+
+        private final String statement;
+        private final String command;
+        private final Timer success;
+        private final Timer failure;
+        private final DistributionSummary rows;
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder totalRows = new LongAdder();
+
+        StatementMeters(String statement, String command) {
+            this.statement = statement;
+            this.command = command;
+            this.success = timer(statement, command, "success");
+            this.failure = timer(statement, command, "error");
+            this.rows = DistributionSummary.builder("sql.statement.rows")
+                    .description("SQL 返回或影响行数")
+                    .tag("statement", statement)
+                    .tag("command", command)
+                    .register(meterRegistry);
+        }
+
+        void record(long elapsedNanos, long rowCount, boolean ok) {
+            (ok ? success : failure).record(elapsedNanos, TimeUnit.NANOSECONDS);
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulate(elapsedNanos);
+            if (ok) {
+                rows.record(rowCount);
+                totalRows.add(rowCount);
+            } else {
+                errors.increment();
+            }
+        }
+
+        StatementStats snapshot() {
+            long calls = count.sum();
+            double totalMillis = totalNanos.sum() / 1_000_000.0;
+            return new StatementStats(statement, command, calls, errors.sum(), totalMillis,
+                    calls == 0 ? 0 : totalMillis / calls, maxNanos.get() / 1_000_000.0, totalRows.sum());
+        }
+
+        private Timer timer(String statement, String command, String outcome) {
+            return Timer.builder("sql.statement.duration")
+                    .description("SQL 语句执行耗时")
+                    .tag("statement", statement)
+                    .tag("command", command)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * 单条语句累计统计
+     */
+    public record StatementStats(String statement, String command, long count, long errors,
+                                 double totalMillis, double meanMillis, double maxMillis, long rows) {
+    }
+}
@@ -0,0 +1,31 @@
+package com.admin.common.web.sql;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * SQL 语句统计端点：/actuator/sqlstats?limit=20
+ * 按总耗时降序列出本实例启动以来的语句累计统计。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Endpoint(id = "sqlstats")
+public class SqlStatsEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final SqlMetricsInterceptor interceptor;
+
+    public SqlStatsEndpoint(SqlMetricsInterceptor interceptor) {
+        this.interceptor = interceptor;
+    }
+
+    @ReadOperation
+    public List<SqlMetricsInterceptor.StatementStats> top(@Nullable Integer limit) {
+        return interceptor.top(limit != null && limit > 0 ? limit : DEFAULT_LIMIT);
+    }
+}
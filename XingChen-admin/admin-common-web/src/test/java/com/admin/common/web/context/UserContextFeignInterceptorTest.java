@@ -0,0 +1,70 @@
+package com.admin.common.web.context;
+
+import com.admin.common.constant.CommonConstants;
+import com.admin.common.context.UserContext;
+import com.admin.common.context.UserContextHolder;
+import feign.RequestTemplate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Feign 用户上下文透传测试
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+class UserContextFeignInterceptorTest {
+
+    private final UserContextFeignInterceptor interceptor = new UserContextFeignInterceptor();
+
+    @AfterEach
+    void tearDown() {
+        UserContextHolder.clear();
+    }
+
+    @Test
+    void forwardsContextHeadersAsInternalCall() {
+        UserContextHolder.set(new UserContext("7", 7L, "alice", "1", "NORMAL", "ADMIN,USER",
+                List.of("ADMIN", "USER"), 3L, "10.0.0.1", UserContext.AUTH_SOURCE_GATEWAY, "1724716800"));
+        RequestTemplate template = new RequestTemplate();
+
+        interceptor.apply(template);
+
+        assertEquals(List.of("7"), List.copyOf(template.headers().get(CommonConstants.USER_ID_HEADER)));
+        assertEquals(List.of("alice"), List.copyOf(template.headers().get(CommonConstants.USERNAME_HEADER)));
+        assertEquals(List.of("1"), List.copyOf(template.headers().get(CommonConstants.TENANT_ID_HEADER)));
+        assertEquals(List.of("ADMIN,USER"), List.copyOf(template.headers().get(CommonConstants.USER_ROLES_HEADER)));
+        assertEquals(List.of("3"), List.copyOf(template.headers().get(CommonConstants.AUTHZ_VERSION_HEADER)));
+        assertEquals(List.of("10.0.0.1"), List.copyOf(template.headers().get(CommonConstants.CLIENT_IP_HEADER)));
+        assertEquals(List.of(UserContext.AUTH_SOURCE_INTERNAL),
+                List.copyOf(template.headers().get(CommonConstants.AUTH_SOURCE_HEADER)));
+    }
+
+    @Test
+    void keepsHeadersSetByCaller() {
+        UserContextHolder.set(new UserContext("7", 7L, "alice", "1", null, null,
+                null, null, null, UserContext.AUTH_SOURCE_GATEWAY, null));
+        RequestTemplate template = new RequestTemplate();
+        template.header(CommonConstants.TENANT_ID_HEADER, "2");
+
+        interceptor.apply(template);
+
+        assertEquals(List.of("2"), List.copyOf(template.headers().get(CommonConstants.TENANT_ID_HEADER)));
+        assertFalse(template.headers().containsKey(CommonConstants.USER_ROLES_HEADER));
+    }
+
+    @Test
+    void addsNothingOutsideRequest() {
+        RequestTemplate template = new RequestTemplate();
+
+        interceptor.apply(template);
+
+        assertTrue(template.headers().isEmpty());
+    }
+}
@@ -0,0 +1,73 @@
+package com.admin.common.web.context;
+
+import com.admin.common.constant.CommonConstants;
+import com.admin.common.context.UserContext;
+import com.admin.common.context.UserContextHolder;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 用户上下文过滤器测试
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+class UserContextFilterTest {
+
+    private final UserContextFilter filter = new UserContextFilter();
+
+    @AfterEach
+    void tearDown() {
+        UserContextHolder.clear();
+    }
+
+    @Test
+    void contextIsAvailableDuringRequestAndClearedAfter() throws Exception {
+        MockHttpServletRequest request = gatewayRequest();
+        AtomicReference<UserContext> seen = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(),
+                new MockFilterChain(new HttpServlet() {
+                }, (req, res, chain) -> seen.set(UserContextHolder.get())));
+
+        assertEquals("7", seen.get().userId());
+        assertEquals(List.of("ADMIN", "USER"), seen.get().roleList());
+        assertEquals(3L, seen.get().authzVersion());
+        assertSame(seen.get(), request.getAttribute(UserContext.REQUEST_ATTRIBUTE));
+        assertNull(UserContextHolder.get());
+    }
+
+    @Test
+    void contextIsClearedWhenChainThrows() {
+        MockFilterChain failing = new MockFilterChain(new HttpServlet() {
+        }, (req, res, chain) -> {
+            throw new ServletException("boom");
+        });
+
+        assertThrows(ServletException.class,
+                () -> filter.doFilter(gatewayRequest(), new MockHttpServletResponse(), failing));
+        assertNull(UserContextHolder.get());
+    }
+
+    private static MockHttpServletRequest gatewayRequest() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/users");
+        request.addHeader(CommonConstants.USER_ID_HEADER, "7");
+        request.addHeader(CommonConstants.USERNAME_HEADER, "alice");
+        request.addHeader(CommonConstants.USER_ROLES_HEADER, "ADMIN,USER");
+        request.addHeader(CommonConstants.AUTHZ_VERSION_HEADER, "3");
+        return request;
+    }
+}
@@ -0,0 +1,186 @@
+package com.admin.common.web.datasource;
+
+import com.alibaba.druid.pool.DruidDataSource;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 读写分离路由测试：两个 H2 内存库分别充当主库与从库，以各自的数据区分命中哪个库
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+class ReadWriteRoutingDataSourceTest {
+
+    private static final String FIRST_NAME = "SELECT name FROM demo_item ORDER BY id LIMIT 1";
+
+    private ReadWriteRoutingDataSource dataSource;
+    private SqlSessionFactory sessionFactory;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        DataSource primary = database("rw_primary", "primary");
+        DataSource replica = database("rw_replica", "replica");
+        dataSource = new ReadWriteRoutingDataSource(primary, Map.of("replica-1", replica), Duration.ofSeconds(5),
+                true, Duration.ofSeconds(1));
+
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addInterceptor(new ReadWriteRoutingInterceptor());
+        configuration.addMapper(DemoItemMapper.class);
+        sessionFactory = new SqlSessionFactoryBuilder().build(configuration);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @AfterEach
+    void tearDown() {
+        DataSourceRoutingContext.clear();
+    }
+
+    @Test
+    void selectsReadReplicaUntilRequestWrites() {
+        DataSourceRoutingContext.beginRequest();
+        assertEquals("replica", mapperFirstName());
+
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            session.getMapper(DemoItemMapper.class).insert("written");
+        }
+        // 写入后本请求读主库
+        assertEquals("primary", mapperFirstName());
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM demo_item", Integer.class));
+
+        // 下一个请求恢复读从库
+        DataSourceRoutingContext.clear();
+        assertEquals("replica", mapperFirstName());
+    }
+
+    @Test
+    void routesByTransactionAndReadOnlyAnnotation() {
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        // 非 MyBatis 查询默认走主库，@ReadOnly 或只读事务走从库
+        assertEquals("primary", jdbcTemplate.queryForObject(FIRST_NAME, String.class));
+        assertEquals("replica", readOnlyQueries().firstName());
+        assertEquals("replica", readOnly.execute(status -> jdbcTemplate.queryForObject(FIRST_NAME, String.class)));
+
+        // 读写事务走主库，之后即使是只读事务也读主库
+        assertEquals("primary", new TransactionTemplate(transactionManager)
+                .execute(status -> jdbcTemplate.queryForObject(FIRST_NAME, String.class)));
+        assertEquals("primary", readOnly.execute(status -> jdbcTemplate.queryForObject(FIRST_NAME, String.class)));
+        assertEquals("primary", readOnlyQueries().firstName());
+    }
+
+    @Test
+    void unavailableReplicaFallsBackToPrimary() throws Exception {
+        JdbcDataSource missing = new JdbcDataSource();
+        missing.setURL("jdbc:h2:mem:rw_missing;IFEXISTS=TRUE");
+        try (ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(database("rw_primary", "primary"),
+                Map.of("replica-1", missing), Duration.ofSeconds(5), true, Duration.ofSeconds(1))) {
+            routing.checkReplicas();
+            assertEquals(0, routing.healthyReplicas());
+            assertEquals("primary", new JdbcTemplate(routing).queryForObject(FIRST_NAME, String.class));
+
+            // 从库恢复后重新承接读请求
+            missing.setURL("jdbc:h2:mem:rw_replica;DB_CLOSE_DELAY=-1");
+            database("rw_replica", "replica");
+            routing.checkReplicas();
+            assertEquals(1, routing.healthyReplicas());
+            DataSourceRoutingContext.enterReadOnly();
+            assertEquals("replica", new JdbcTemplate(routing).queryForObject(FIRST_NAME, String.class));
+        }
+    }
+
+    @Test
+    void druidReplicaUsesShortMaxWait() throws Exception {
+        DruidDataSource primary = new DruidDataSource();
+        primary.setUrl("jdbc:h2:mem:rw_primary;DB_CLOSE_DELAY=-1");
+        primary.setMaxActive(20);
+        primary.setMinIdle(5);
+        primary.setMaxWait(60000);
+        ReadWriteDataSourceProperties.Replica config = new ReadWriteDataSourceProperties.Replica();
+        config.setUrl("jdbc:h2:mem:rw_replica;DB_CLOSE_DELAY=-1");
+        config.setUsername("reader");
+        config.setMaxActive(4);
+
+        try (DruidDataSource replica = (DruidDataSource) ReadWriteDataSourcePostProcessor.createReplica(
+                primary, config, "replica-1", new ReadWriteDataSourceProperties().getReplicaMaxWait())) {
+            assertEquals(1000, replica.getMaxWait());
+            assertEquals(60000, primary.getMaxWait());
+            assertEquals("jdbc:h2:mem:rw_replica;DB_CLOSE_DELAY=-1", replica.getUrl());
+            assertEquals(4, replica.getMaxActive());
+            assertEquals(4, replica.getMinIdle());
+        } finally {
+            primary.close();
+        }
+    }
+
+    private String mapperFirstName() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            return session.getMapper(DemoItemMapper.class).firstName();
+        }
+    }
+
+    private ReadOnlyQueries readOnlyQueries() {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new ReadOnlyQueries(jdbcTemplate));
+        factory.addAspect(new ReadOnlyRoutingAspect());
+        return factory.getProxy();
+    }
+
+    private static DataSource database(String name, String value) throws Exception {
+        JdbcDataSource database = new JdbcDataSource();
+        database.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        try (Connection connection = database.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS demo_item");
+            statement.execute("CREATE TABLE demo_item (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(30))");
+            statement.execute("INSERT INTO demo_item (name) VALUES ('" + value + "')");
+        }
+        return database;
+    }
+
+    public interface DemoItemMapper {
+
+        @Select(FIRST_NAME)
+        String firstName();
+
+        @Insert("INSERT INTO demo_item (name) VALUES (#{name})")
+        int insert(String name);
+    }
+
+    @ReadOnly
+    public static class ReadOnlyQueries {
+
+        private final JdbcTemplate jdbcTemplate;
+
+        public ReadOnlyQueries(JdbcTemplate jdbcTemplate) {
+            this.jdbcTemplate = jdbcTemplate;
+        }
+
+        public String firstName() {
+            return jdbcTemplate.queryForObject(FIRST_NAME, String.class);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.admin.common.web.feign;
+
+import com.sun.net.httpserver.HttpServer;
+import feign.Client;
+import feign.Feign;
+import feign.Param;
+import feign.RequestLine;
+import feign.hc5.ApacheHttp5Client;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.core5.util.Timeout;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录链路 Feign 调用延迟基准
+ * 模拟一次登录对身份服务的两次调用（按用户名查询用户、查询角色），本地 HTTP 服务返回真实大小的 JSON 载荷，
+ * 16 线程并发对比：
+ * <ul>
+ *     <li>close：每次调用新建 TCP 连接（HttpURLConnection 保活缓存溢出时的实际情况）</li>
+ *     <li>urlconnection：Feign 默认客户端，JDK 保活缓存每目标最多 5 条空闲连接</li>
+ *     <li>pooled：InstrumentedConnectionManager 连接池</li>
+ * </ul>
+ * 运行方式：mvn -pl admin-common-web -am test-compile 生成 JMH 元数据后执行 main 方法
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class FeignTransportBenchmark {
+
+    private static final byte[] USER_JSON = ("{\"code\":200,\"message\":\"获取用户信息成功\",\"data\":{\"id\":1824736192837465,"
+            + "\"tenantId\":1,\"username\":\"zhangsan\",\"password\":\"$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z5b0pZ3Jq1Y8m8Rz0m3b1c2a\","
+            + "\"nickname\":\"张三\",\"realName\":\"张三\",\"email\":\"zhangsan@example.com\",\"phone\":\"13800138000\","
+            + "\"sex\":\"0\",\"userType\":\"00\",\"status\":\"0\"}}").getBytes(StandardCharsets.UTF_8);
+
+    private static final byte[] ROLES_JSON = ("{\"code\":200,\"message\":\"获取用户角色成功\","
+            + "\"data\":{\"userId\":1824736192837465,\"roles\":[\"admin\",\"user\"]}}").getBytes(StandardCharsets.UTF_8);
+
+    interface IdentityApi {
+
+        @RequestLine("GET /api/identity/users/username/{username}")
+        String getUserByUsername(@Param("username") String username);
+
+        @RequestLine("GET /api/identity/users/{userId}/roles")
+        String getUserRoles(@Param("userId") long userId);
+    }
+
+    @org.openjdk.jmh.annotations.Param({"close", "urlconnection", "pooled"})
+    private String transport;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+    private InstrumentedConnectionManager connectionManager;
+    private CloseableHttpClient httpClient;
+    private IdentityApi identityApi;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+        // 关闭 Nagle，避免 JDK HttpServer 分段写头与正文时与延迟 ACK 叠加出 40ms 等待，掩盖连接复用差异
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.createContext("/api/identity/users/", exchange -> {
+            byte[] body = exchange.getRequestURI().getPath().endsWith("/roles") ? ROLES_JSON : USER_JSON;
+            exchange.getResponseHeaders().set("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        serverExecutor = Executors.newFixedThreadPool(32);
+        server.setExecutor(serverExecutor);
+        server.start();
+
+        Client client;
+        Feign.Builder builder = Feign.builder();
+        switch (transport) {
+            case "pooled" -> {
+                connectionManager = new InstrumentedConnectionManager(Map.of(), Timeout.ofSeconds(1), null);
+                connectionManager.setMaxTotal(200);
+                connectionManager.setDefaultMaxPerRoute(50);
+                httpClient = HttpClients.custom().setConnectionManager(connectionManager).build();
+                client = new ApacheHttp5Client(httpClient);
+            }
+            case "close" -> {
+                client = new Client.Default(null, null);
+                builder.requestInterceptor(template -> template.header("Connection", "close"));
+            }
+            default -> client = new Client.Default(null, null);
+        }
+        identityApi = builder.client(client)
+                .target(IdentityApi.class, "http://127.0.0.1:" + server.getAddress().getPort());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+    }
+
+    /**
+     * 一次登录的身份服务往返：查询用户 + 查询角色
+     */
+    @Benchmark
+    public int login() {
+        return identityApi.getUserByUsername("zhangsan").length()
+                + identityApi.getUserRoles(1824736192837465L).length();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(FeignTransportBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,153 @@
+package com.admin.common.web.page;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 分页总数缓存测试（H2 内存库）
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+class CountCachingPaginationInnerInterceptorTest {
+
+    private JdbcDataSource dataSource;
+    private SqlSessionFactory sessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:count_cache;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        execute("DROP TABLE IF EXISTS demo_item");
+        execute("CREATE TABLE demo_item (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(30))");
+        execute("INSERT INTO demo_item (name) VALUES ('a'), ('b'), ('c')");
+
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("test", new JdbcTransactionFactory(), dataSource));
+        MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        interceptor.addInnerInterceptor(new CountCachingPaginationInnerInterceptor(DbType.H2, CountMode.EXACT,
+                Duration.ofMinutes(1), 100, new SimpleMeterRegistry()));
+        configuration.addInterceptor(interceptor);
+        configuration.addMapper(DemoItemMapper.class);
+        sessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @Test
+    void cachedTotalSurvivesExternalWritesButNotMapperWrites() throws Exception {
+        assertEquals(3, total(CountMode.CACHED));
+
+        // 绕过 MyBatis 的写入不会使缓存失效，精确模式可以看到
+        execute("INSERT INTO demo_item (name) VALUES ('d')");
+        assertEquals(3, total(CountMode.CACHED));
+        assertEquals(4, total(CountMode.EXACT));
+
+        // 经 Mapper 写入同一张表后缓存失效
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            DemoItem item = new DemoItem();
+            item.setName("e");
+            session.getMapper(DemoItemMapper.class).insert(item);
+        }
+        assertEquals(5, total(CountMode.CACHED));
+    }
+
+    @Test
+    void countCachedBeforeCommitIsDroppedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try (SqlSession writer = sessionFactory.openSession(false)) {
+            DemoItem item = new DemoItem();
+            item.setName("d");
+            writer.getMapper(DemoItemMapper.class).insert(item);
+
+            // 提交前的读取看不到未提交的行，旧总数以写入后的版本缓存
+            assertEquals(3, total(CountMode.CACHED));
+
+            writer.commit();
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(4, total(CountMode.CACHED));
+    }
+
+    @Test
+    void approximateFallsBackToCountOutsideMysql() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            CountModePage<DemoItem> page = CountModePage.of(1, 2, CountMode.APPROXIMATE);
+            session.getMapper(DemoItemMapper.class).selectPage(page, new LambdaQueryWrapper<>());
+            assertEquals(3, page.getTotal());
+            assertFalse(page.isApproximateTotal());
+            assertEquals(2, page.getRecords().size());
+        }
+    }
+
+    private long total(CountMode mode) {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            CountModePage<DemoItem> page = CountModePage.of(1, 2, mode);
+            session.getMapper(DemoItemMapper.class)
+                    .selectPage(page, new LambdaQueryWrapper<DemoItem>().isNotNull(DemoItem::getName));
+            return page.getTotal();
+        }
+    }
+
+    private void execute(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @TableName("demo_item")
+    public static class DemoItem {
+
+        @TableId(type = IdType.AUTO)
+        private Long id;
+
+        private String name;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public interface DemoItemMapper extends BaseMapper<DemoItem> {
+    }
+}
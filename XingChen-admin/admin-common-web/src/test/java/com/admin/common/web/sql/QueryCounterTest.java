@@ -0,0 +1,54 @@
+package com.admin.common.web.sql;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * SQL 执行计数测试
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+class QueryCounterTest {
+
+    @Test
+    void countsAndAssertsRepeatedStatements() {
+        try (QueryCounter.Scope scope = QueryCounter.start()) {
+            QueryCounter.record("UserMapper.selectById");
+            for (int i = 0; i < 3; i++) {
+                QueryCounter.record("UserRoleMapper.selectByUserId");
+            }
+
+            assertEquals(4, scope.total());
+            assertEquals(3, scope.maxRepeats());
+            assertDoesNotThrow(() -> scope.assertMaxQueries(4));
+            assertThrows(AssertionError.class, () -> scope.assertMaxQueries(3));
+            assertThrows(AssertionError.class, () -> scope.assertMaxRepeats(1));
+        }
+        assertNull(QueryCounter.current());
+    }
+
+    @Test
+    void nestedScopeAlsoCountsInOuter() {
+        try (QueryCounter.Scope outer = QueryCounter.start()) {
+            QueryCounter.record("RoleMapper.selectById");
+            try (QueryCounter.Scope inner = QueryCounter.start()) {
+                QueryCounter.record("RoleMapper.deleteById");
+                assertEquals(1, inner.total());
+            }
+            assertSame(outer, QueryCounter.current());
+            assertEquals(2, outer.total());
+        }
+    }
+
+    @Test
+    void shortensMappedStatementId() {
+        assertEquals("OrganizationMapper.selectAllSubOrganizationIds",
+                SqlMetricsInterceptor.shortId("com.admin.identity.mapper.OrganizationMapper.selectAllSubOrganizationIds"));
+    }
+}
@@ -0,0 +1,199 @@
+package com.admin.common.web.sql;
+
+import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * SQL 语句级监控测试（H2 内存库）
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+class SqlMetricsInterceptorTest {
+
+    private static final String SELECT_LIST = "SqlMetricsInterceptorTest$DemoRowMapper.selectList";
+    private static final String INSERT = "SqlMetricsInterceptorTest$DemoRowMapper.insert";
+    private static final String SELECT_FAILING = "SqlMetricsInterceptorTest$DemoRowMapper.selectFailing";
+
+    private JdbcDataSource dataSource;
+    private SimpleMeterRegistry meterRegistry;
+    private SqlMetricsInterceptor interceptor;
+    private SqlSessionFactory sessionFactory;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:sql_metrics;MODE=MySQL;DB_CLOSE_DELAY=-1");
+        execute("DROP TABLE IF EXISTS demo_row");
+        execute("CREATE TABLE demo_row (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(30))");
+
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new SqlMetricsInterceptor(meterRegistry, Duration.ofSeconds(1));
+        MybatisConfiguration configuration = new MybatisConfiguration(
+                new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addInterceptor(interceptor);
+        configuration.addMapper(DemoRowMapper.class);
+        sessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+    }
+
+    @Test
+    void recordsLatencyAndRowsPerStatement() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            DemoRowMapper mapper = session.getMapper(DemoRowMapper.class);
+            for (String name : List.of("a", "b", "c")) {
+                DemoRow row = new DemoRow();
+                row.setName(name);
+                mapper.insert(row);
+            }
+            assertEquals(3, mapper.selectList(null).size());
+            // 跳过一级缓存，使第二次查询真正执行
+            session.clearCache();
+            assertEquals(3, mapper.selectList(null).size());
+        }
+
+        Timer inserts = timer(INSERT, "INSERT", "success");
+        assertEquals(3, inserts.count());
+        assertTrue(inserts.totalTime(TimeUnit.NANOSECONDS) > 0);
+        assertEquals(2, timer(SELECT_LIST, "SELECT", "success").count());
+
+        DistributionSummary insertedRows = rows(INSERT);
+        assertEquals(3, insertedRows.count());
+        assertEquals(3, insertedRows.totalAmount());
+        DistributionSummary selectedRows = rows(SELECT_LIST);
+        assertEquals(2, selectedRows.count());
+        assertEquals(6, selectedRows.totalAmount());
+        assertEquals(3, selectedRows.max());
+    }
+
+    @Test
+    void recordsFailedStatementAsError() throws Exception {
+        execute("INSERT INTO demo_row (name) VALUES ('a')");
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            assertThrows(Exception.class, () -> session.getMapper(DemoRowMapper.class).selectFailing());
+        }
+
+        assertEquals(1, timer(SELECT_FAILING, "SELECT", "error").count());
+        assertEquals(0, timer(SELECT_FAILING, "SELECT", "success").count());
+        assertEquals(0, rows(SELECT_FAILING).count());
+
+        SqlMetricsInterceptor.StatementStats stats = new SqlStatsEndpoint(interceptor).top(null).get(0);
+        assertEquals(1, stats.count());
+        assertEquals(1, stats.errors());
+        assertEquals(0, stats.rows());
+    }
+
+    @Test
+    void endpointListsStatementsByTotalTime() {
+        try (SqlSession session = sessionFactory.openSession(true)) {
+            DemoRowMapper mapper = session.getMapper(DemoRowMapper.class);
+            DemoRow row = new DemoRow();
+            row.setName("a");
+            mapper.insert(row);
+            for (int i = 0; i < 5; i++) {
+                session.clearCache();
+                mapper.selectList(null);
+            }
+        }
+
+        SqlStatsEndpoint endpoint = new SqlStatsEndpoint(interceptor);
+        List<SqlMetricsInterceptor.StatementStats> all = endpoint.top(null);
+        assertEquals(2, all.size());
+        assertTrue(all.get(0).totalMillis() >= all.get(1).totalMillis());
+
+        SqlMetricsInterceptor.StatementStats select = all.stream()
+                .filter(stats -> stats.statement().equals(SELECT_LIST))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("SELECT", select.command());
+        assertEquals(5, select.count());
+        assertEquals(0, select.errors());
+        assertEquals(5, select.rows());
+        assertEquals(select.totalMillis() / 5, select.meanMillis(), 1e-9);
+        assertTrue(select.maxMillis() >= select.meanMillis());
+
+        assertEquals(1, endpoint.top(1).size());
+        assertEquals(all.get(0).statement(), endpoint.top(1).get(0).statement());
+        // 非正数 limit 退回默认条数
+        assertEquals(2, endpoint.top(0).size());
+    }
+
+    private Timer timer(String statement, String command, String outcome) {
+        Timer timer = meterRegistry.find("sql.statement.duration")
+                .tags("statement", statement, "command", command, "outcome", outcome)
+                .timer();
+        assertNotNull(timer, statement + " " + outcome);
+        return timer;
+    }
+
+    private DistributionSummary rows(String statement) {
+        DistributionSummary summary = meterRegistry.find("sql.statement.rows").tag("statement", statement).summary();
+        assertNotNull(summary, statement);
+        return summary;
+    }
+
+    private void execute(String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    @TableName("demo_row")
+    public static class DemoRow {
+
+        @TableId(type = IdType.AUTO)
+        private Long id;
+
+        private String name;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public interface DemoRowMapper extends BaseMapper<DemoRow> {
+
+        /**
+         * 逐行求值时除零，错误发生在执行阶段而不是预编译阶段
+         */
+        @Select("SELECT id / (id - id) AS id, name FROM demo_row")
+        List<DemoRow> selectFailing();
+    }
+}
@@ -0,0 +1,33 @@
+package com.admin.common.cache;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 多级缓存中保存的值及其过期时间，L1 与 L2 存同一结构，用于判断是否需要提前刷新
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Data
+@NoArgsConstructor
+public class CacheEnvelope {
+
+    private Object value;
+
+    /**
+     * 缓存的是 null 值
+     */
+    private boolean nullValue;
+
+    /**
+     * L2 过期时间（毫秒时间戳）
+     */
+    private long expiresAt;
+
+    public CacheEnvelope(Object value, long expiresAt) {
+        this.value = value;
+        this.nullValue = value == null;
+        this.expiresAt = expiresAt;
+    }
+}
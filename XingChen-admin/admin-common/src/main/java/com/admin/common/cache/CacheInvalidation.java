@@ -0,0 +1,26 @@
+package com.admin.common.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 跨节点缓存失效消息，key 为空表示清空整个缓存
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheInvalidation {
+
+    /**
+     * 发出消息的节点，节点忽略自己发出的消息
+     */
+    private String origin;
+
+    private String cache;
+
+    private String key;
+}
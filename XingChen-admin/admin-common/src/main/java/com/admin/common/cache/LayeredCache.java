@@ -0,0 +1,342 @@
+package com.admin.common.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.support.AbstractValueAdaptingCache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.BiConsumer;
+
+/**
+ * 两级缓存：本节点 Caffeine（L1）+ Redis（L2）
+ * <ul>
+ *     <li>读取顺序 L1 → L2 → 加载，L2 命中回填 L1</li>
+ *     <li>写入、删除、清空同时作用于两级，并广播失效消息使其他节点的 L1 失效</li>
+ *     <li>{@link #get(Object, Callable)}（@Cacheable(sync = true)）按键单飞加载：同一节点同一键同时只有一个加载者，其余线程等待其结果</li>
+ *     <li>配置 refresh-ahead 时，命中距过期不足该时长的值会异步提前刷新，调用方仍拿到当前值，热点键不会在过期瞬间集中回源</li>
+ *     <li>Redis 不可用时降级为仅 L1 + 加载，不影响业务调用</li>
+ * </ul>
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+public class LayeredCache extends AbstractValueAdaptingCache {
+
+    private final String name;
+    private final String redisKeyPrefix;
+    private final LayeredCacheProperties.Spec spec;
+    private final Cache<String, CacheEnvelope> local;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final BiConsumer<String, String> invalidationPublisher;
+    private final Executor refreshExecutor;
+    private final ConcurrentHashMap<String, CompletableFuture<CacheEnvelope>> inflight = new ConcurrentHashMap<>();
+
+    private final Counter localHits;
+    private final Counter remoteHits;
+    private final Counter misses;
+    private final Counter refreshes;
+    private final Timer loadTimer;
+
+    public LayeredCache(String name, String keyPrefix, LayeredCacheProperties.Spec spec,
+                        RedisTemplate<String, Object> redisTemplate,
+                        BiConsumer<String, String> invalidationPublisher,
+                        Executor refreshExecutor, MeterRegistry meterRegistry) {
+        super(spec.getAllowNullValues());
+        this.name = name;
+        this.redisKeyPrefix = keyPrefix + name + "::";
+        this.spec = spec;
+        this.redisTemplate = redisTemplate;
+        this.invalidationPublisher = invalidationPublisher;
+        this.refreshExecutor = refreshExecutor;
+        this.local = Caffeine.newBuilder()
+                .expireAfterWrite(spec.getLocalTtl())
+                .maximumSize(spec.getLocalMaxSize())
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, local, name + ".local");
+        this.localHits = getCounter(meterRegistry, "local");
+        this.remoteHits = getCounter(meterRegistry, "remote");
+        this.misses = getCounter(meterRegistry, "miss");
+        this.refreshes = Counter.builder("cache.layered.refresh")
+                .description("提前刷新次数")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("cache.layered.load")
+                .description("未命中时加载耗时")
+                .tag("cache", name)
+                .register(meterRegistry);
+        Gauge.builder("cache.layered.hit.ratio", this, LayeredCache::hitRatio)
+                .description("两级合计命中率")
+                .tag("cache", name)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    @Override
+    protected Object lookup(Object key) {
+        CacheEnvelope envelope = getEnvelope(toKey(key));
+        return envelope != null ? storeValue(envelope) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String cacheKey = toKey(key);
+        CacheEnvelope envelope = getEnvelope(cacheKey);
+        if (envelope != null) {
+            refreshAheadIfNeeded(cacheKey, envelope, valueLoader);
+        } else {
+            envelope = loadOnce(key, cacheKey, valueLoader);
+        }
+        return (T) fromStoreValue(storeValue(envelope));
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value == null && !isAllowNullValues()) {
+            evict(key);
+            return;
+        }
+        String cacheKey = toKey(key);
+        store(cacheKey, value);
+        invalidationPublisher.accept(name, cacheKey);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        String cacheKey = toKey(key);
+        CacheEnvelope envelope = newEnvelope(value);
+        try {
+            Boolean stored = redisTemplate.opsForValue().setIfAbsent(redisKey(cacheKey), envelope, spec.getTtl());
+            if (!Boolean.TRUE.equals(stored)) {
+                return get(key);
+            }
+        } catch (Exception e) {
+            log.warn("写入 L2 缓存失败: cache={}, {}", name, e.getMessage());
+        }
+        local.put(cacheKey, envelope);
+        invalidationPublisher.accept(name, cacheKey);
+        return null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        String cacheKey = toKey(key);
+        try {
+            redisTemplate.delete(redisKey(cacheKey));
+        } catch (Exception e) {
+            log.warn("删除 L2 缓存失败: cache={}, {}", name, e.getMessage());
+        }
+        local.invalidate(cacheKey);
+        invalidationPublisher.accept(name, cacheKey);
+    }
+
+    @Override
+    public void clear() {
+        try {
+            deleteRemoteKeys();
+        } catch (Exception e) {
+            log.warn("清空 L2 缓存失败: cache={}, {}", name, e.getMessage());
+        }
+        local.invalidateAll();
+        invalidationPublisher.accept(name, null);
+    }
+
+    /**
+     * 处理其他节点的失效广播，只清理 L1
+     */
+    public void onInvalidation(String cacheKey) {
+        if (cacheKey == null) {
+            local.invalidateAll();
+        } else {
+            local.invalidate(cacheKey);
+        }
+    }
+
+    /**
+     * L1 → L2 查找，L2 命中回填 L1
+     */
+    private CacheEnvelope getEnvelope(String cacheKey) {
+        CacheEnvelope envelope = local.getIfPresent(cacheKey);
+        if (envelope != null) {
+            localHits.increment();
+            return envelope;
+        }
+        try {
+            Object remote = redisTemplate.opsForValue().get(redisKey(cacheKey));
+            if (remote instanceof CacheEnvelope remoteEnvelope) {
+                remoteHits.increment();
+                local.put(cacheKey, remoteEnvelope);
+                return remoteEnvelope;
+            }
+        } catch (Exception e) {
+            log.warn("读取 L2 缓存失败，降级为本地缓存: cache={}, {}", name, e.getMessage());
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * 单飞加载：同一键只有第一个线程执行加载，其余线程等待同一结果
+     */
+    private CacheEnvelope loadOnce(Object key, String cacheKey, Callable<?> valueLoader) {
+        CompletableFuture<CacheEnvelope> mine = new CompletableFuture<>();
+        CompletableFuture<CacheEnvelope> existing = inflight.putIfAbsent(cacheKey, mine);
+        if (existing != null) {
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof ValueRetrievalException retrievalException
+                        ? retrievalException : new ValueRetrievalException(key, valueLoader, e.getCause());
+            }
+        }
+        try {
+            CacheEnvelope envelope = loadAndStore(cacheKey, valueLoader);
+            mine.complete(envelope);
+            return envelope;
+        } catch (Throwable t) {
+            ValueRetrievalException failure = new ValueRetrievalException(key, valueLoader, t);
+            mine.completeExceptionally(failure);
+            throw failure;
+        } finally {
+            inflight.remove(cacheKey, mine);
+        }
+    }
+
+    /**
+     * 命中值距过期不足 refresh-ahead 时异步刷新，同一键同时只有一个刷新任务，刷新成功后广播失效
+     */
+    private void refreshAheadIfNeeded(String cacheKey, CacheEnvelope envelope, Callable<?> valueLoader) {
+        long refreshAheadMillis = spec.getRefreshAhead().toMillis();
+        if (refreshAheadMillis <= 0 || System.currentTimeMillis() < envelope.getExpiresAt() - refreshAheadMillis) {
+            return;
+        }
+        CompletableFuture<CacheEnvelope> mine = new CompletableFuture<>();
+        if (inflight.putIfAbsent(cacheKey, mine) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    mine.complete(loadAndStore(cacheKey, valueLoader));
+                    refreshes.increment();
+                    // 与 put 一致广播失效，其他节点丢弃 L1 中的旧值并从 L2 读取刷新结果
+                    invalidationPublisher.accept(name, cacheKey);
+                } catch (Throwable t) {
+                    mine.completeExceptionally(t);
+                    log.warn("提前刷新缓存失败: cache={}, key={}, {}", name, cacheKey, t.getMessage());
+                } finally {
+                    inflight.remove(cacheKey, mine);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inflight.remove(cacheKey, mine);
+            mine.cancel(false);
+        }
+    }
+
+    private CacheEnvelope loadAndStore(String cacheKey, Callable<?> valueLoader) throws Exception {
+        Timer.Sample sample = Timer.start();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } finally {
+            sample.stop(loadTimer);
+        }
+        if (value == null && !isAllowNullValues()) {
+            return newEnvelope(null);
+        }
+        return store(cacheKey, value);
+    }
+
+    private CacheEnvelope store(String cacheKey, Object value) {
+        CacheEnvelope envelope = newEnvelope(value);
+        try {
+            redisTemplate.opsForValue().set(redisKey(cacheKey), envelope, spec.getTtl());
+        } catch (Exception e) {
+            log.warn("写入 L2 缓存失败: cache={}, {}", name, e.getMessage());
+        }
+        local.put(cacheKey, envelope);
+        return envelope;
+    }
+
+    private void deleteRemoteKeys() {
+        ScanOptions options = ScanOptions.scanOptions().match(redisKeyPrefix + "*").count(500).build();
+        redisTemplate.execute((RedisCallback<Void>) connection -> {
+            List<byte[]> batch = new ArrayList<>();
+            try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+                while (cursor.hasNext()) {
+                    batch.add(cursor.next());
+                    if (batch.size() == 500) {
+                        connection.keyCommands().del(batch.toArray(new byte[0][]));
+                        batch.clear();
+                    }
+                }
+            }
+            if (!batch.isEmpty()) {
+                connection.keyCommands().del(batch.toArray(new byte[0][]));
+            }
+            return null;
+        });
+    }
+
+    private CacheEnvelope newEnvelope(Object value) {
+        return new CacheEnvelope(value, System.currentTimeMillis() + spec.getTtl().toMillis());
+    }
+
+    private static Object storeValue(CacheEnvelope envelope) {
+        return envelope.isNullValue() ? NullValue.INSTANCE : envelope.getValue();
+    }
+
+    private String redisKey(String cacheKey) {
+        return redisKeyPrefix + cacheKey;
+    }
+
+    private static String toKey(Object key) {
+        return key instanceof byte[] bytes ? new String(bytes, StandardCharsets.UTF_8) : String.valueOf(key);
+    }
+
+    private double hitRatio() {
+        double hits = localHits.count() + remoteHits.count();
+        double total = hits + misses.count();
+        return total == 0 ? 0 : hits / total;
+    }
+
+    private Counter getCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("cache.layered.gets")
+                .description("缓存读取次数")
+                .tag("cache", name)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
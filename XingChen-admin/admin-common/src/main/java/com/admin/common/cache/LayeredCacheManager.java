@@ -0,0 +1,111 @@
+package com.admin.common.cache;
+
+import com.alibaba.fastjson2.JSON;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 两级缓存管理器
+ * 按 admin.cache.specs 为每个缓存名创建 {@link LayeredCache}，未声明的缓存名按 defaults 动态创建（可关闭）。
+ * 写操作通过 Redis pub/sub 广播失效消息，各节点收到后清理自己的 L1。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+public class LayeredCacheManager implements CacheManager, DisposableBean {
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final LayeredCacheProperties properties;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final ThreadPoolExecutor refreshExecutor;
+    private final ConcurrentHashMap<String, LayeredCache> caches = new ConcurrentHashMap<>();
+
+    public LayeredCacheManager(LayeredCacheProperties properties,
+                               RedisTemplate<String, Object> redisTemplate,
+                               StringRedisTemplate stringRedisTemplate,
+                               MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger sequence = new AtomicInteger();
+        int threads = Math.max(1, properties.getRefreshThreads());
+        this.refreshExecutor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(1024),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "cache-refresh-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.refreshExecutor.allowCoreThreadTimeOut(true);
+
+        // 预先创建声明过的缓存，指标在启动时即可见
+        properties.getSpecs().keySet().forEach(this::getCache);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        LayeredCache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        LayeredCacheProperties.Spec spec = properties.resolve(name);
+        if (spec == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, key -> new LayeredCache(key, properties.getKeyPrefix(), spec,
+                redisTemplate, this::publishInvalidation, refreshExecutor, meterRegistry));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    /**
+     * 处理失效广播消息，忽略本节点发出的消息
+     */
+    public void onInvalidation(String message) {
+        CacheInvalidation invalidation = JSON.parseObject(message, CacheInvalidation.class);
+        if (invalidation == null || nodeId.equals(invalidation.getOrigin())) {
+            return;
+        }
+        LayeredCache cache = caches.get(invalidation.getCache());
+        if (cache != null) {
+            cache.onInvalidation(invalidation.getKey());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        refreshExecutor.shutdownNow();
+    }
+
+    private void publishInvalidation(String cacheName, String cacheKey) {
+        try {
+            stringRedisTemplate.convertAndSend(properties.getChannel(),
+                    JSON.toJSONString(new CacheInvalidation(nodeId, cacheName, cacheKey)));
+        } catch (Exception e) {
+            log.warn("广播缓存失效失败，其他节点将在 local-ttl 后过期: cache={}, {}", cacheName, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.admin.common.cache;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 多级缓存配置（admin.cache）
+ * <pre>
+ * admin:
+ *   cache:
+ *     defaults:
+ *       ttl: PT30M
+ *       local-ttl: PT1M
+ *     specs:
+ *       user:
+ *         ttl: PT10M
+ *         local-max-size: 5000
+ *         refresh-ahead: PT1M
+ * </pre>
+ * specs 中未配置的字段取 defaults。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Data
+@ConfigurationProperties(prefix = "admin.cache")
+public class LayeredCacheProperties {
+
+    /**
+     * 是否启用多级缓存管理器
+     */
+    private boolean enabled = true;
+
+    /**
+     * 跨节点失效广播频道
+     */
+    private String channel = "cache:invalidate";
+
+    /**
+     * Redis 键前缀，完整键为 前缀 + 缓存名 + "::" + 缓存键
+     */
+    private String keyPrefix = "cache:";
+
+    /**
+     * 是否允许使用未在 specs 中声明的缓存名（使用 defaults）
+     */
+    private boolean allowUndeclared = true;
+
+    /**
+     * 提前刷新线程数
+     */
+    private int refreshThreads = 2;
+
+    private Spec defaults = new Spec(Duration.ofMinutes(30), Duration.ofMinutes(1), 10_000L, Duration.ZERO, true);
+
+    private Map<String, Spec> specs = new LinkedHashMap<>();
+
+    /**
+     * 取指定缓存的配置，未声明且不允许动态创建时返回 null
+     */
+    public Spec resolve(String name) {
+        Spec spec = specs.get(name);
+        if (spec == null) {
+            return allowUndeclared ? defaults : null;
+        }
+        return spec.withDefaults(defaults);
+    }
+
+    /**
+     * 单个缓存的配置
+     */
+    @Data
+    public static class Spec {
+
+        /**
+         * Redis（L2）过期时间
+         */
+        private Duration ttl;
+
+        /**
+         * 本地（L1）写入后过期时间，决定其他节点最长读到旧值的时间（失效广播丢失时）
+         */
+        private Duration localTtl;
+
+        /**
+         * 本地（L1）最大条目数
+         */
+        private Long localMaxSize;
+
+        /**
+         * 距过期不足该时长时，命中后异步提前刷新；0 表示不提前刷新
+         */
+        private Duration refreshAhead;
+
+        /**
+         * 是否缓存 null 值（防止缓存穿透）
+         */
+        private Boolean allowNullValues;
+
+        public Spec() {
+        }
+
+        public Spec(Duration ttl, Duration localTtl, Long localMaxSize, Duration refreshAhead, Boolean allowNullValues) {
+            this.ttl = ttl;
+            this.localTtl = localTtl;
+            this.localMaxSize = localMaxSize;
+            this.refreshAhead = refreshAhead;
+            this.allowNullValues = allowNullValues;
+        }
+
+        Spec withDefaults(Spec defaults) {
+            return new Spec(
+                    ttl != null ? ttl : defaults.ttl,
+                    localTtl != null ? localTtl : defaults.localTtl,
+                    localMaxSize != null ? localMaxSize : defaults.localMaxSize,
+                    refreshAhead != null ? refreshAhead : defaults.refreshAhead,
+                    allowNullValues != null ? allowNullValues : defaults.allowNullValues);
+        }
+    }
+}
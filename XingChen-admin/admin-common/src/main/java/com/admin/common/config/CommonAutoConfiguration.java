@@ -1,14 +1,16 @@
 package com.admin.common.config;
 
 import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.cache.CacheAutoConfiguration;
 import org.springframework.context.annotation.Import;
 
 /**
  * 公共模块自动配置
  */
-@AutoConfiguration
+@AutoConfiguration(before = CacheAutoConfiguration.class)
 @Import({
     RedisConfig.class,
+    LayeredCacheConfig.class,
     SwaggerConfig.class,
     MonitoringConfig.class
 })
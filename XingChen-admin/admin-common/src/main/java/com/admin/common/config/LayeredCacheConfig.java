@@ -0,0 +1,62 @@
+package com.admin.common.config;
+
+import com.admin.common.cache.LayeredCacheManager;
+import com.admin.common.cache.LayeredCacheProperties;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 两级缓存配置（Caffeine L1 + Redis L2）
+ * 服务自行声明 CacheManager 时不生效；admin.cache.enabled=false 可关闭。
+ */
+@Slf4j
+@Configuration
+@EnableCaching
+@EnableConfigurationProperties(LayeredCacheProperties.class)
+@ConditionalOnProperty(prefix = "admin.cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class LayeredCacheConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(CacheManager.class)
+    public LayeredCacheManager cacheManager(LayeredCacheProperties properties,
+                                            RedisTemplate<String, Object> redisTemplate,
+                                            StringRedisTemplate stringRedisTemplate,
+                                            MeterRegistry meterRegistry) {
+        return new LayeredCacheManager(properties, redisTemplate, stringRedisTemplate, meterRegistry);
+    }
+
+    /**
+     * 订阅其他节点的缓存失效广播
+     */
+    @Bean
+    @ConditionalOnBean(LayeredCacheManager.class)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                            LayeredCacheProperties properties,
+                                                                            LayeredCacheManager cacheManager) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            try {
+                cacheManager.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8));
+            } catch (Exception e) {
+                log.warn("处理缓存失效广播失败: {}", e.getMessage());
+            }
+        }, new ChannelTopic(properties.getChannel()));
+        return container;
+    }
+}
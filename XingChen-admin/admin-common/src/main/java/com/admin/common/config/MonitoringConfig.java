@@ -1,8 +1,12 @@
 package com.admin.common.config;
 
+import com.admin.common.metrics.ServiceTimingAspect;
+import com.admin.common.metrics.ServiceTimingProperties;
 import io.micrometer.core.aop.TimedAspect;
 import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.actuate.autoconfigure.metrics.MeterRegistryCustomizer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -10,6 +14,7 @@ import org.springframework.context.annotation.Configuration;
  * 监控配置
  */
 @Configuration
+@EnableConfigurationProperties(ServiceTimingProperties.class)
 public class MonitoringConfig {
 
     /**
@@ -27,4 +32,13 @@ public class MonitoringConfig {
     public TimedAspect timedAspect(MeterRegistry registry) {
         return new TimedAspect(registry);
     }
+
+    /**
+     * 业务服务方法自动计时，admin.metrics.service-timing.enabled=false 关闭
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "admin.metrics.service-timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public ServiceTimingAspect serviceTimingAspect(MeterRegistry registry, ServiceTimingProperties properties) {
+        return new ServiceTimingAspect(registry, properties);
+    }
 }
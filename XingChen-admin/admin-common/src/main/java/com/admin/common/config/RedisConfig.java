@@ -1,18 +1,38 @@
 package com.admin.common.config;
 
+import com.admin.common.redis.CompactRedisSerializer;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
 /**
  * Redis配置
+ * 值序列化方式由 admin.redis.value-serializer 选择：
+ * <ul>
+ *     <li>compact（默认）：fastjson2 JSONB + 超过阈值 zstd 压缩，可读取 jackson 写入的旧值</li>
+ *     <li>jackson：GenericJackson2JsonRedisSerializer，用于回退；无法读取 compact 写入的值</li>
+ * </ul>
  */
 @Configuration
 public class RedisConfig {
 
+    @Value("${admin.redis.value-serializer:compact}")
+    private String valueSerializer;
+
+    @Value("${admin.redis.accept-types:com.admin.}")
+    private String[] acceptTypes;
+
+    @Value("${admin.redis.compression.threshold:1024}")
+    private int compressionThreshold;
+
+    @Value("${admin.redis.compression.level:3}")
+    private int compressionLevel;
+
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
@@ -23,12 +43,22 @@ public class RedisConfig {
         template.setKeySerializer(stringRedisSerializer);
         template.setHashKeySerializer(stringRedisSerializer);
 
-        // 使用JSON序列化器作为value的序列化器
-        GenericJackson2JsonRedisSerializer jsonRedisSerializer = new GenericJackson2JsonRedisSerializer();
-        template.setValueSerializer(jsonRedisSerializer);
-        template.setHashValueSerializer(jsonRedisSerializer);
+        // value 序列化器按配置选择
+        RedisSerializer<Object> redisValueSerializer = redisValueSerializer();
+        template.setValueSerializer(redisValueSerializer);
+        template.setHashValueSerializer(redisValueSerializer);
 
         template.afterPropertiesSet();
         return template;
     }
+
+    private RedisSerializer<Object> redisValueSerializer() {
+        if ("jackson".equalsIgnoreCase(valueSerializer)) {
+            return new GenericJackson2JsonRedisSerializer();
+        }
+        if ("compact".equalsIgnoreCase(valueSerializer)) {
+            return new CompactRedisSerializer(acceptTypes, compressionThreshold, compressionLevel);
+        }
+        throw new IllegalArgumentException("不支持的 admin.redis.value-serializer: " + valueSerializer);
+    }
 }
@@ -93,6 +93,11 @@ public class CommonConstants {
      */
     public static final String USER_ROLES_HEADER = "X-User-Roles";
 
+    /**
+     * 授权版本请求头
+     */
+    public static final String AUTHZ_VERSION_HEADER = "X-Authz-Version";
+
     /**
      * 删除标志 - 正常
      */
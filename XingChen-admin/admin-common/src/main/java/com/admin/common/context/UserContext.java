@@ -0,0 +1,128 @@
+package com.admin.common.context;
+
+import com.admin.common.constant.CommonConstants;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 用户上下文（不可变）
+ * 由网关转发的请求头在每个请求内只解析一次，之后所有读取都直接取字段。
+ * 缺失的请求头对应字段为 null（角色为空列表），不记录日志，匿名接口也会经过这里。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public record UserContext(String userId,
+                          Long userIdAsLong,
+                          String username,
+                          String tenantId,
+                          String userType,
+                          String roles,
+                          List<String> roleList,
+                          Long authzVersion,
+                          String clientIp,
+                          String authSource,
+                          String authTime) {
+
+    /**
+     * 请求属性名：解析结果缓存在请求上，同一请求内重复读取不再解析请求头
+     */
+    public static final String REQUEST_ATTRIBUTE = UserContext.class.getName();
+
+    public static final String AUTH_SOURCE_GATEWAY = "Gateway";
+    public static final String AUTH_SOURCE_INTERNAL = "Internal";
+
+    private static final String UNKNOWN = "unknown";
+
+    public UserContext {
+        roleList = roleList == null ? Collections.emptyList() : Collections.unmodifiableList(roleList);
+    }
+
+    /**
+     * 解析请求头
+     */
+    public static UserContext from(HttpServletRequest request) {
+        String userId = textOrNull(request.getHeader(CommonConstants.USER_ID_HEADER));
+        String roles = textOrNull(request.getHeader(CommonConstants.USER_ROLES_HEADER));
+        String clientIp = textOrNull(request.getHeader(CommonConstants.CLIENT_IP_HEADER));
+        return new UserContext(
+                userId,
+                parseLong(userId),
+                textOrNull(request.getHeader(CommonConstants.USERNAME_HEADER)),
+                request.getHeader(CommonConstants.TENANT_ID_HEADER),
+                request.getHeader(CommonConstants.USER_TYPE_HEADER),
+                roles,
+                roles == null ? null : Arrays.asList(StringUtils.commaDelimitedListToStringArray(roles)),
+                parseLong(textOrNull(request.getHeader(CommonConstants.AUTHZ_VERSION_HEADER))),
+                // 网关没有传递时退回请求的远程地址
+                clientIp != null ? clientIp : request.getRemoteAddr(),
+                request.getHeader(CommonConstants.AUTH_SOURCE_HEADER),
+                request.getHeader(CommonConstants.AUTH_TIME_HEADER));
+    }
+
+    public boolean hasRole(String role) {
+        return roleList.contains(role);
+    }
+
+    public boolean isFromGateway() {
+        return AUTH_SOURCE_GATEWAY.equals(authSource);
+    }
+
+    public boolean isInternalCall() {
+        return AUTH_SOURCE_INTERNAL.equals(authSource);
+    }
+
+    /**
+     * 用户ID与用户名都存在
+     */
+    public boolean hasValidUserContext() {
+        return userId != null && username != null;
+    }
+
+    /**
+     * 用户上下文完整且来自网关或内部调用
+     */
+    public boolean isAuthenticated() {
+        return hasValidUserContext() && (isFromGateway() || isInternalCall());
+    }
+
+    /**
+     * 用户信息摘要（用于日志）
+     */
+    public String summary() {
+        return "User[id=" + orUnknown(userId)
+                + ", name=" + orUnknown(username)
+                + ", ip=" + orUnknown(clientIp)
+                + ", source=" + orUnknown(authSource) + "]";
+    }
+
+    /**
+     * 审计信息（用于操作日志）
+     */
+    public String auditInfo(String operation) {
+        return "[" + operation + "] " + summary() + " from " + clientIp + " at " + authTime;
+    }
+
+    private static String textOrNull(String value) {
+        return StringUtils.hasText(value) ? value : null;
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String orUnknown(String value) {
+        return value != null ? value : UNKNOWN;
+    }
+}
@@ -0,0 +1,77 @@
+package com.admin.common.context;
+
+import java.util.concurrent.Callable;
+
+/**
+ * 当前线程的用户上下文
+ * 由 Web 层过滤器在请求开始时设置、结束时清除。
+ * 线程池复用线程，不使用 InheritableThreadLocal；提交到其他线程的任务需通过 {@link #wrap} 携带提交时的上下文，
+ * 任务结束后恢复执行线程原有的上下文。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public final class UserContextHolder {
+
+    private static final ThreadLocal<UserContext> CONTEXT = new ThreadLocal<>();
+
+    private UserContextHolder() {
+    }
+
+    /**
+     * 当前线程的用户上下文，不在请求内时返回 null
+     */
+    public static UserContext get() {
+        return CONTEXT.get();
+    }
+
+    public static void set(UserContext context) {
+        if (context == null) {
+            CONTEXT.remove();
+        } else {
+            CONTEXT.set(context);
+        }
+    }
+
+    public static void clear() {
+        CONTEXT.remove();
+    }
+
+    /**
+     * 包装任务，使其在执行线程上看到提交线程当前的用户上下文
+     */
+    public static Runnable wrap(Runnable task) {
+        UserContext captured = CONTEXT.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            UserContext previous = CONTEXT.get();
+            CONTEXT.set(captured);
+            try {
+                task.run();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    /**
+     * 包装任务，使其在执行线程上看到提交线程当前的用户上下文
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        UserContext captured = CONTEXT.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> {
+            UserContext previous = CONTEXT.get();
+            CONTEXT.set(captured);
+            try {
+                return task.call();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+}
@@ -0,0 +1,75 @@
+package com.admin.common.core.domain;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 游标分页查询结果
+ * 不返回总数与页码，客户端用 nextCursor 请求下一页；hasNext 为 false 时 nextCursor 为 null。
+ */
+@Schema(description = "游标分页查询结果")
+public class CursorPageResult<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "数据列表")
+    private List<T> records;
+
+    @Schema(description = "下一页游标，不透明字符串，原样回传")
+    private String nextCursor;
+
+    @Schema(description = "是否还有下一页")
+    private Boolean hasNext;
+
+    @Schema(description = "每页显示条数")
+    private Long size;
+
+    public CursorPageResult() {
+    }
+
+    public CursorPageResult(List<T> records, String nextCursor, Long size) {
+        this.records = records;
+        this.nextCursor = nextCursor;
+        this.hasNext = nextCursor != null;
+        this.size = size;
+    }
+
+    public static <T> CursorPageResult<T> of(List<T> records, String nextCursor, Long size) {
+        return new CursorPageResult<>(records, nextCursor, size);
+    }
+
+    // Getters and Setters
+    public List<T> getRecords() {
+        return records;
+    }
+
+    public void setRecords(List<T> records) {
+        this.records = records;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public Boolean getHasNext() {
+        return hasNext;
+    }
+
+    public void setHasNext(Boolean hasNext) {
+        this.hasNext = hasNext;
+    }
+
+    public Long getSize() {
+        return size;
+    }
+
+    public void setSize(Long size) {
+        this.size = size;
+    }
+}
@@ -0,0 +1,55 @@
+package com.admin.common.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 身份数据变更事件
+ * 由 admin-identity 在用户/角色变更提交后通过 Redis 发布，供认证服务等清理本地缓存
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdentityChangeEvent {
+
+    /**
+     * 发布频道
+     */
+    public static final String CHANNEL = "identity:change";
+
+    /**
+     * 事件类型
+     */
+    public enum Type {
+        /**
+         * 用户资料、状态变更或删除
+         */
+        USER,
+        /**
+         * 角色本身变更（标识、状态、删除），影响所有持有该角色的用户
+         */
+        ROLE
+    }
+
+    private Type type;
+
+    private Long userId;
+
+    private String username;
+
+    private Long roleId;
+
+    private Long timestamp;
+
+    public static IdentityChangeEvent user(Long userId, String username) {
+        return new IdentityChangeEvent(Type.USER, userId, username, null, System.currentTimeMillis());
+    }
+
+    public static IdentityChangeEvent role(Long roleId) {
+        return new IdentityChangeEvent(Type.ROLE, null, null, roleId, System.currentTimeMillis());
+    }
+}
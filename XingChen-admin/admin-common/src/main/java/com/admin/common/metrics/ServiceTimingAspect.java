@@ -0,0 +1,146 @@
+package com.admin.common.metrics;
+
+import com.admin.common.context.UserContext;
+import com.admin.common.context.UserContextHolder;
+import com.admin.common.core.exception.ServiceException;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 业务服务方法自动计时
+ * 对 com.admin 下所有 @Service 类的 public 方法记录耗时（admin.service.duration），标签为
+ * class、method、outcome（success / business_error / error）与 tenant。
+ * <ul>
+ *     <li>切点只用 within/@within/execution，在代理创建时静态匹配，运行时不做额外判断</li>
+ *     <li>每个方法是否计时（按包关闭、已有 @Timed 的跳过）只在首次调用时解析并缓存</li>
+ *     <li>租户取值超过 max-tenants 后新租户归入 other；没有用户上下文时为 none</li>
+ * </ul>
+ * 与 Spring AOP 一致，同一类内部的自调用不经过代理，不会计时。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Aspect
+public class ServiceTimingAspect {
+
+    public static final String METRIC_NAME = "admin.service.duration";
+
+    static final String TENANT_NONE = "none";
+    static final String TENANT_OTHER = "other";
+
+    private final MeterRegistry meterRegistry;
+    private final ServiceTimingProperties properties;
+    private final Duration[] slo;
+
+    private final ConcurrentHashMap<Method, MethodTimers> methods = new ConcurrentHashMap<>();
+    private final Set<String> tenants = ConcurrentHashMap.newKeySet();
+    private final MethodTimers disabled = new MethodTimers(null, null, false);
+
+    public ServiceTimingAspect(MeterRegistry meterRegistry, ServiceTimingProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+        this.slo = properties.getSlo().toArray(new Duration[0]);
+    }
+
+    @Around("within(com.admin..*) && @within(org.springframework.stereotype.Service) && execution(public * *(..))")
+    public Object time(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        Class<?> targetClass = joinPoint.getTarget() != null
+                ? joinPoint.getTarget().getClass() : signature.getDeclaringType();
+        MethodTimers timers = methods.computeIfAbsent(signature.getMethod(), method -> resolve(targetClass, method));
+        if (!timers.enabled) {
+            return joinPoint.proceed();
+        }
+
+        long start = System.nanoTime();
+        String outcome = "success";
+        try {
+            return joinPoint.proceed();
+        } catch (ServiceException e) {
+            outcome = "business_error";
+            throw e;
+        } catch (Throwable t) {
+            outcome = "error";
+            throw t;
+        } finally {
+            timers.timer(outcome, tenant()).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private MethodTimers resolve(Class<?> targetClass, Method method) {
+        String className = targetClass.getName();
+        for (String prefix : properties.getDisabledPackages()) {
+            if (className.startsWith(prefix)) {
+                return disabled;
+            }
+        }
+        // 已显式标注 @Timed 的交给 TimedAspect，避免重复计时
+        if (AnnotatedElementUtils.hasAnnotation(method, Timed.class)
+                || AnnotatedElementUtils.hasAnnotation(targetClass, Timed.class)) {
+            return disabled;
+        }
+        return new MethodTimers(targetClass.getSimpleName(), method.getName(), true);
+    }
+
+    private String tenant() {
+        if (!properties.isTenantTag()) {
+            return TENANT_NONE;
+        }
+        UserContext context = UserContextHolder.get();
+        String tenantId = context != null ? context.tenantId() : null;
+        if (!StringUtils.hasText(tenantId)) {
+            return TENANT_NONE;
+        }
+        if (tenants.contains(tenantId)) {
+            return tenantId;
+        }
+        // 并发下可能略超上限，只用于限制基数，不要求精确
+        if (tenants.size() < properties.getMaxTenants()) {
+            tenants.add(tenantId);
+            return tenantId;
+        }
+        return TENANT_OTHER;
+    }
+
+    /**
+     * 单个方法的计时器，按 outcome + tenant 缓存，避免每次调用都走注册表查找
+     */
+    private final class MethodTimers {
+
+        private final boolean enabled;
+        private final String className;
+        private final String methodName;
+        private final ConcurrentHashMap<String, Timer> timers = new ConcurrentHashMap<>();
+
+        MethodTimers(String className, String methodName, boolean enabled) {
+            this.enabled = enabled;
+            this.className = className;
+            this.methodName = methodName;
+        }
+
+        Timer timer(String outcome, String tenant) {
+            return timers.computeIfAbsent(outcome + '|' + tenant, key -> Timer.builder(METRIC_NAME)
+                    .description("业务服务方法耗时")
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .tag("outcome", outcome)
+                    .tag("tenant", tenant)
+                    .publishPercentileHistogram(properties.isPercentileHistogram())
+                    .serviceLevelObjectives(slo)
+                    .register(meterRegistry));
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.admin.common.metrics;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 业务服务方法计时配置（admin.metrics.service-timing）
+ * <pre>
+ * admin:
+ *   metrics:
+ *     service-timing:
+ *       disabled-packages:
+ *         - com.admin.system.service
+ *       slo: 50ms,100ms,250ms,500ms,1s
+ *       max-tenants: 50
+ * </pre>
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Data
+@ConfigurationProperties(prefix = "admin.metrics.service-timing")
+public class ServiceTimingProperties {
+
+    /**
+     * 总开关
+     */
+    private boolean enabled = true;
+
+    /**
+     * 不计时的包（前缀匹配类全名），用于按包关闭
+     */
+    private List<String> disabledPackages = new ArrayList<>();
+
+    /**
+     * 是否发布直方图桶，供 Prometheus 聚合计算分位数
+     */
+    private boolean percentileHistogram = true;
+
+    /**
+     * SLO 桶边界
+     */
+    private List<Duration> slo = new ArrayList<>(List.of(
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250),
+            Duration.ofMillis(500), Duration.ofSeconds(1)));
+
+    /**
+     * 是否携带租户标签
+     */
+    private boolean tenantTag = true;
+
+    /**
+     * 租户标签最多取值数，超出的租户归入 other，防止指标基数膨胀
+     */
+    private int maxTenants = 50;
+}
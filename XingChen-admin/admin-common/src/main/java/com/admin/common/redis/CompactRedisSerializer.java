@@ -0,0 +1,181 @@
+package com.admin.common.redis;
+
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.JSONReader;
+import com.alibaba.fastjson2.JSONWriter;
+import com.alibaba.fastjson2.SymbolTable;
+import com.alibaba.fastjson2.filter.Filter;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * 紧凑 Redis 值序列化器（fastjson2 JSONB + zstd）
+ * <p>
+ * 存储格式：{@code [0xC1][flags][payload]}，flags 为 0 表示 JSONB 原文，为 1 表示 zstd 压缩后的 JSONB。
+ * <ul>
+ *     <li>类型名写入 JSONB，常用类型登记在符号表中，只占一个整数编号，不再像 Jackson 那样每个对象带完整的 "@class"</li>
+ *     <li>反序列化只接受白名单前缀内的类型，不开启全局 autoType</li>
+ *     <li>序列化结果达到 compressThreshold 字节时使用 zstd 压缩，压缩后不更小则保留原文</li>
+ *     <li>不以 0xC1 开头的值按 Jackson JSON 读取，兼容切换前写入的数据</li>
+ * </ul>
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class CompactRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xC1;
+    static final byte FLAG_PLAIN = 0;
+    static final byte FLAG_ZSTD = 1;
+
+    private static final int HEADER_LENGTH = 2;
+
+    /**
+     * 解压后的上限，防止异常数据撑爆内存
+     */
+    private static final long MAX_DECOMPRESSED_SIZE = 16L * 1024 * 1024;
+
+    /**
+     * getFrameContentSize 的返回值：帧头未声明原始长度（ZSTD_CONTENTSIZE_UNKNOWN）
+     */
+    private static final long CONTENT_SIZE_UNKNOWN = -1L;
+
+    /**
+     * 登记的类型表，编号由顺序决定：只能在末尾追加，不能删除或调整顺序，否则已写入的数据无法读取
+     */
+    private static final SymbolTable SYMBOL_TABLE = JSONB.symbolTable(
+            "java.util.HashMap",
+            "java.util.LinkedHashMap",
+            "java.util.ArrayList",
+            "java.util.HashSet",
+            "java.util.LinkedHashSet",
+            "java.util.Collections$SingletonList",
+            "java.util.Collections$EmptyList",
+            "java.time.LocalDateTime",
+            "java.time.LocalDate",
+            "com.alibaba.fastjson2.JSONObject",
+            "com.alibaba.fastjson2.JSONArray"
+    );
+
+    private static final JSONWriter.Feature[] WRITE_FEATURES = {
+            JSONWriter.Feature.WriteClassName,
+            JSONWriter.Feature.FieldBased,
+            JSONWriter.Feature.ReferenceDetection,
+            JSONWriter.Feature.WriteNulls
+    };
+
+    private static final JSONReader.Feature[] READ_FEATURES = {
+            JSONReader.Feature.FieldBased,
+            JSONReader.Feature.UseDefaultConstructorAsPossible,
+            JSONReader.Feature.UseNativeObject
+    };
+
+    private final Filter[] readFilters;
+    private final int compressThreshold;
+    private final int compressLevel;
+    private final RedisSerializer<Object> legacySerializer = new GenericJackson2JsonRedisSerializer();
+
+    /**
+     * @param acceptTypePrefixes 允许反序列化的类型前缀，如 "com.admin."
+     * @param compressThreshold  压缩阈值（字节），小于等于0表示不压缩
+     * @param compressLevel      zstd 压缩级别
+     */
+    public CompactRedisSerializer(String[] acceptTypePrefixes, int compressThreshold, int compressLevel) {
+        this.readFilters = new Filter[]{JSONReader.autoTypeFilter(true, acceptTypePrefixes)};
+        this.compressThreshold = compressThreshold;
+        this.compressLevel = compressLevel;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        byte[] payload;
+        try {
+            payload = JSONB.toBytes(value, SYMBOL_TABLE, WRITE_FEATURES);
+        } catch (Exception e) {
+            throw new SerializationException("JSONB 序列化失败: " + e.getMessage(), e);
+        }
+
+        byte flag = FLAG_PLAIN;
+        if (compressThreshold > 0 && payload.length >= compressThreshold) {
+            byte[] compressed = Zstd.compress(payload, compressLevel);
+            if (compressed.length < payload.length) {
+                payload = compressed;
+                flag = FLAG_ZSTD;
+            }
+        }
+
+        byte[] bytes = new byte[HEADER_LENGTH + payload.length];
+        bytes[0] = MAGIC;
+        bytes[1] = flag;
+        System.arraycopy(payload, 0, bytes, HEADER_LENGTH, payload.length);
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC) {
+            return legacySerializer.deserialize(bytes);
+        }
+        if (bytes.length < HEADER_LENGTH) {
+            throw new SerializationException("Redis 值格式错误");
+        }
+
+        byte[] payload = Arrays.copyOfRange(bytes, HEADER_LENGTH, bytes.length);
+        if (bytes[1] == FLAG_ZSTD) {
+            payload = decompress(payload);
+        } else if (bytes[1] != FLAG_PLAIN) {
+            throw new SerializationException("未知的 Redis 值格式: " + bytes[1]);
+        }
+        try {
+            return JSONB.parseObject(payload, Object.class, SYMBOL_TABLE, readFilters, READ_FEATURES);
+        } catch (Exception e) {
+            throw new SerializationException("JSONB 反序列化失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 解压 zstd 帧：帧头声明了原始长度时一次解压；未声明长度（其他写入方的流式帧）时按上限流式读取；长度异常或帧头损坏时拒绝
+     */
+    private static byte[] decompress(byte[] compressed) {
+        long size = Zstd.getFrameContentSize(compressed);
+        if (size == CONTENT_SIZE_UNKNOWN) {
+            return decompressStream(compressed);
+        }
+        if (size < 0) {
+            throw new SerializationException("zstd 帧头无效");
+        }
+        if (size > MAX_DECOMPRESSED_SIZE) {
+            throw new SerializationException("zstd 数据长度异常: " + size);
+        }
+        try {
+            return Zstd.decompress(compressed, (int) size);
+        } catch (RuntimeException e) {
+            throw new SerializationException("zstd 解压失败: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] decompressStream(byte[] compressed) {
+        try (ZstdInputStream in = new ZstdInputStream(new ByteArrayInputStream(compressed))) {
+            byte[] bytes = in.readNBytes((int) MAX_DECOMPRESSED_SIZE + 1);
+            if (bytes.length > MAX_DECOMPRESSED_SIZE) {
+                throw new SerializationException("zstd 数据长度超过上限");
+            }
+            return bytes;
+        } catch (IOException e) {
+            throw new SerializationException("zstd 解压失败: " + e.getMessage(), e);
+        }
+    }
+}
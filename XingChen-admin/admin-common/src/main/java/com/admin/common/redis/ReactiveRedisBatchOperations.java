@@ -0,0 +1,70 @@
+package com.admin.common.redis;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Redis 批量操作（响应式版，供网关等 WebFlux 服务使用）
+ * <ul>
+ *     <li>multiGet：按块 MGET，块之间顺序执行</li>
+ *     <li>multiSet / execute：块内命令并发发出，Lettuce 在共享连接上将其合并写出，效果等同流水线；
+ *     块之间顺序执行，限制同时在途的命令数</li>
+ * </ul>
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Component
+public class ReactiveRedisBatchOperations {
+
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+    private final int chunkSize;
+
+    public ReactiveRedisBatchOperations(ReactiveStringRedisTemplate reactiveStringRedisTemplate,
+                                        @Value("${admin.redis.batch.chunk-size:500}") int chunkSize) {
+        this.reactiveStringRedisTemplate = reactiveStringRedisTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * 批量读取字符串值，缺失的键不出现在结果中
+     */
+    public Mono<Map<String, String>> multiGet(Collection<String> keys) {
+        return Flux.fromIterable(keys)
+                .buffer(chunkSize)
+                .concatMap(chunk -> reactiveStringRedisTemplate.opsForValue().multiGet(chunk)
+                        .flatMapMany(values -> Flux.range(0, chunk.size())
+                                .filter(i -> values.get(i) != null)
+                                .map(i -> Map.entry(chunk.get(i), values.get(i)))))
+                .collect(LinkedHashMap::new, (map, entry) -> map.put(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * 批量写入字符串值并设置过期时间
+     */
+    public Mono<Void> multiSet(Map<String, String> entries, Duration ttl) {
+        return execute(List.copyOf(entries.entrySet()),
+                entry -> reactiveStringRedisTemplate.opsForValue().set(entry.getKey(), entry.getValue(), ttl))
+                .then();
+    }
+
+    /**
+     * 按块执行任意命令，结果顺序与输入一致
+     */
+    public <I, R> Flux<R> execute(List<I> items, Function<I, Publisher<R>> command) {
+        return Flux.fromIterable(items)
+                .buffer(chunkSize)
+                .concatMap(chunk -> Flux.fromIterable(chunk).flatMapSequential(command, chunkSize));
+    }
+}
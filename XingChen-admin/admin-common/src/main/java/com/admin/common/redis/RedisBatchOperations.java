@@ -0,0 +1,153 @@
+package com.admin.common.redis;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * Redis 批量操作（阻塞版）
+ * 将 N 次单键往返合并为 ceil(N / chunk-size) 次：
+ * <ul>
+ *     <li>multiGet：MGET，按类型过滤结果，缺失或类型不符的键不出现在结果中</li>
+ *     <li>multiSet：带 TTL 的批量写入（MSET 不支持过期时间，按块流水线发送 SET EX）</li>
+ *     <li>pipelined：对任意命令按块流水线执行，结果与输入一一对应</li>
+ * </ul>
+ * 分块避免单条命令或单次流水线过大阻塞 Redis 和连接；块之间串行执行。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+@Component
+public class RedisBatchOperations {
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final int chunkSize;
+
+    public RedisBatchOperations(RedisTemplate<String, Object> redisTemplate,
+                                StringRedisTemplate stringRedisTemplate,
+                                @Value("${admin.redis.batch.chunk-size:500}") int chunkSize) {
+        this.redisTemplate = redisTemplate;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * 批量读取对象值（RedisTemplate 值序列化）
+     *
+     * @return 键 → 值，保持输入顺序
+     */
+    public <T> Map<String, T> multiGet(Collection<String> keys, Class<T> type) {
+        Map<String, T> result = new LinkedHashMap<>();
+        for (List<String> chunk : chunks(keys)) {
+            List<Object> values = redisTemplate.opsForValue().multiGet(chunk);
+            collect(chunk, values, type, result);
+        }
+        return result;
+    }
+
+    /**
+     * 批量读取字符串值
+     *
+     * @return 键 → 值，保持输入顺序
+     */
+    public Map<String, String> multiGet(Collection<String> keys) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (List<String> chunk : chunks(keys)) {
+            List<String> values = stringRedisTemplate.opsForValue().multiGet(chunk);
+            collect(chunk, values, String.class, result);
+        }
+        return result;
+    }
+
+    /**
+     * 批量写入对象值并设置过期时间
+     */
+    public void multiSet(Map<String, ?> entries, Duration ttl) {
+        for (List<? extends Map.Entry<String, ?>> chunk : chunks(entries.entrySet())) {
+            redisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    for (Map.Entry<String, ?> entry : chunk) {
+                        operations.opsForValue().set(entry.getKey(), entry.getValue(), ttl);
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * 批量写入字符串值并设置过期时间
+     */
+    public void multiSetStrings(Map<String, String> entries, Duration ttl) {
+        pipelined(new ArrayList<>(entries.entrySet()),
+                (operations, entry) -> operations.opsForValue().set(entry.getKey(), entry.getValue(), ttl));
+    }
+
+    /**
+     * 按块流水线执行字符串命令
+     *
+     * @param items   输入
+     * @param command 对每个输入发出一条或多条命令（流水线内命令的返回值为 null，结果从返回列表获取）
+     * @return 全部命令的结果，顺序与发出顺序一致
+     */
+    public <I> List<Object> pipelined(List<I> items, BiConsumer<RedisOperations<String, String>, I> command) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Object> results = new ArrayList<>(items.size());
+        for (List<I> chunk : chunks(items)) {
+            results.addAll(stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    for (I item : chunk) {
+                        command.accept(operations, item);
+                    }
+                    return null;
+                }
+            }));
+        }
+        return results;
+    }
+
+    private <T> List<List<T>> chunks(Collection<T> items) {
+        List<T> list = items instanceof List<T> l ? l : new ArrayList<>(items);
+        List<List<T>> chunks = new ArrayList<>((list.size() + chunkSize - 1) / chunkSize);
+        for (int from = 0; from < list.size(); from += chunkSize) {
+            chunks.add(list.subList(from, Math.min(from + chunkSize, list.size())));
+        }
+        return chunks;
+    }
+
+    private static <V, T> void collect(List<String> keys, List<V> values, Class<T> type, Map<String, T> result) {
+        if (values == null) {
+            return;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            V value = values.get(i);
+            if (type.isInstance(value)) {
+                result.put(keys.get(i), type.cast(value));
+            } else if (value != null) {
+                log.debug("批量读取类型不符，已忽略: key={}, type={}", keys.get(i), value.getClass().getName());
+            }
+        }
+    }
+}
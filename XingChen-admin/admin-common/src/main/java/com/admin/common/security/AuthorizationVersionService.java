@@ -0,0 +1,106 @@
+package com.admin.common.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.RedisOperations;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 授权版本服务
+ * 访问令牌在签发时写入当前授权版本（ver 声明），令牌中的角色等授权信息以该版本为准：
+ * <ul>
+ *     <li>用户版本 auth:authz-ver:&lt;userId&gt;：用户状态、类型、租户、角色分配变更，或所持角色本身变更时递增</li>
+ *     <li>全局版本 auth:authz-ver:global：仅用于运维上使全部令牌失效</li>
+ * </ul>
+ * 当前版本 = 用户版本 + 全局版本，两者只增不减，因此任一变更都会使此前签发的令牌版本落后。
+ * 校验在 {@link TokenRevocationService} 中与吊销记录同一次 MGET 完成。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuthorizationVersionService {
+
+    public static final String USER_VERSION_PREFIX = "auth:authz-ver:";
+    public static final String GLOBAL_VERSION_KEY = "auth:authz-ver:global";
+
+    private static final int BUMP_CHUNK_SIZE = 500;
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /**
+     * 用户当前授权版本，读取失败返回0
+     */
+    public long currentVersion(Long userId) {
+        try {
+            List<String> values = stringRedisTemplate.opsForValue()
+                    .multiGet(Arrays.asList(USER_VERSION_PREFIX + userId, GLOBAL_VERSION_KEY));
+            return values == null ? 0L : sum(values);
+        } catch (Exception e) {
+            log.warn("读取授权版本失败: userId={}, {}", userId, e.getMessage());
+            return 0L;
+        }
+    }
+
+    /**
+     * 用户授权信息变更
+     */
+    public void bumpUser(Long userId) {
+        if (userId != null) {
+            stringRedisTemplate.opsForValue().increment(USER_VERSION_PREFIX + userId);
+        }
+    }
+
+    /**
+     * 一批用户的授权版本同时前进（角色变更影响其全部持有者），按块流水线执行
+     */
+    public void bumpUsers(Collection<Long> userIds) {
+        if (userIds == null || userIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(userIds);
+        for (int from = 0; from < ids.size(); from += BUMP_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + BUMP_CHUNK_SIZE, ids.size()));
+            stringRedisTemplate.executePipelined(new SessionCallback<Object>() {
+                @Override
+                @SuppressWarnings("unchecked")
+                public Object execute(RedisOperations operations) throws DataAccessException {
+                    for (Long userId : chunk) {
+                        operations.opsForValue().increment(USER_VERSION_PREFIX + userId);
+                    }
+                    return null;
+                }
+            });
+        }
+    }
+
+    /**
+     * 所有用户的授权版本同时前进，使此前签发的全部访问令牌失效（运维操作）
+     */
+    public void bumpAll() {
+        stringRedisTemplate.opsForValue().increment(GLOBAL_VERSION_KEY);
+    }
+
+    /**
+     * 累加版本值，缺失的键按0计
+     */
+    static long sum(List<String> values) {
+        long version = 0L;
+        for (String value : values) {
+            if (value != null) {
+                version += Long.parseLong(value);
+            }
+        }
+        return version;
+    }
+}
@@ -0,0 +1,121 @@
+package com.admin.common.util;
+
+import cn.hutool.core.lang.hash.MurmurHash;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的字符串布隆过滤器
+ * MurmurHash3 128 位哈希 + 双重哈希生成 k 个位下标；位数组基于 AtomicLongArray，支持并发写入与读取。
+ * 不支持删除，“不存在”为确定结论，“可能存在”需回源确认。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitSize;
+    private final int numHashFunctions;
+    private final long expectedInsertions;
+    private final AtomicLong bitCount = new AtomicLong();
+    private final AtomicLong insertions = new AtomicLong();
+
+    private BloomFilter(long numBits, int numHashFunctions, long expectedInsertions) {
+        int words = (int) Math.ceil(numBits / 64.0);
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words * 64;
+        this.numHashFunctions = numHashFunctions;
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    /**
+     * 按预期元素数与目标误判率创建
+     *
+     * @param expectedInsertions 预期元素数
+     * @param fpp                目标误判率，(0, 1)
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive");
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("fpp must be in (0, 1)");
+        }
+        long numBits = (long) (-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int numHashFunctions = Math.max(1, (int) Math.round((double) numBits / expectedInsertions * Math.log(2)));
+        return new BloomFilter(Math.max(numBits, 64), numHashFunctions, expectedInsertions);
+    }
+
+    /**
+     * 加入元素
+     *
+     * @return 是否改变了位数组（false 表示元素可能已存在）
+     */
+    public boolean put(String value) {
+        long[] hash = MurmurHash.hash128(value.getBytes(StandardCharsets.UTF_8));
+        long combined = hash[0];
+        boolean changed = false;
+        for (int i = 0; i < numHashFunctions; i++) {
+            changed |= setBit((combined & Long.MAX_VALUE) % bitSize);
+            combined += hash[1];
+        }
+        if (changed) {
+            insertions.incrementAndGet();
+        }
+        return changed;
+    }
+
+    /**
+     * 判断元素是否可能存在，false 为确定不存在
+     */
+    public boolean mightContain(String value) {
+        long[] hash = MurmurHash.hash128(value.getBytes(StandardCharsets.UTF_8));
+        long combined = hash[0];
+        for (int i = 0; i < numHashFunctions; i++) {
+            long index = (combined & Long.MAX_VALUE) % bitSize;
+            if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+            combined += hash[1];
+        }
+        return true;
+    }
+
+    /**
+     * 按当前置位比例估算的误判率：(置位数 / 总位数)^k
+     */
+    public double expectedFpp() {
+        return Math.pow((double) bitCount.get() / bitSize, numHashFunctions);
+    }
+
+    /**
+     * 已加入的元素数（近似，重复或碰撞的元素不计）
+     */
+    public long approximateElementCount() {
+        return insertions.get();
+    }
+
+    /**
+     * 是否已超出创建时的预期容量，超出后误判率将高于目标值
+     */
+    public boolean isSaturated() {
+        return insertions.get() > expectedInsertions;
+    }
+
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+        bitCount.incrementAndGet();
+        return true;
+    }
+}
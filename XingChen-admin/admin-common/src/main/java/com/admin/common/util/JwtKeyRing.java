@@ -0,0 +1,296 @@
+package com.admin.common.util;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.Locator;
+import io.jsonwebtoken.LocatorAdapter;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * JWT 签名密钥环
+ * 按算法维护签名/验签密钥，签发时在头部写入 kid，验签时按 kid（缺省时按 alg）定位密钥。
+ * 非对称密钥的 kid 由算法与公钥指纹派生，签发方与网关只需配置同一份公钥即可互认。
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+public class JwtKeyRing {
+
+    /**
+     * 支持的签名算法
+     */
+    public enum Algorithm {
+        HS256("HS256", Jwts.SIG.HS256, null),
+        RS256("RS256", Jwts.SIG.RS256, "RSA"),
+        ES256("ES256", Jwts.SIG.ES256, "EC"),
+        EdDSA("EdDSA", Jwts.SIG.EdDSA, "Ed25519");
+
+        private final String jwsName;
+        private final SecureDigestAlgorithm<?, ?> signatureAlgorithm;
+        private final String keyFactoryAlgorithm;
+
+        Algorithm(String jwsName, SecureDigestAlgorithm<?, ?> signatureAlgorithm, String keyFactoryAlgorithm) {
+            this.jwsName = jwsName;
+            this.signatureAlgorithm = signatureAlgorithm;
+            this.keyFactoryAlgorithm = keyFactoryAlgorithm;
+        }
+
+        public String getJwsName() {
+            return jwsName;
+        }
+
+        public SecureDigestAlgorithm<?, ?> getSignatureAlgorithm() {
+            return signatureAlgorithm;
+        }
+
+        public boolean isSymmetric() {
+            return keyFactoryAlgorithm == null;
+        }
+
+        /**
+         * 解析配置中的算法名，兼容 Ed25519 写法
+         */
+        public static Algorithm of(String name) {
+            if (!StringUtils.hasText(name)) {
+                return HS256;
+            }
+            String value = name.trim();
+            if ("Ed25519".equalsIgnoreCase(value)) {
+                return EdDSA;
+            }
+            for (Algorithm algorithm : values()) {
+                if (algorithm.jwsName.equalsIgnoreCase(value)) {
+                    return algorithm;
+                }
+            }
+            throw new IllegalArgumentException("不支持的JWT签名算法: " + name);
+        }
+    }
+
+    /**
+     * 单个密钥条目，signingKey 为空表示仅可验签
+     */
+    public static final class KeyEntry {
+
+        private final String keyId;
+        private final Algorithm algorithm;
+        private final Key signingKey;
+        private final Key verificationKey;
+
+        KeyEntry(String keyId, Algorithm algorithm, Key signingKey, Key verificationKey) {
+            this.keyId = keyId;
+            this.algorithm = algorithm;
+            this.signingKey = signingKey;
+            this.verificationKey = verificationKey;
+        }
+
+        public String getKeyId() {
+            return keyId;
+        }
+
+        public Algorithm getAlgorithm() {
+            return algorithm;
+        }
+
+        public Key getSigningKey() {
+            return signingKey;
+        }
+
+        public Key getVerificationKey() {
+            return verificationKey;
+        }
+
+        public boolean canSign() {
+            return signingKey != null;
+        }
+    }
+
+    private final Map<String, KeyEntry> keysById;
+    private final Map<Algorithm, KeyEntry> keysByAlgorithm;
+    private final Locator<Key> locator;
+
+    private JwtKeyRing(Map<Algorithm, KeyEntry> keysByAlgorithm) {
+        this.keysByAlgorithm = Collections.unmodifiableMap(new EnumMap<>(keysByAlgorithm));
+        Map<String, KeyEntry> byId = new HashMap<>();
+        keysByAlgorithm.values().forEach(entry -> byId.put(entry.getKeyId(), entry));
+        this.keysById = Collections.unmodifiableMap(byId);
+        this.locator = new KeyRingLocator();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * 获取指定算法的签名密钥
+     */
+    public KeyEntry signingEntry(Algorithm algorithm) {
+        KeyEntry entry = keysByAlgorithm.get(algorithm);
+        if (entry == null || !entry.canSign()) {
+            throw new IllegalStateException("未配置 " + algorithm.getJwsName() + " 签名私钥");
+        }
+        return entry;
+    }
+
+    /**
+     * 获取指定算法的密钥条目（可能仅含公钥）
+     */
+    public KeyEntry entry(Algorithm algorithm) {
+        return keysByAlgorithm.get(algorithm);
+    }
+
+    public Collection<KeyEntry> entries() {
+        return keysByAlgorithm.values();
+    }
+
+    /**
+     * 供 JwtParser 使用的密钥定位器
+     */
+    public Locator<Key> locator() {
+        return locator;
+    }
+
+    /**
+     * 按 kid 定位，kid 缺失或未知时按 alg 回退（兼容未携带 kid 的历史令牌）。
+     * 命中的密钥算法必须与头部 alg 一致，防止算法混淆攻击。
+     */
+    private class KeyRingLocator extends LocatorAdapter<Key> {
+
+        @Override
+        protected Key locate(JwsHeader header) {
+            String alg = header.getAlgorithm();
+            KeyEntry entry = header.getKeyId() != null ? keysById.get(header.getKeyId()) : null;
+            if (entry == null && alg != null) {
+                try {
+                    entry = keysByAlgorithm.get(Algorithm.of(alg));
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+            if (entry == null || !entry.getAlgorithm().getJwsName().equals(alg)) {
+                return null;
+            }
+            return entry.getVerificationKey();
+        }
+    }
+
+    /**
+     * 密钥环构建器
+     */
+    public static final class Builder {
+
+        private final Map<Algorithm, KeyEntry> entries = new EnumMap<>(Algorithm.class);
+
+        /**
+         * HMAC 密钥
+         */
+        public Builder hmac(String secret) {
+            if (StringUtils.hasText(secret)) {
+                Key key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+                entries.put(Algorithm.HS256, new KeyEntry("hs256", Algorithm.HS256, key, key));
+            }
+            return this;
+        }
+
+        /**
+         * Base64 编码的非对称密钥（私钥 PKCS#8，公钥 X.509），私钥为空时仅用于验签
+         */
+        public Builder asymmetric(Algorithm algorithm, String base64PrivateKey, String base64PublicKey) {
+            if (!StringUtils.hasText(base64PublicKey)) {
+                return this;
+            }
+            try {
+                KeyFactory keyFactory = KeyFactory.getInstance(algorithm.keyFactoryAlgorithm);
+                PublicKey publicKey = keyFactory.generatePublic(
+                        new X509EncodedKeySpec(Base64.getDecoder().decode(base64PublicKey.trim())));
+                PrivateKey privateKey = null;
+                if (StringUtils.hasText(base64PrivateKey)) {
+                    privateKey = keyFactory.generatePrivate(
+                            new PKCS8EncodedKeySpec(Base64.getDecoder().decode(base64PrivateKey.trim())));
+                }
+                return keyPair(algorithm, privateKey, publicKey);
+            } catch (Exception e) {
+                throw new IllegalStateException("解析 " + algorithm.getJwsName() + " 密钥失败", e);
+            }
+        }
+
+        /**
+         * 直接注册密钥对
+         */
+        public Builder keyPair(Algorithm algorithm, PrivateKey privateKey, PublicKey publicKey) {
+            if (algorithm.isSymmetric()) {
+                throw new IllegalArgumentException("对称算法请使用 hmac()");
+            }
+            entries.put(algorithm, new KeyEntry(keyIdOf(algorithm, publicKey), algorithm, privateKey, publicKey));
+            return this;
+        }
+
+        /**
+         * 若指定算法尚未配置任何密钥，则生成临时密钥对（仅本进程可验签，适用于单机/开发环境）。
+         * 只配置了公钥的节点（如网关）视为验签节点，不生成私钥。
+         *
+         * @return 是否生成了临时密钥
+         */
+        public boolean ensureSigningKey(Algorithm algorithm) {
+            if (entries.containsKey(algorithm)) {
+                return false;
+            }
+            if (algorithm.isSymmetric()) {
+                throw new IllegalStateException("未配置 HS256 密钥: jwt.secret");
+            }
+            KeyPair keyPair = generateKeyPair(algorithm);
+            keyPair(algorithm, keyPair.getPrivate(), keyPair.getPublic());
+            return true;
+        }
+
+        public JwtKeyRing build() {
+            return new JwtKeyRing(entries);
+        }
+
+        private static KeyPair generateKeyPair(Algorithm algorithm) {
+            switch (algorithm) {
+                case RS256:
+                    return Jwts.SIG.RS256.keyPair().build();
+                case ES256:
+                    return Jwts.SIG.ES256.keyPair().build();
+                case EdDSA:
+                    try {
+                        return KeyPairGenerator.getInstance("Ed25519").generateKeyPair();
+                    } catch (Exception e) {
+                        throw new IllegalStateException("当前JDK不支持 Ed25519", e);
+                    }
+                default:
+                    throw new IllegalArgumentException("无法为 " + algorithm.getJwsName() + " 生成密钥对");
+            }
+        }
+
+        private static String keyIdOf(Algorithm algorithm, PublicKey publicKey) {
+            try {
+                byte[] digest = MessageDigest.getInstance("SHA-256").digest(publicKey.getEncoded());
+                return algorithm.getJwsName().toLowerCase() + "-" + HexFormat.of().formatHex(digest, 0, 8);
+            } catch (Exception e) {
+                throw new IllegalStateException("计算密钥指纹失败", e);
+            }
+        }
+    }
+}
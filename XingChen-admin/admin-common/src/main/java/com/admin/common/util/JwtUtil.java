@@ -1,26 +1,91 @@
 package com.admin.common.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecureDigestAlgorithm;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
+import java.nio.ByteBuffer;
+import java.security.Key;
+import java.util.Base64;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * JWT工具类 - 公共模块
+ * 签名算法可按令牌类型配置（HS256/RS256/ES256/EdDSA），验签按令牌头部的 kid/alg 自动选择密钥
  */
 @Component
 public class JwtUtil {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtUtil.class);
 
+    /**
+     * 令牌类型
+     */
+    public enum TokenType {
+        ACCESS("access"),
+        REFRESH("refresh");
+
+        private final String value;
+
+        TokenType(String value) {
+            this.value = value;
+        }
+
+        public String getValue() {
+            return value;
+        }
+    }
+
+    /**
+     * 访问令牌中的授权声明，网关据此向下游转发租户、用户类型与角色
+     */
+    public static final String CLAIM_TENANT_ID = "tenantId";
+    public static final String CLAIM_USER_TYPE = "userType";
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_AUTHZ_VERSION = "ver";
+
+    /**
+     * 毫秒级签发时间：标准 iat 只精确到秒，吊销纪元按毫秒比较时使用
+     */
+    public static final String CLAIM_ISSUED_AT_MS = "iat_ms";
+
     private static String secretKey;
     private static Long expiration;
+    private static Long refreshExpiration;
+    private static String accessAlgorithm;
+    private static String refreshAlgorithm;
+
+    private static volatile JwtKeyRing keyRing;
+    private static volatile JwtParser parser;
+    private static JwtKeyRing.Algorithm accessSigningAlgorithm = JwtKeyRing.Algorithm.HS256;
+    private static JwtKeyRing.Algorithm refreshSigningAlgorithm = JwtKeyRing.Algorithm.HS256;
+
+    @Value("${jwt.keys.rs256.private-key:}")
+    private String rs256PrivateKey;
+
+    @Value("${jwt.keys.rs256.public-key:}")
+    private String rs256PublicKey;
+
+    @Value("${jwt.keys.es256.private-key:}")
+    private String es256PrivateKey;
+
+    @Value("${jwt.keys.es256.public-key:}")
+    private String es256PublicKey;
+
+    @Value("${jwt.keys.eddsa.private-key:}")
+    private String eddsaPrivateKey;
+
+    @Value("${jwt.keys.eddsa.public-key:}")
+    private String eddsaPublicKey;
 
     @Value("${jwt.secret:mySecretKey123456789012345678901234567890}")
     public void setSecretKey(String secretKey) {
@@ -32,86 +97,159 @@ public class JwtUtil {
         JwtUtil.expiration = expiration;
     }
 
+    @Value("${jwt.refresh-expiration:604800}")
+    public void setRefreshExpiration(Long refreshExpiration) {
+        JwtUtil.refreshExpiration = refreshExpiration;
+    }
+
+    @Value("${jwt.algorithm.access:HS256}")
+    public void setAccessAlgorithm(String accessAlgorithm) {
+        JwtUtil.accessAlgorithm = accessAlgorithm;
+    }
+
+    @Value("${jwt.algorithm.refresh:HS256}")
+    public void setRefreshAlgorithm(String refreshAlgorithm) {
+        JwtUtil.refreshAlgorithm = refreshAlgorithm;
+    }
+
+    /**
+     * 初始化密钥环
+     * 仅配置公钥的算法只用于验签；被选为签名算法却未配置私钥时生成临时密钥（重启或多实例间不可互验）
+     */
+    @PostConstruct
+    public void initKeyRing() {
+        JwtKeyRing.Algorithm access = JwtKeyRing.Algorithm.of(accessAlgorithm);
+        JwtKeyRing.Algorithm refresh = JwtKeyRing.Algorithm.of(refreshAlgorithm);
+
+        JwtKeyRing.Builder builder = JwtKeyRing.builder()
+                .hmac(secretKey)
+                .asymmetric(JwtKeyRing.Algorithm.RS256, rs256PrivateKey, rs256PublicKey)
+                .asymmetric(JwtKeyRing.Algorithm.ES256, es256PrivateKey, es256PublicKey)
+                .asymmetric(JwtKeyRing.Algorithm.EdDSA, eddsaPrivateKey, eddsaPublicKey);
+        for (JwtKeyRing.Algorithm algorithm : new JwtKeyRing.Algorithm[]{access, refresh}) {
+            if (builder.ensureSigningKey(algorithm)) {
+                logger.warn("未配置 {} 签名私钥，已生成临时密钥，仅适用于单实例/开发环境", algorithm.getJwsName());
+            }
+        }
+
+        configure(builder.build(), access, refresh);
+        logger.info("JWT签名算法: access={}, refresh={}", access.getJwsName(), refresh.getJwsName());
+    }
+
     /**
-     * 获取密钥
+     * 替换密钥环与签名算法
      */
-    private static SecretKey getSignKey() {
-        return Keys.hmacShaKeyFor(secretKey.getBytes());
+    static void configure(JwtKeyRing ring, JwtKeyRing.Algorithm access, JwtKeyRing.Algorithm refresh) {
+        keyRing = ring;
+        accessSigningAlgorithm = access;
+        refreshSigningAlgorithm = refresh;
+        parser = Jwts.parser().keyLocator(ring.locator()).build();
     }
 
     /**
-     * 生成token
+     * 获取当前密钥环，供授权服务器发布 JWK 等场景复用同一套密钥
+     */
+    public static JwtKeyRing getKeyRing() {
+        return keyRing;
+    }
+
+    /**
+     * 生成token（访问令牌）
      */
     public static String generateToken(String userId, String username) {
+        return generateToken(userId, username, TokenType.ACCESS);
+    }
+
+    /**
+     * 按令牌类型生成token，签名算法取自 jwt.algorithm.access / jwt.algorithm.refresh
+     */
+    public static String generateToken(String userId, String username, TokenType tokenType) {
+        return generateToken(userId, username, tokenType, null);
+    }
+
+    /**
+     * 按令牌类型生成token，并写入附加声明（如租户、角色、授权版本）
+     */
+    @SuppressWarnings("unchecked")
+    public static String generateToken(String userId, String username, TokenType tokenType,
+                                       Map<String, ?> extraClaims) {
+        JwtKeyRing.Algorithm algorithm = tokenType == TokenType.REFRESH ? refreshSigningAlgorithm : accessSigningAlgorithm;
+        long ttl = tokenType == TokenType.REFRESH ? refreshExpiration : expiration;
+        JwtKeyRing.KeyEntry entry = keyRing.signingEntry(algorithm);
+
         Date now = new Date();
-        Date expiryDate = new Date(now.getTime() + expiration * 1000);
+        Date expiryDate = new Date(now.getTime() + ttl * 1000);
 
         return Jwts.builder()
+                .header().keyId(entry.getKeyId()).and()
+                .id(newTokenId())
                 .subject(username)
                 .claim("userId", userId)
+                .claim("tokenType", tokenType.getValue())
+                .claims(extraClaims != null ? extraClaims : Collections.emptyMap())
+                .claim(CLAIM_ISSUED_AT_MS, now.getTime())
                 .issuedAt(now)
                 .expiration(expiryDate)
-                .signWith(getSignKey())
+                .signWith(entry.getSigningKey(), (SecureDigestAlgorithm<Key, ?>) algorithm.getSignatureAlgorithm())
                 .compact();
     }
 
     /**
-     * 验证token
+     * 生成令牌ID（jti）：128 位随机数的 Base64URL 编码，22 个字符，作为吊销记录的键
      */
-    public static boolean validateToken(String token) {
+    private static String newTokenId() {
+        UUID uuid = UUID.randomUUID();
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putLong(uuid.getMostSignificantBits());
+        buffer.putLong(uuid.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * 解析并验签token，失败返回null
+     */
+    public static Claims parseToken(String token) {
         try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSignKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            
-            return !claims.getExpiration().before(new Date());
+            return parser.parseSignedClaims(token).getPayload();
         } catch (Exception e) {
-            logger.error("Token验证失败: {}", e.getMessage());
-            return false;
+            logger.error("Token解析失败: {}", e.getMessage());
+            return null;
         }
     }
 
+    /**
+     * 验证token
+     */
+    public static boolean validateToken(String token) {
+        Claims claims = parseToken(token);
+        return claims != null && !claims.getExpiration().before(new Date());
+    }
+
     /**
      * 从token中获取用户ID
      */
     public static String getUserIdFromToken(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSignKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            
-            Object userIdObj = claims.get("userId");
-            return userIdObj != null ? userIdObj.toString() : null;
-        } catch (Exception e) {
-            logger.error("获取用户ID失败: {}", e.getMessage());
+        Claims claims = parseToken(token);
+        if (claims == null) {
             return null;
         }
+        Object userIdObj = claims.get("userId");
+        return userIdObj != null ? userIdObj.toString() : null;
     }
 
     /**
      * 从token中获取用户名
      */
     public static String getUsernameFromToken(String token) {
-        try {
-            Claims claims = Jwts.parser()
-                    .verifyWith(getSignKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
-            
-            // 优先从claims中获取username，如果没有则从subject获取
-            Object usernameObj = claims.get("username");
-            if (usernameObj != null) {
-                return usernameObj.toString();
-            }
-            return claims.getSubject();
-        } catch (Exception e) {
-            logger.error("获取用户名失败: {}", e.getMessage());
+        Claims claims = parseToken(token);
+        if (claims == null) {
             return null;
         }
+        // 优先从claims中获取username，如果没有则从subject获取
+        Object usernameObj = claims.get("username");
+        if (usernameObj != null) {
+            return usernameObj.toString();
+        }
+        return claims.getSubject();
     }
 }
@@ -1,13 +1,18 @@
 package com.admin.common.util;
 
 import com.admin.common.constant.CommonConstants;
+import com.admin.common.context.UserContext;
+import com.admin.common.context.UserContextHolder;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.util.StringUtils;
+
+import java.util.List;
 
 /**
  * 用户上下文工具类 - 公共模块
- * 从网关传递的HTTP头中获取用户信息，供所有微服务使用
+ * 从网关传递的HTTP头中获取用户信息，供所有微服务使用。
+ * 租户、用户类型、角色与授权版本由网关从访问令牌声明中取出转发，下游可直接据此鉴权而无需再查询角色。
+ * 请求头在每个请求内只解析一次为 {@link UserContext}，各方法均读取该解析结果
  *
  * @author admin
  * @since 2024-08-27
@@ -18,18 +23,45 @@ public class UserContextUtil {
     /**
      * 网关认证相关请求头常量
      */
-    public static final String HEADER_CLIENT_IP = "X-Client-IP";
-    public static final String HEADER_AUTH_SOURCE = "X-Auth-Source";
-    public static final String HEADER_AUTH_TIME = "X-Auth-Time";
-    public static final String HEADER_TENANT_ID = "X-Tenant-Id";
-    public static final String HEADER_USER_TYPE = "X-User-Type";
-    public static final String HEADER_ROLES = "X-User-Roles";
+    public static final String HEADER_CLIENT_IP = CommonConstants.CLIENT_IP_HEADER;
+    public static final String HEADER_AUTH_SOURCE = CommonConstants.AUTH_SOURCE_HEADER;
+    public static final String HEADER_AUTH_TIME = CommonConstants.AUTH_TIME_HEADER;
+    public static final String HEADER_TENANT_ID = CommonConstants.TENANT_ID_HEADER;
+    public static final String HEADER_USER_TYPE = CommonConstants.USER_TYPE_HEADER;
+    public static final String HEADER_ROLES = CommonConstants.USER_ROLES_HEADER;
+    public static final String HEADER_AUTHZ_VERSION = CommonConstants.AUTHZ_VERSION_HEADER;
 
     /**
      * 认证来源常量
      */
-    public static final String AUTH_SOURCE_GATEWAY = "Gateway";
-    public static final String AUTH_SOURCE_INTERNAL = "Internal";
+    public static final String AUTH_SOURCE_GATEWAY = UserContext.AUTH_SOURCE_GATEWAY;
+    public static final String AUTH_SOURCE_INTERNAL = UserContext.AUTH_SOURCE_INTERNAL;
+
+    /**
+     * 获取请求的用户上下文
+     * 优先使用过滤器已解析并缓存在请求上的结果；未经过过滤器时解析一次并缓存到请求属性
+     *
+     * @param request HTTP请求
+     * @return 用户上下文
+     */
+    public static UserContext getContext(HttpServletRequest request) {
+        Object cached = request.getAttribute(UserContext.REQUEST_ATTRIBUTE);
+        if (cached instanceof UserContext context) {
+            return context;
+        }
+        UserContext context = UserContext.from(request);
+        request.setAttribute(UserContext.REQUEST_ATTRIBUTE, context);
+        return context;
+    }
+
+    /**
+     * 获取当前线程的用户上下文（含 @Async 等经过包装的异步任务）
+     *
+     * @return 用户上下文，不在请求内时返回null
+     */
+    public static UserContext current() {
+        return UserContextHolder.get();
+    }
 
     /**
      * 从请求头获取用户ID
@@ -38,13 +70,7 @@ public class UserContextUtil {
      * @return 用户ID，如果不存在返回null
      */
     public static String getUserId(HttpServletRequest request) {
-        String userId = request.getHeader(CommonConstants.USER_ID_HEADER);
-        if (StringUtils.hasText(userId)) {
-            log.debug("从请求头获取用户ID: {}", userId);
-            return userId;
-        }
-        log.warn("请求头中未找到用户ID");
-        return null;
+        return getContext(request).userId();
     }
 
     /**
@@ -54,15 +80,7 @@ public class UserContextUtil {
      * @return 用户ID，如果不存在或格式错误返回null
      */
     public static Long getUserIdAsLong(HttpServletRequest request) {
-        String userId = getUserId(request);
-        if (StringUtils.hasText(userId)) {
-            try {
-                return Long.valueOf(userId);
-            } catch (NumberFormatException e) {
-                log.warn("用户ID格式错误: {}", userId);
-            }
-        }
-        return null;
+        return getContext(request).userIdAsLong();
     }
 
     /**
@@ -72,13 +90,7 @@ public class UserContextUtil {
      * @return 用户名，如果不存在返回null
      */
     public static String getUsername(HttpServletRequest request) {
-        String username = request.getHeader(CommonConstants.USERNAME_HEADER);
-        if (StringUtils.hasText(username)) {
-            log.debug("从请求头获取用户名: {}", username);
-            return username;
-        }
-        log.warn("请求头中未找到用户名");
-        return null;
+        return getContext(request).username();
     }
 
     /**
@@ -88,7 +100,7 @@ public class UserContextUtil {
      * @return 租户ID，如果不存在返回null
      */
     public static String getTenantId(HttpServletRequest request) {
-        return request.getHeader(HEADER_TENANT_ID);
+        return getContext(request).tenantId();
     }
 
     /**
@@ -98,7 +110,7 @@ public class UserContextUtil {
      * @return 用户类型，如果不存在返回null
      */
     public static String getUserType(HttpServletRequest request) {
-        return request.getHeader(HEADER_USER_TYPE);
+        return getContext(request).userType();
     }
 
     /**
@@ -108,7 +120,38 @@ public class UserContextUtil {
      * @return 用户角色字符串，如果不存在返回null
      */
     public static String getUserRoles(HttpServletRequest request) {
-        return request.getHeader(HEADER_ROLES);
+        return getContext(request).roles();
+    }
+
+    /**
+     * 从请求头获取用户角色列表
+     *
+     * @param request HTTP请求
+     * @return 角色列表，如果不存在返回空列表
+     */
+    public static List<String> getUserRoleList(HttpServletRequest request) {
+        return getContext(request).roleList();
+    }
+
+    /**
+     * 当前用户是否拥有指定角色
+     *
+     * @param request HTTP请求
+     * @param role 角色标识
+     * @return true如果拥有该角色
+     */
+    public static boolean hasRole(HttpServletRequest request, String role) {
+        return getContext(request).hasRole(role);
+    }
+
+    /**
+     * 从请求头获取授权版本（签发令牌时的授权版本）
+     *
+     * @param request HTTP请求
+     * @return 授权版本，如果不存在或格式错误返回null
+     */
+    public static Long getAuthzVersion(HttpServletRequest request) {
+        return getContext(request).authzVersion();
     }
 
     /**
@@ -118,12 +161,7 @@ public class UserContextUtil {
      * @return 客户端IP，如果不存在返回请求的远程地址
      */
     public static String getClientIp(HttpServletRequest request) {
-        String clientIp = request.getHeader(HEADER_CLIENT_IP);
-        if (StringUtils.hasText(clientIp)) {
-            return clientIp;
-        }
-        // 如果网关没有传递，尝试直接获取
-        return request.getRemoteAddr();
+        return getContext(request).clientIp();
     }
 
     /**
@@ -133,7 +171,7 @@ public class UserContextUtil {
      * @return 认证来源
      */
     public static String getAuthSource(HttpServletRequest request) {
-        return request.getHeader(HEADER_AUTH_SOURCE);
+        return getContext(request).authSource();
     }
 
     /**
@@ -143,7 +181,7 @@ public class UserContextUtil {
      * @return 认证时间字符串
      */
     public static String getAuthTime(HttpServletRequest request) {
-        return request.getHeader(HEADER_AUTH_TIME);
+        return getContext(request).authTime();
     }
 
     /**
@@ -153,7 +191,7 @@ public class UserContextUtil {
      * @return true如果来自网关认证
      */
     public static boolean isFromGateway(HttpServletRequest request) {
-        return AUTH_SOURCE_GATEWAY.equals(getAuthSource(request));
+        return getContext(request).isFromGateway();
     }
 
     /**
@@ -163,7 +201,7 @@ public class UserContextUtil {
      * @return true如果是内部调用
      */
     public static boolean isInternalCall(HttpServletRequest request) {
-        return AUTH_SOURCE_INTERNAL.equals(getAuthSource(request));
+        return getContext(request).isInternalCall();
     }
 
     /**
@@ -173,8 +211,7 @@ public class UserContextUtil {
      * @return true如果用户上下文完整
      */
     public static boolean hasValidUserContext(HttpServletRequest request) {
-        return StringUtils.hasText(getUserId(request)) && 
-               StringUtils.hasText(getUsername(request));
+        return getContext(request).hasValidUserContext();
     }
 
     /**
@@ -184,8 +221,7 @@ public class UserContextUtil {
      * @return true如果请求已认证
      */
     public static boolean isAuthenticated(HttpServletRequest request) {
-        return hasValidUserContext(request) && 
-               (isFromGateway(request) || isInternalCall(request));
+        return getContext(request).isAuthenticated();
     }
 
     /**
@@ -195,16 +231,7 @@ public class UserContextUtil {
      * @return 用户信息摘要
      */
     public static String getUserSummary(HttpServletRequest request) {
-        String userId = getUserId(request);
-        String username = getUsername(request);
-        String clientIp = getClientIp(request);
-        String authSource = getAuthSource(request);
-        
-        return String.format("User[id=%s, name=%s, ip=%s, source=%s]", 
-                           userId != null ? userId : "unknown",
-                           username != null ? username : "unknown", 
-                           clientIp != null ? clientIp : "unknown",
-                           authSource != null ? authSource : "unknown");
+        return getContext(request).summary();
     }
 
     /**
@@ -215,23 +242,30 @@ public class UserContextUtil {
      * @return 审计信息
      */
     public static String buildAuditInfo(HttpServletRequest request, String operation) {
-        return String.format("[%s] %s from %s at %s", 
-                           operation,
-                           getUserSummary(request),
-                           getClientIp(request),
-                           getAuthTime(request));
+        return getContext(request).auditInfo(operation);
     }
 
     /**
      * 为当前请求设置用户上下文（用于内部调用）
-     * 
+     * 请求头是只读的，这里替换请求上缓存的解析结果并写入当前线程，后续读取与 Feign 调用都使用该上下文
+     *
      * @param request HTTP请求
      * @param userId 用户ID
      * @param username 用户名
      */
     public static void setInternalUserContext(HttpServletRequest request, String userId, String username) {
-        // 注意：这个方法通常用于内部服务间调用，实际使用时需要实现Request的Header设置
-        // 在Servlet环境中，请求头是只读的，这里提供接口定义
+        UserContext base = getContext(request);
+        Long userIdAsLong = null;
+        try {
+            userIdAsLong = userId != null ? Long.valueOf(userId) : null;
+        } catch (NumberFormatException e) {
+            log.debug("用户ID格式错误: {}", userId);
+        }
+        UserContext context = new UserContext(userId, userIdAsLong, username, base.tenantId(), base.userType(),
+                base.roles(), base.roleList(), base.authzVersion(), base.clientIp(),
+                AUTH_SOURCE_INTERNAL, base.authTime());
+        request.setAttribute(UserContext.REQUEST_ATTRIBUTE, context);
+        UserContextHolder.set(context);
         log.debug("设置内部调用用户上下文: userId={}, username={}", userId, username);
     }
 }
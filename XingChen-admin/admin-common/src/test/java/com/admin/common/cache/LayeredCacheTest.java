@@ -0,0 +1,133 @@
+package com.admin.common.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * 两级缓存测试
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class LayeredCacheTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private BiConsumer<String, String> invalidationPublisher;
+
+    private LayeredCache cache;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        LayeredCacheProperties.Spec spec = new LayeredCacheProperties.Spec(
+                Duration.ofMinutes(30), Duration.ofMinutes(1), 100L, Duration.ZERO, true);
+        cache = new LayeredCache("user", "cache:", spec, redisTemplate, invalidationPublisher,
+                Runnable::run, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void testConcurrentMisses_LoadOnce() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get(1L, () -> {
+                        loads.incrementAndGet();
+                        Thread.sleep(200);
+                        return "admin";
+                    });
+                }));
+            }
+            start.countDown();
+            for (Future<String> result : results) {
+                assertEquals("admin", result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, loads.get());
+        verify(valueOperations, times(1)).set(eq("cache:user::1"), any(CacheEnvelope.class), eq(Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void testLocalHit_DoesNotReadRedis() {
+        cache.put(1L, "admin");
+        clearInvocations(valueOperations);
+
+        assertEquals("admin", cache.get(1L, String.class));
+        verify(valueOperations, never()).get(anyString());
+        verify(invalidationPublisher).accept("user", "1");
+    }
+
+    @Test
+    void testRemoteInvalidation_EvictsLocalCopy() {
+        cache.put(1L, "admin");
+        cache.onInvalidation("1");
+        when(valueOperations.get("cache:user::1")).thenReturn(null);
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void testRefreshAhead_PublishesInvalidation() {
+        // refresh-ahead 大于 TTL，每次命中都触发刷新；刷新执行器为同步执行
+        LayeredCacheProperties.Spec spec = new LayeredCacheProperties.Spec(
+                Duration.ofMinutes(30), Duration.ofMinutes(1), 100L, Duration.ofMinutes(31), true);
+        LayeredCache refreshing = new LayeredCache("user", "cache:", spec, redisTemplate, invalidationPublisher,
+                Runnable::run, new SimpleMeterRegistry());
+        AtomicInteger loads = new AtomicInteger();
+
+        assertEquals("v1", refreshing.get(1L, () -> "v" + loads.incrementAndGet()));
+        clearInvocations(invalidationPublisher, valueOperations);
+
+        assertEquals("v1", refreshing.get(1L, () -> "v" + loads.incrementAndGet()));
+        assertEquals(2, loads.get());
+        verify(valueOperations).set(eq("cache:user::1"), any(CacheEnvelope.class), eq(Duration.ofMinutes(30)));
+        verify(invalidationPublisher).accept("user", "1");
+        assertEquals("v2", refreshing.get(1L, String.class));
+    }
+
+    @Test
+    void testRedisDown_FallsBackToLoader() {
+        when(valueOperations.get(anyString())).thenThrow(new IllegalStateException("redis down"));
+        doThrow(new IllegalStateException("redis down")).when(valueOperations).set(anyString(), any(), any(Duration.class));
+
+        assertEquals("admin", cache.get(1L, () -> "admin"));
+        assertEquals("admin", cache.get(1L, () -> "other"));
+    }
+}
@@ -0,0 +1,70 @@
+package com.admin.common.context;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 用户上下文跨线程传递测试
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+class UserContextHolderTest {
+
+    private static final UserContext ALICE = context("7", "alice");
+    private static final UserContext BOB = context("8", "bob");
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        UserContextHolder.clear();
+        executor.shutdownNow();
+        executor.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void wrappedTaskSeesSubmitterContext() throws Exception {
+        UserContextHolder.set(ALICE);
+        AtomicReference<UserContext> seen = new AtomicReference<>();
+
+        executor.submit(UserContextHolder.wrap(() -> seen.set(UserContextHolder.get()))).get();
+        Future<UserContext> callable = executor.submit(UserContextHolder.wrap(UserContextHolder::get));
+
+        assertSame(ALICE, seen.get());
+        assertSame(ALICE, callable.get());
+        // 池线程不残留提交方的上下文
+        assertNull(executor.submit(UserContextHolder::get).get());
+    }
+
+    @Test
+    void wrappedTaskRestoresExecutorContext() throws Exception {
+        executor.submit(() -> UserContextHolder.set(BOB)).get();
+        UserContextHolder.set(ALICE);
+
+        assertSame(ALICE, executor.submit(UserContextHolder.wrap(UserContextHolder::get)).get());
+        assertSame(BOB, executor.submit(UserContextHolder::get).get());
+    }
+
+    @Test
+    void unwrappedTaskDoesNotInheritContext() throws Exception {
+        UserContextHolder.set(ALICE);
+
+        assertNull(executor.submit(UserContextHolder::get).get());
+    }
+
+    private static UserContext context(String userId, String username) {
+        return new UserContext(userId, Long.valueOf(userId), username, "1", "NORMAL", "USER", List.of("USER"),
+                3L, "10.0.0.1", UserContext.AUTH_SOURCE_GATEWAY, null);
+    }
+}
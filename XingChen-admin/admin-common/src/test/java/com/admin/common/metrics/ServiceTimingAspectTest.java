@@ -0,0 +1,105 @@
+package com.admin.common.metrics;
+
+import com.admin.common.context.UserContext;
+import com.admin.common.context.UserContextHolder;
+import com.admin.common.core.exception.ServiceException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 业务服务方法自动计时测试
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+class ServiceTimingAspectTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @AfterEach
+    void tearDown() {
+        UserContextHolder.clear();
+    }
+
+    @Test
+    void recordsOutcomeAndTenant() {
+        SampleService service = proxy(new ServiceTimingProperties());
+        UserContextHolder.set(tenant("t1"));
+
+        service.ok();
+        assertThrows(ServiceException.class, service::fail);
+
+        assertEquals(1, timer("ok", "success", "t1").count());
+        assertEquals(1, timer("fail", "business_error", "t1").count());
+    }
+
+    @Test
+    void capsTenantCardinality() {
+        ServiceTimingProperties properties = new ServiceTimingProperties();
+        properties.setMaxTenants(1);
+        SampleService service = proxy(properties);
+
+        UserContextHolder.set(tenant("t1"));
+        service.ok();
+        UserContextHolder.set(tenant("t2"));
+        service.ok();
+        UserContextHolder.clear();
+        service.ok();
+
+        assertEquals(1, timer("ok", "success", "t1").count());
+        assertEquals(1, timer("ok", "success", ServiceTimingAspect.TENANT_OTHER).count());
+        assertEquals(1, timer("ok", "success", ServiceTimingAspect.TENANT_NONE).count());
+    }
+
+    @Test
+    void skipsDisabledPackages() {
+        ServiceTimingProperties properties = new ServiceTimingProperties();
+        properties.setDisabledPackages(List.of("com.admin.common.metrics"));
+        SampleService service = proxy(properties);
+
+        service.ok();
+
+        assertNull(registry.find(ServiceTimingAspect.METRIC_NAME).timer());
+    }
+
+    private SampleService proxy(ServiceTimingProperties properties) {
+        AspectJProxyFactory factory = new AspectJProxyFactory(new SampleService());
+        factory.setProxyTargetClass(true);
+        factory.addAspect(new ServiceTimingAspect(registry, properties));
+        return factory.getProxy();
+    }
+
+    private Timer timer(String method, String outcome, String tenant) {
+        Timer timer = registry.find(ServiceTimingAspect.METRIC_NAME)
+                .tag("method", method).tag("outcome", outcome).tag("tenant", tenant).timer();
+        assertNotNull(timer);
+        return timer;
+    }
+
+    private static UserContext tenant(String tenantId) {
+        return new UserContext("1", 1L, "admin", tenantId, null, null, null, null, null, null, null);
+    }
+
+    @Service
+    static class SampleService {
+
+        public String ok() {
+            return "ok";
+        }
+
+        public void fail() {
+            throw new ServiceException("业务异常");
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.admin.common.redis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis 批量操作往返对比
+ * 批大小 10/100/1000，逐键 GET/SET EX 与 {@link RedisBatchOperations} 的 MGET/流水线 SET EX 对比，
+ * 耗时差即节省的往返开销，网络 RTT 越大差距越明显。
+ * <p>
+ * 需要可访问的 Redis：-Dredis.host=127.0.0.1 -Dredis.port=6379 [-Dredis.password=...]；
+ * 运行方式：mvn -pl admin-common test-compile 生成 JMH 元数据后执行 main 方法
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisBatchBenchmark {
+
+    private static final Duration TTL = Duration.ofMinutes(5);
+
+    @Param({"10", "100", "1000"})
+    public int batchSize;
+
+    private LettuceConnectionFactory connectionFactory;
+    private StringRedisTemplate stringRedisTemplate;
+    private RedisBatchOperations batchOperations;
+    private List<String> keys;
+    private Map<String, String> entries;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(
+                System.getProperty("redis.host", "127.0.0.1"), Integer.getInteger("redis.port", 6379));
+        String password = System.getProperty("redis.password");
+        if (password != null) {
+            configuration.setPassword(password);
+        }
+        connectionFactory = new LettuceConnectionFactory(configuration);
+        connectionFactory.afterPropertiesSet();
+
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        RedisTemplate<String, Object> redisTemplate = new RedisTemplate<>();
+        redisTemplate.setConnectionFactory(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+        batchOperations = new RedisBatchOperations(redisTemplate, stringRedisTemplate, 500);
+
+        keys = new ArrayList<>(batchSize);
+        entries = new LinkedHashMap<>();
+        for (int i = 0; i < batchSize; i++) {
+            String key = "bench:batch:" + i;
+            keys.add(key);
+            entries.put(key, "1|admin|10.0.0." + i + "|1724724000000");
+        }
+        batchOperations.multiSetStrings(entries, TTL);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        stringRedisTemplate.delete(keys);
+        connectionFactory.destroy();
+    }
+
+    @Benchmark
+    public void getOneByOne(Blackhole bh) {
+        for (String key : keys) {
+            bh.consume(stringRedisTemplate.opsForValue().get(key));
+        }
+    }
+
+    @Benchmark
+    public Map<String, String> getBatched() {
+        return batchOperations.multiGet(keys);
+    }
+
+    @Benchmark
+    public void setOneByOne() {
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            stringRedisTemplate.opsForValue().set(entry.getKey(), entry.getValue(), TTL);
+        }
+    }
+
+    @Benchmark
+    public void setBatched() {
+        batchOperations.multiSetStrings(entries, TTL);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(RedisBatchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,51 @@
+package com.admin.common.redis;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Redis 批量操作测试
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@ExtendWith(MockitoExtension.class)
+class RedisBatchOperationsTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Test
+    void testMultiGet_ChunksKeysAndSkipsMissingOrMistypedValues() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(List.of("k1", "k2"))).thenReturn(Arrays.asList(1L, null));
+        when(valueOperations.multiGet(List.of("k3", "k4"))).thenReturn(Arrays.asList("not-a-long", 4L));
+        when(valueOperations.multiGet(List.of("k5"))).thenReturn(Arrays.asList(5L));
+        RedisBatchOperations batchOperations = new RedisBatchOperations(redisTemplate, stringRedisTemplate, 2);
+
+        Map<String, Long> values = batchOperations.multiGet(List.of("k1", "k2", "k3", "k4", "k5"), Long.class);
+
+        assertEquals(List.of("k1", "k4", "k5"), List.copyOf(values.keySet()));
+        assertEquals(List.of(1L, 4L, 5L), List.copyOf(values.values()));
+        verify(valueOperations, times(3)).multiGet(anyList());
+    }
+}
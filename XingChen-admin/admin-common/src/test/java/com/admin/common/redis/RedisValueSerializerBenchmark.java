@@ -0,0 +1,126 @@
+package com.admin.common.redis;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Redis 值序列化基准
+ * 使用实际缓存的值形态，对比 jackson（改造前）与 compact（JSONB + zstd）：
+ * <ul>
+ *     <li>loginInfo：auth:login:&lt;userId&gt; 登录信息 Map</li>
+ *     <li>userContext：gateway:auth:&lt;hash&gt; 网关用户上下文字符串</li>
+ *     <li>profile：带角色与权限列表的用户资料 Map（超过压缩阈值）</li>
+ * </ul>
+ * encode/decode 为单次序列化/反序列化吞吐；main 方法同时输出每种值的字节数，
+ * 即 Redis 中该值 payload 占用的内存（不含键与对象头等固定开销）。
+ * <p>
+ * 运行方式：mvn -pl admin-common test-compile 生成 JMH 元数据后执行 main 方法
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisValueSerializerBenchmark {
+
+    @Param({"jackson", "compact"})
+    public String serializer;
+
+    @Param({"loginInfo", "userContext", "profile"})
+    public String value;
+
+    private RedisSerializer<Object> redisSerializer;
+    private Object payload;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        redisSerializer = create(serializer);
+        payload = sample(value);
+        encoded = redisSerializer.serialize(payload);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return redisSerializer.serialize(payload);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return redisSerializer.deserialize(encoded);
+    }
+
+    static RedisSerializer<Object> create(String name) {
+        return "jackson".equals(name)
+                ? new GenericJackson2JsonRedisSerializer()
+                : new CompactRedisSerializer(new String[]{"com.admin."}, 1024, 3);
+    }
+
+    static Object sample(String name) {
+        switch (name) {
+            case "loginInfo": {
+                Map<String, Object> loginInfo = new HashMap<>();
+                loginInfo.put("token", "eyJhbGciOiJIUzI1NiJ9." + "x".repeat(280) + ".c2lnbmF0dXJlc2lnbmF0dXJl");
+                loginInfo.put("loginTime", LocalDateTime.of(2024, 8, 27, 10, 0).toString());
+                loginInfo.put("loginIp", "10.12.1.100");
+                return loginInfo;
+            }
+            case "userContext":
+                return "10001|admin|10.12.1.100|1724724000000|5f0c2a0e9b7d4c1f8a3e6b2d1c0f9e8a|1724724000|1|ADMIN|ADMIN,USER|3";
+            default: {
+                Map<String, Object> profile = new HashMap<>();
+                profile.put("userId", 10001L);
+                profile.put("username", "admin");
+                profile.put("nickname", "管理员");
+                profile.put("email", "admin@example.com");
+                profile.put("tenantId", 1L);
+                profile.put("roles", new ArrayList<>(List.of("ADMIN", "USER", "AUDITOR")));
+                List<String> permissions = new ArrayList<>();
+                for (String module : List.of("user", "role", "menu", "dept", "tenant", "log", "config", "dict")) {
+                    for (String action : List.of("list", "query", "add", "edit", "remove", "export")) {
+                        permissions.add("system:" + module + ":" + action);
+                    }
+                }
+                profile.put("permissions", permissions);
+                return profile;
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        for (String name : List.of("loginInfo", "userContext", "profile")) {
+            Object sample = sample(name);
+            System.out.printf("%-12s jackson=%5d bytes  compact=%5d bytes%n", name,
+                    create("jackson").serialize(sample).length, create("compact").serialize(sample).length);
+        }
+        Options options = new OptionsBuilder()
+                .include(RedisValueSerializerBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
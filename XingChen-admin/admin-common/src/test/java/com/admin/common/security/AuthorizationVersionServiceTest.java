@@ -0,0 +1,99 @@
+package com.admin.common.security;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.SessionCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 授权版本递增与令牌版本校验测试（内存 Map 模拟 Redis 字符串命令）
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AuthorizationVersionServiceTest {
+
+    private static final long ISSUED_AT = 1_700_000_000L;
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final Map<String, String> store = new HashMap<>();
+
+    private AuthorizationVersionService versionService;
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.increment(anyString())).thenAnswer(invocation -> Long.parseLong(
+                store.merge(invocation.getArgument(0), "1", (old, one) -> String.valueOf(Long.parseLong(old) + 1))));
+        when(valueOperations.multiGet(anyList())).thenAnswer(invocation -> {
+            List<String> values = new ArrayList<>();
+            for (String key : (List<String>) invocation.getArgument(0)) {
+                values.add(store.get(key));
+            }
+            return values;
+        });
+        when(stringRedisTemplate.executePipelined(any(SessionCallback.class))).thenAnswer(invocation -> {
+            ((SessionCallback<Object>) invocation.getArgument(0)).execute(stringRedisTemplate);
+            return List.of();
+        });
+        versionService = new AuthorizationVersionService(stringRedisTemplate);
+        revocationService = new TokenRevocationService(stringRedisTemplate);
+    }
+
+    @Test
+    void roleChangeInvalidatesOnlyAssignedUsers() {
+        long holderVersion = versionService.currentVersion(1L);
+        long otherVersion = versionService.currentVersion(2L);
+
+        versionService.bumpUsers(List.of(1L, 3L));
+
+        assertTrue(revocationService.isRevoked("jti-1", "1", ISSUED_AT, holderVersion));
+        assertFalse(revocationService.isRevoked("jti-2", "2", ISSUED_AT, otherVersion));
+        assertEquals(holderVersion + 1, versionService.currentVersion(1L));
+        // 按新版本签发的令牌有效
+        assertFalse(revocationService.isRevoked("jti-3", "1", ISSUED_AT, versionService.currentVersion(1L)));
+        verify(stringRedisTemplate).executePipelined(any(SessionCallback.class));
+    }
+
+    @Test
+    void globalAndUserVersionsBothCount() {
+        versionService.bumpUser(1L);
+        long version = versionService.currentVersion(1L);
+        assertEquals(1L, version);
+
+        versionService.bumpAll();
+        assertEquals(2L, versionService.currentVersion(1L));
+        assertTrue(revocationService.isRevoked("jti-1", "1", ISSUED_AT, version));
+        // 未携带版本的令牌（刷新令牌、历史令牌）不校验版本
+        assertFalse(revocationService.isRevoked("jti-1", "1", ISSUED_AT, null));
+    }
+}
@@ -0,0 +1,114 @@
+package com.admin.common.security;
+
+import com.admin.common.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * 用户令牌吊销纪元测试（内存 Map 模拟 Redis 字符串命令）
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TokenRevocationServiceTest {
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private final Map<String, String> store = new HashMap<>();
+
+    private TokenRevocationService revocationService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenAnswer(invocation -> {
+            List<String> values = new ArrayList<>();
+            for (String key : (List<String>) invocation.getArgument(0)) {
+                values.add(store.get(key));
+            }
+            return values;
+        });
+        doAnswer(invocation -> store.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), anyString(), any(Duration.class));
+        revocationService = new TokenRevocationService(stringRedisTemplate);
+    }
+
+    @Test
+    void loginAgainInSameSecondAfterRevokeIsAccepted() {
+        revocationService.revokeAllForUser("7");
+        long epoch = Long.parseLong(store.get(TokenRevocationService.NOT_BEFORE_PREFIX + "7"));
+
+        // 修改密码后立即重新登录：与纪元同一秒，但晚于纪元
+        long relogin = epoch + 1;
+        assertFalse(revocationService.isRevoked("jti-new", "7", relogin));
+        assertFalse(revocationService.isRevoked(claims(relogin)));
+
+        // 纪元之前（含同一毫秒）签发的令牌失效
+        assertTrue(revocationService.isRevoked("jti-old", "7", epoch));
+        assertTrue(revocationService.isRevoked("jti-old", "7", epoch - 500));
+        assertTrue(revocationService.isRevoked(claims(epoch - 1)));
+    }
+
+    @Test
+    void legacySecondValuesAreComparedInMillis() {
+        long now = System.currentTimeMillis();
+        store.put(TokenRevocationService.NOT_BEFORE_PREFIX + "7", String.valueOf(now / 1000 - 10));
+
+        assertFalse(revocationService.isRevoked("jti-1", "7", now));
+        assertTrue(revocationService.isRevoked("jti-1", "7", now / 1000 - 20));
+        assertFalse(revocationService.isRevoked("jti-1", "7", now / 1000));
+    }
+
+    @Test
+    void tokenWithoutMillisClaimFallsBackToIssuedAt() {
+        Date issuedAt = new Date(1_700_000_000_000L);
+        Claims claims = Jwts.claims().issuedAt(issuedAt).build();
+
+        assertEquals(1_700_000_000_000L, TokenRevocationService.issuedAtMillis(claims));
+        assertEquals(1_700_000_000_123L, TokenRevocationService.issuedAtMillis(Jwts.claims()
+                .issuedAt(issuedAt)
+                .add(JwtUtil.CLAIM_ISSUED_AT_MS, 1_700_000_000_123L)
+                .build()));
+    }
+
+    private static Claims claims(long issuedAtMillis) {
+        return Jwts.claims()
+                .id("jti-" + issuedAtMillis)
+                .issuedAt(new Date(issuedAtMillis / 1000 * 1000))
+                .add("userId", "7")
+                .add(JwtUtil.CLAIM_ISSUED_AT_MS, issuedAtMillis)
+                .build();
+    }
+}
@@ -0,0 +1,68 @@
+package com.admin.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 布隆过滤器测试
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+class BloomFilterTest {
+
+    private static final int CAPACITY = 10_000;
+    private static final double FPP = 0.01;
+
+    @Test
+    void observedFalsePositiveRateAtCapacityStaysNearTarget() {
+        BloomFilter filter = BloomFilter.create(CAPACITY, FPP);
+        for (int i = 0; i < CAPACITY; i++) {
+            filter.put("user-" + i);
+        }
+
+        // 已加入的元素不会被判定为不存在
+        for (int i = 0; i < CAPACITY; i++) {
+            assertTrue(filter.mightContain("user-" + i));
+        }
+
+        int probes = 100_000;
+        int falsePositives = 0;
+        for (int i = 0; i < probes; i++) {
+            if (filter.mightContain("absent-" + i)) {
+                falsePositives++;
+            }
+        }
+        double observed = (double) falsePositives / probes;
+        assertTrue(observed < FPP * 1.5, "observed fpp " + observed);
+        assertEquals(FPP, filter.expectedFpp(), FPP * 0.5);
+        assertFalse(filter.isSaturated());
+    }
+
+    @Test
+    void saturatesOnceInsertionsExceedCapacity() {
+        BloomFilter filter = BloomFilter.create(100, FPP);
+        for (int i = 0; i < 100; i++) {
+            filter.put("user-" + i);
+        }
+        assertFalse(filter.isSaturated());
+
+        // 重复加入不计数
+        filter.put("user-0");
+        assertFalse(filter.isSaturated());
+
+        filter.put("user-100");
+        assertTrue(filter.isSaturated());
+        assertEquals(101, filter.approximateElementCount(), 1);
+    }
+
+    @Test
+    void rejectsInvalidParameters() {
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(0, FPP));
+        assertThrows(IllegalArgumentException.class, () -> BloomFilter.create(CAPACITY, 1));
+    }
+}
@@ -0,0 +1,73 @@
+package com.admin.common.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JWT 签名/验签吞吐基准
+ * 使用 JwtUtil 实际签发的令牌结构（sub、userId、tokenType、iat、exp、kid），
+ * 对比各算法在签发端与网关验签端的 CPU 开销。
+ * <p>
+ * 运行方式：mvn -pl admin-common test-compile 生成 JMH 元数据后执行 main 方法
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSignatureBenchmark {
+
+    @Param({"HS256", "RS256", "ES256", "EdDSA"})
+    private String algorithm;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        JwtUtil jwtUtil = new JwtUtil();
+        jwtUtil.setExpiration(1800L);
+        jwtUtil.setRefreshExpiration(604800L);
+
+        JwtKeyRing.Algorithm alg = JwtKeyRing.Algorithm.of(algorithm);
+        JwtKeyRing.Builder builder = JwtKeyRing.builder().hmac("mySecretKey123456789012345678901234567890");
+        builder.ensureSigningKey(alg);
+        JwtUtil.configure(builder.build(), alg, alg);
+
+        token = JwtUtil.generateToken("10001", "admin");
+    }
+
+    @Benchmark
+    public String sign() {
+        return JwtUtil.generateToken("10001", "admin");
+    }
+
+    @Benchmark
+    public Object verify() {
+        return JwtUtil.parseToken(token);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(JwtSignatureBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
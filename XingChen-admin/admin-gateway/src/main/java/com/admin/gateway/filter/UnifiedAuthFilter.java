@@ -3,13 +3,16 @@ package com.admin.gateway.filter;
 import com.admin.common.core.domain.Result;
 import com.admin.common.util.JwtUtil;
 import com.admin.common.constant.CommonConstants;
+import com.admin.common.security.TokenRevocationService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.jsonwebtoken.Claims;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.GlobalFilter;
 import org.springframework.core.Ordered;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
@@ -22,7 +25,9 @@ import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * 网关统一认证过滤器
@@ -41,6 +46,9 @@ public class UnifiedAuthFilter implements GlobalFilter, Ordered {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     /**
      * 白名单路径 - 不需要认证的接口
      */
@@ -49,6 +57,7 @@ public class UnifiedAuthFilter implements GlobalFilter, Ordered {
         "/api/auth/register",
         "/api/auth/refresh",
         "/api/auth/logout", 
+        "/api/auth/captcha/**",
         "/api/identity/register",
         "/api/identity/login",
         "/api/identity/check-**",
@@ -62,8 +71,29 @@ public class UnifiedAuthFilter implements GlobalFilter, Ordered {
         "/swagger-ui.html"
     };
 
+    /**
+     * 网关写入的用户上下文请求头，客户端自带的同名请求头一律剔除，防止伪造身份或角色
+     */
+    private static final String[] CONTEXT_HEADERS = {
+        CommonConstants.USER_ID_HEADER,
+        CommonConstants.USERNAME_HEADER,
+        CommonConstants.CLIENT_IP_HEADER,
+        CommonConstants.AUTH_SOURCE_HEADER,
+        CommonConstants.AUTH_TIME_HEADER,
+        CommonConstants.TENANT_ID_HEADER,
+        CommonConstants.USER_TYPE_HEADER,
+        CommonConstants.USER_ROLES_HEADER,
+        CommonConstants.AUTHZ_VERSION_HEADER
+    };
+
+    /**
+     * 用户上下文字段数：userId|username|clientIp|缓存时间|jti|iat|tenantId|userType|roles|ver
+     */
+    private static final int CONTEXT_FIELDS = 10;
+
     @Override
     public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        exchange = stripContextHeaders(exchange);
         ServerHttpRequest request = exchange.getRequest();
         String path = request.getPath().toString();
         String method = request.getMethod().name();
@@ -107,25 +137,37 @@ public class UnifiedAuthFilter implements GlobalFilter, Ordered {
             
             if (cachedUser != null) {
                 log.debug("从缓存获取用户信息: {}", cacheKey);
+                // 缓存命中也需校验吊销状态，保证登出立即生效
+                if (isRevoked(cachedUser.toString())) {
+                    redisTemplate.delete(cacheKey);
+                    return handleUnauthorized(exchange, "Token已失效", startTime);
+                }
                 return forwardWithUserContext(exchange, chain, cachedUser.toString(), startTime);
             }
 
-            // 2. 缓存未命中，验证JWT
-            if (!JwtUtil.validateToken(token)) {
+            // 2. 缓存未命中，验证JWT（一次解析取出全部声明）
+            Claims claims = JwtUtil.parseToken(token);
+            if (claims == null) {
                 log.warn("Token验证失败: {}", token.substring(0, Math.min(10, token.length())));
                 return handleUnauthorized(exchange, "Token无效或已过期", startTime);
             }
 
             // 3. 提取用户信息
-            String userId = JwtUtil.getUserIdFromToken(token);
-            String username = JwtUtil.getUsernameFromToken(token);
+            Object userIdClaim = claims.get("userId");
+            String userId = userIdClaim != null ? userIdClaim.toString() : null;
+            String username = claims.getSubject();
 
             if (!StringUtils.hasText(userId) || !StringUtils.hasText(username)) {
                 return handleUnauthorized(exchange, "Token中缺少用户信息", startTime);
             }
 
-            // 4. 构建用户上下文并缓存
-            String userContext = buildUserContext(userId, username, clientIp);
+            // 4. 校验吊销状态与授权版本（jti、用户纪元、授权版本，一次 MGET）
+            if (tokenRevocationService.isRevoked(claims)) {
+                return handleUnauthorized(exchange, "Token已失效", startTime);
+            }
+
+            // 5. 构建用户上下文并缓存
+            String userContext = buildUserContext(userId, username, clientIp, claims);
             cacheUserContext(cacheKey, userContext);
 
             log.debug("Token验证成功: 用户={}, ID={}", username, userId);
@@ -144,19 +186,23 @@ public class UnifiedAuthFilter implements GlobalFilter, Ordered {
                                             String userContext, long startTime) {
         try {
             // 解析用户上下文
-            String[] parts = userContext.split("\\|");
-            String userId = parts.length > 0 ? parts[0] : "";
-            String username = parts.length > 1 ? parts[1] : "";
-            String clientIp = parts.length > 2 ? parts[2] : "";
+            String[] parts = userContext.split("\\|", -1);
+            String userId = parts[0];
+            String username = parts[1];
+            String clientIp = parts[2];
 
-            // 添加用户信息到请求头，供下游服务使用
-            ServerHttpRequest modifiedRequest = exchange.getRequest().mutate()
+            // 添加用户信息到请求头，供下游服务使用；租户、类型、角色与授权版本取自令牌声明，下游无需再查询
+            ServerHttpRequest.Builder builder = exchange.getRequest().mutate()
                     .header(CommonConstants.USER_ID_HEADER, userId)
                     .header(CommonConstants.USERNAME_HEADER, username)
                     .header(CommonConstants.CLIENT_IP_HEADER, clientIp)
                     .header(CommonConstants.AUTH_SOURCE_HEADER, CommonConstants.AUTH_SOURCE_GATEWAY)
-                    .header(CommonConstants.AUTH_TIME_HEADER, LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME))
-                    .build();
+                    .header(CommonConstants.AUTH_TIME_HEADER, LocalDateTime.now().format(DateTimeFormatter.ISO_LOCAL_DATE_TIME));
+            addHeaderIfPresent(builder, CommonConstants.TENANT_ID_HEADER, parts[6]);
+            addHeaderIfPresent(builder, CommonConstants.USER_TYPE_HEADER, parts[7]);
+            addHeaderIfPresent(builder, CommonConstants.USER_ROLES_HEADER, parts[8]);
+            addHeaderIfPresent(builder, CommonConstants.AUTHZ_VERSION_HEADER, parts[9]);
+            ServerHttpRequest modifiedRequest = builder.build();
 
             log.debug("用户上下文已添加: userId={}, username={}", userId, username);
 
@@ -173,10 +219,68 @@ public class UnifiedAuthFilter implements GlobalFilter, Ordered {
     }
 
     /**
-     * 构建用户上下文字符串
+     * 构建用户上下文字符串：userId|username|clientIp|缓存时间|jti|iat（毫秒）|tenantId|userType|roles|ver
+     */
+    private String buildUserContext(String userId, String username, String clientIp, Claims claims) {
+        long issuedAt = TokenRevocationService.issuedAtMillis(claims);
+        Object roles = claims.get(JwtUtil.CLAIM_ROLES);
+        return String.join("|", userId, username, clientIp, String.valueOf(System.currentTimeMillis()),
+                claims.getId() != null ? claims.getId() : "", String.valueOf(issuedAt),
+                claimText(claims.get(JwtUtil.CLAIM_TENANT_ID)),
+                claimText(claims.get(JwtUtil.CLAIM_USER_TYPE)),
+                roles instanceof Collection<?> roleList
+                        ? roleList.stream().map(String::valueOf).collect(Collectors.joining(","))
+                        : claimText(roles),
+                claimText(claims.get(JwtUtil.CLAIM_AUTHZ_VERSION)));
+    }
+
+    private static String claimText(Object value) {
+        return value != null ? value.toString() : "";
+    }
+
+    /**
+     * 校验缓存的用户上下文对应的令牌是否已吊销或授权版本已落后
+     */
+    private boolean isRevoked(String userContext) {
+        String[] parts = userContext.split("\\|", -1);
+        if (parts.length < CONTEXT_FIELDS) {
+            // 旧格式缓存缺少 jti/iat/授权声明，按失效处理以触发重新验签
+            return true;
+        }
+        Long authzVersion = StringUtils.hasText(parts[9]) ? Long.valueOf(parts[9]) : null;
+        return tokenRevocationService.isRevoked(parts[4], parts[0], Long.parseLong(parts[5]), authzVersion);
+    }
+
+    private static void addHeaderIfPresent(ServerHttpRequest.Builder builder, String name, String value) {
+        if (StringUtils.hasText(value)) {
+            builder.header(name, value);
+        }
+    }
+
+    /**
+     * 剔除客户端自带的用户上下文请求头，包括白名单路径
      */
-    private String buildUserContext(String userId, String username, String clientIp) {
-        return String.join("|", userId, username, clientIp, String.valueOf(System.currentTimeMillis()));
+    private ServerWebExchange stripContextHeaders(ServerWebExchange exchange) {
+        HttpHeaders headers = exchange.getRequest().getHeaders();
+        boolean present = false;
+        for (String name : CONTEXT_HEADERS) {
+            if (headers.containsKey(name)) {
+                present = true;
+                break;
+            }
+        }
+        if (!present) {
+            return exchange;
+        }
+        log.warn("剔除客户端伪造的用户上下文请求头: {}", exchange.getRequest().getPath());
+        ServerHttpRequest request = exchange.getRequest().mutate()
+                .headers(h -> {
+                    for (String name : CONTEXT_HEADERS) {
+                        h.remove(name);
+                    }
+                })
+                .build();
+        return exchange.mutate().request(request).build();
     }
 
     /**
@@ -0,0 +1,62 @@
+package com.admin.identity.api.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 创建用户请求（服务间调用）
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Data
+public class CreateUserRequest implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 租户ID
+     */
+    private Long tenantId;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * 密码（已加密）
+     */
+    private String password;
+
+    /**
+     * 邮箱
+     */
+    private String email;
+
+    /**
+     * 手机号
+     */
+    private String phone;
+
+    /**
+     * 真实姓名
+     */
+    private String realName;
+
+    /**
+     * 昵称
+     */
+    private String nickname;
+
+    /**
+     * 性别
+     */
+    private String sex;
+
+    /**
+     * 用户类型
+     */
+    private String userType;
+}
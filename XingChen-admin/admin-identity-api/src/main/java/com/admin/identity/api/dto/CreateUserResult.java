@@ -0,0 +1,64 @@
+package com.admin.identity.api.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 原子创建用户结果（服务间调用）
+ * 创建成功时 userId 非空；违反唯一索引时 userId 为空，并标明冲突的字段
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Data
+public class CreateUserResult implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 新建用户ID
+     */
+    private Long userId;
+
+    /**
+     * 用户名已被占用
+     */
+    private boolean usernameTaken;
+
+    /**
+     * 邮箱已被占用
+     */
+    private boolean emailTaken;
+
+    /**
+     * 手机号已被占用
+     */
+    private boolean phoneTaken;
+
+    /**
+     * 是否存在冲突
+     */
+    public boolean hasConflict() {
+        return usernameTaken || emailTaken || phoneTaken;
+    }
+
+    /**
+     * 冲突描述，如"用户名已存在，邮箱已被使用"
+     */
+    public String conflictMessage() {
+        List<String> messages = new ArrayList<>(3);
+        if (usernameTaken) {
+            messages.add("用户名已存在");
+        }
+        if (emailTaken) {
+            messages.add("邮箱已被使用");
+        }
+        if (phoneTaken) {
+            messages.add("手机号已被使用");
+        }
+        return String.join("，", messages);
+    }
+}
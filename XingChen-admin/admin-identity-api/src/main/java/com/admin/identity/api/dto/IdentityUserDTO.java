@@ -0,0 +1,78 @@
+package com.admin.identity.api.dto;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 身份服务用户信息（服务间调用）
+ * 仅包含认证与令牌签发所需字段，password 为加密后的哈希
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Data
+public class IdentityUserDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户ID
+     */
+    private Long id;
+
+    /**
+     * 租户ID
+     */
+    private Long tenantId;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * 密码（BCrypt 哈希）
+     */
+    private String password;
+
+    /**
+     * 昵称
+     */
+    private String nickname;
+
+    /**
+     * 真实姓名
+     */
+    private String realName;
+
+    /**
+     * 邮箱
+     */
+    private String email;
+
+    /**
+     * 手机号
+     */
+    private String phone;
+
+    /**
+     * 性别
+     */
+    private String sex;
+
+    /**
+     * 头像
+     */
+    private String avatar;
+
+    /**
+     * 用户类型
+     */
+    private String userType;
+
+    /**
+     * 状态（0正常 1停用）
+     */
+    private String status;
+}
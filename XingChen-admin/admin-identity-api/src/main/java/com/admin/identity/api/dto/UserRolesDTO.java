@@ -0,0 +1,32 @@
+package com.admin.identity.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 用户角色（服务间调用）
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserRolesDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 角色标识列表
+     */
+    private List<String> roles;
+}
@@ -0,0 +1,104 @@
+package com.admin.identity.api;
+
+import com.admin.common.core.domain.Result;
+import com.admin.identity.api.dto.IdentityUserDTO;
+import com.alibaba.fastjson2.JSONB;
+import com.alibaba.fastjson2.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Type;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 认证服务调用身份服务的用户载荷解码基准
+ * 对比原 Map 解码、JSON 类型化解码与 JSONB 类型化解码的耗时，并在 main 中输出两种编码的字节数。
+ * <p>
+ * 运行方式：mvn -pl admin-identity-api -am test-compile 生成 JMH 元数据后执行 main 方法
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserPayloadBenchmark {
+
+    private static final Type JSONB_TYPE = new TypeReference<Result<IdentityUserDTO>>() {
+    }.getType();
+
+    private ObjectMapper objectMapper;
+    private JavaType typedJsonType;
+    private byte[] json;
+    private byte[] jsonb;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = new ObjectMapper().disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        typedJsonType = objectMapper.getTypeFactory().constructParametricType(Result.class, IdentityUserDTO.class);
+        Result<IdentityUserDTO> payload = Result.success("获取用户信息成功", sampleUser());
+        json = objectMapper.writeValueAsBytes(payload);
+        jsonb = JSONB.toBytes(payload);
+    }
+
+    @Benchmark
+    public Object jsonToMap() throws Exception {
+        return objectMapper.readValue(json, Map.class);
+    }
+
+    @Benchmark
+    public Object jsonToTyped() throws Exception {
+        return objectMapper.readValue(json, typedJsonType);
+    }
+
+    @Benchmark
+    public Object jsonbToTyped() {
+        return JSONB.parseObject(jsonb, JSONB_TYPE);
+    }
+
+    static IdentityUserDTO sampleUser() {
+        IdentityUserDTO user = new IdentityUserDTO();
+        user.setId(1824736192837465L);
+        user.setTenantId(1L);
+        user.setUsername("zhangsan");
+        user.setPassword("$2a$10$7EqJtq98hPqEX7fNZaFWoOhi5BWX4Z5b0pZ3Jq1Y8m8Rz0m3b1c2a");
+        user.setNickname("张三");
+        user.setRealName("张三");
+        user.setEmail("zhangsan@example.com");
+        user.setPhone("13800138000");
+        user.setSex("0");
+        user.setAvatar("https://cdn.example.com/avatar/1824736192837465.png");
+        user.setUserType("00");
+        user.setStatus("0");
+        return user;
+    }
+
+    public static void main(String[] args) throws Exception {
+        UserPayloadBenchmark benchmark = new UserPayloadBenchmark();
+        benchmark.setup();
+        System.out.printf("payload size: json=%d bytes, jsonb=%d bytes%n", benchmark.json.length, benchmark.jsonb.length);
+
+        Options options = new OptionsBuilder()
+                .include(UserPayloadBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
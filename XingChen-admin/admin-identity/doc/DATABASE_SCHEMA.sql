@@ -203,8 +203,8 @@ CREATE TABLE `sys_user` (
     `remark` TEXT COMMENT '备注',
     
     -- 索引
-    UNIQUE KEY `uk_tenant_username` (`tenant_id`, `username`),
-    UNIQUE KEY `uk_tenant_email` (`tenant_id`, `email`),
+    UNIQUE KEY `uk_username` (`username`),
+    UNIQUE KEY `uk_email` (`email`),
     UNIQUE KEY `uk_tenant_phone` (`tenant_id`, `phone`),
     KEY `idx_user_tenant` (`tenant_id`),
     KEY `idx_user_employee_no` (`tenant_id`, `employee_no`),
@@ -0,0 +1,44 @@
+package com.admin.identity.config;
+
+import com.admin.common.event.IdentityChangeEvent;
+import com.admin.identity.service.UserAvailabilityService;
+import com.alibaba.fastjson2.JSON;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 身份变更事件订阅配置
+ * 多实例部署时，其他实例新建/修改的用户通过事件同步到本实例的可用性索引
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+@Configuration
+public class IdentityEventListenerConfig {
+
+    @Bean
+    public RedisMessageListenerContainer identityEventListenerContainer(RedisConnectionFactory connectionFactory,
+                                                                        UserAvailabilityService userAvailabilityService) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener((message, pattern) -> {
+            try {
+                IdentityChangeEvent event = JSON.parseObject(
+                        new String(message.getBody(), StandardCharsets.UTF_8), IdentityChangeEvent.class);
+                if (event.getType() == IdentityChangeEvent.Type.USER) {
+                    userAvailabilityService.recordUserById(event.getUserId());
+                }
+            } catch (Exception e) {
+                log.warn("处理身份变更事件失败: {}", e.getMessage());
+            }
+        }, new ChannelTopic(IdentityChangeEvent.CHANNEL));
+        return container;
+    }
+}
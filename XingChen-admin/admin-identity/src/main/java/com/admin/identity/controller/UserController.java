@@ -1,8 +1,19 @@
 package com.admin.identity.controller;
 
+import com.admin.common.core.domain.CursorPageResult;
 import com.admin.common.core.domain.Result;
+import com.admin.common.security.TokenRevocationService;
+import com.admin.common.web.page.CountMode;
+import com.admin.common.web.page.CountModePage;
+import com.admin.common.web.page.KeysetPagination;
 
+import com.admin.identity.api.dto.CreateUserRequest;
+import com.admin.identity.api.dto.CreateUserResult;
+import com.admin.identity.api.dto.IdentityUserDTO;
+import com.admin.identity.api.dto.UserRolesDTO;
 import com.admin.identity.domain.entity.User;
+import com.admin.identity.event.IdentityEventPublisher;
+import com.admin.identity.service.UserAvailabilityService;
 import com.admin.identity.service.UserService;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
@@ -13,6 +24,8 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
@@ -34,15 +47,18 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
+    private final UserAvailabilityService userAvailabilityService;
+    private final IdentityEventPublisher identityEventPublisher;
+    private final TokenRevocationService tokenRevocationService;
 
     /**
      * 检查用户名是否存在
      */
     @GetMapping("/check-username")
-    @Operation(summary = "检查用户名", description = "检查用户名是否已存在，返回true表示已存在")
+    @Operation(summary = "检查用户名", description = "检查用户名是否已存在（用户名全局唯一），返回true表示已存在")
     public Result<Boolean> checkUsername(@Parameter(description = "用户名") @RequestParam String username) {
         try {
-            boolean exists = userService.existsByUsername(username);
+            boolean exists = userAvailabilityService.isUsernameTaken(username);
             String message = exists ? "用户名已存在" : "用户名可用";
             return Result.success(message, exists);
         } catch (Exception e) {
@@ -55,10 +71,10 @@ public class UserController {
      * 检查邮箱是否存在
      */
     @GetMapping("/check-email")
-    @Operation(summary = "检查邮箱", description = "检查邮箱是否已存在，返回true表示已存在")
+    @Operation(summary = "检查邮箱", description = "检查邮箱是否已存在（邮箱全局唯一），返回true表示已存在")
     public Result<Boolean> checkEmail(@Parameter(description = "邮箱") @RequestParam String email) {
         try {
-            boolean exists = userService.existsByEmail(email);
+            boolean exists = userAvailabilityService.isEmailTaken(email);
             String message = exists ? "邮箱已被使用" : "邮箱可用";
             return Result.success(message, exists);
         } catch (Exception e) {
@@ -72,13 +88,15 @@ public class UserController {
      */
     @GetMapping("/users/username/{username}")
     @Operation(summary = "根据用户名获取用户", description = "根据用户名获取用户详细信息")
-    public Result<User> getUserByUsername(@PathVariable String username) {
+    public Result<IdentityUserDTO> getUserByUsername(@PathVariable String username) {
         try {
             User user = userService.getUserByUsername(username);
             if (user == null) {
                 return Result.error("用户不存在");
             }
-            return Result.success("获取用户信息成功", user);
+            IdentityUserDTO dto = new IdentityUserDTO();
+            BeanUtils.copyProperties(user, dto);
+            return Result.success("获取用户信息成功", dto);
         } catch (Exception e) {
             log.error("根据用户名获取用户失败", e);
             return Result.error("获取用户失败：" + e.getMessage());
@@ -90,13 +108,10 @@ public class UserController {
      */
     @GetMapping("/users/{userId}/roles")
     @Operation(summary = "获取用户角色", description = "获取指定用户的角色列表")
-    public Result<Map<String, Object>> getUserRoles(@PathVariable Long userId) {
+    public Result<UserRolesDTO> getUserRoles(@PathVariable Long userId) {
         try {
             java.util.List<String> roles = userService.getUserRoles(userId);
-            Map<String, Object> result = new HashMap<>();
-            result.put("userId", userId);
-            result.put("roles", roles);
-            return Result.success("获取用户角色成功", result);
+            return Result.success("获取用户角色成功", new UserRolesDTO(userId, roles));
         } catch (Exception e) {
             log.error("获取用户角色失败", e);
             return Result.error("获取角色失败：" + e.getMessage());
@@ -118,16 +133,19 @@ public class UserController {
 
     /**
      * 分页查询用户列表
+     * 需要总数与跳页时使用；顺序浏览、深分页请使用 /users/cursor
      */
     @GetMapping("/users/page")
-    @Operation(summary = "分页查询用户", description = "根据条件分页查询用户列表")
+    @Operation(summary = "分页查询用户", description = "根据条件分页查询用户列表，深分页请使用游标分页接口 /users/cursor")
     public Result<IPage<User>> pageUsers(
             @Parameter(description = "页码") @RequestParam(defaultValue = "1") Long current,
             @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Long size,
             @Parameter(description = "用户名") @RequestParam(required = false) String username,
-            @Parameter(description = "状态") @RequestParam(required = false) String status) {
+            @Parameter(description = "状态") @RequestParam(required = false) String status,
+            @Parameter(description = "总数统计方式（EXACT / CACHED / APPROXIMATE），为空时使用服务默认配置")
+            @RequestParam(required = false) CountMode countMode) {
         
-        Page<User> page = new Page<>(current, size);
+        Page<User> page = CountModePage.of(current, size, countMode);
         LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
         
         // 构建查询条件
@@ -140,6 +158,28 @@ public class UserController {
         return Result.success("查询成功", result);
     }
 
+    /**
+     * 游标分页查询用户列表
+     * 按用户ID倒序（即创建顺序倒序），不查询总数，任意深度翻页耗时一致
+     */
+    @GetMapping("/users/cursor")
+    @Operation(summary = "游标分页查询用户", description = "按用户ID倒序的键集分页，首页不传cursor，之后原样回传上一页的nextCursor")
+    public Result<CursorPageResult<User>> scrollUsers(
+            @Parameter(description = "上一页返回的游标") @RequestParam(required = false) String cursor,
+            @Parameter(description = "每页大小") @RequestParam(defaultValue = "10") Long size,
+            @Parameter(description = "用户名") @RequestParam(required = false) String username,
+            @Parameter(description = "状态") @RequestParam(required = false) String status) {
+
+        LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(User::getDelFlag, 0)
+                    .like(username != null && !username.trim().isEmpty(), User::getUsername, username)
+                    .eq(status != null && !status.trim().isEmpty(), User::getStatus, status);
+
+        CursorPageResult<User> result = KeysetPagination.page(userService, queryWrapper,
+                User::getId, User::getId, cursor, size);
+        return Result.success("查询成功", result);
+    }
+
     /**
      * 根据ID查询用户详情
      */
@@ -148,7 +188,7 @@ public class UserController {
     public Result<User> getUserById(@Parameter(description = "用户ID") @PathVariable Long id) {
         User user = userService.getById(id);
         if (user == null || user.getDelFlag() == 1) {
-            return Result.error("用户不存在");
+            return Result.notFound("用户不存在");
         }
         return Result.success("查询成功", user);
     }
@@ -158,28 +198,12 @@ public class UserController {
      */
     @PostMapping("/users")
     @Operation(summary = "创建用户", description = "创建新用户")
-    public Result<Long> createUser(@RequestBody Map<String, Object> userRequest) {
+    public Result<Long> createUser(@RequestBody CreateUserRequest userRequest) {
         try {
-            // 构建用户对象
-            User user = new User();
-            if (userRequest.get("tenantId") != null) {
-                user.setTenantId(Long.valueOf(userRequest.get("tenantId").toString()));
-            }
-            user.setUsername((String) userRequest.get("username"));
-            user.setPassword((String) userRequest.get("password"));
-            user.setEmail((String) userRequest.get("email"));
-            user.setPhone((String) userRequest.get("phone"));
-            user.setRealName((String) userRequest.get("realName"));
-            user.setNickname((String) userRequest.get("nickname"));
-            user.setSex((String) userRequest.get("sex"));
-            user.setUserType((String) userRequest.get("userType"));
-            user.setStatus("0"); // 默认启用
-            user.setDelFlag(0); // 未删除
-            user.setCreateTime(LocalDateTime.now());
-            user.setUpdateTime(LocalDateTime.now());
-
+            User user = buildNewUser(userRequest);
             boolean saved = userService.save(user);
             if (saved) {
+                onUserCreated(user);
                 return Result.success("创建成功", user.getId());
             }
             return Result.error("创建失败");
@@ -189,6 +213,48 @@ public class UserController {
         }
     }
 
+    /**
+     * 原子注册用户
+     * 单次调用完成判重与创建，依赖唯一索引保证并发注册时不会重复；冲突时返回 409 及冲突字段
+     */
+    @PostMapping("/users/register")
+    @Operation(summary = "原子注册用户", description = "插入用户并依赖唯一索引判重，冲突时返回用户名/邮箱/手机号冲突信息")
+    public Result<CreateUserResult> registerUser(@RequestBody CreateUserRequest userRequest) {
+        try {
+            User user = buildNewUser(userRequest);
+            CreateUserResult result = userService.createUserAtomic(user);
+            if (result.hasConflict()) {
+                return new Result<>(409, result.conflictMessage(), result);
+            }
+            onUserCreated(user);
+            return Result.success("创建成功", result);
+        } catch (Exception e) {
+            log.error("注册用户失败", e);
+            return Result.error("创建失败：" + e.getMessage());
+        }
+    }
+
+    /**
+     * 由创建请求构建新用户：默认启用、未删除
+     */
+    private User buildNewUser(CreateUserRequest userRequest) {
+        User user = new User();
+        BeanUtils.copyProperties(userRequest, user);
+        user.setStatus("0");
+        user.setDelFlag(0);
+        user.setCreateTime(LocalDateTime.now());
+        user.setUpdateTime(LocalDateTime.now());
+        return user;
+    }
+
+    /**
+     * 新用户写入本实例可用性索引，并通过事件通知其他实例
+     */
+    private void onUserCreated(User user) {
+        userAvailabilityService.recordUser(user);
+        identityEventPublisher.publishUserChanged(user.getId(), user.getUsername());
+    }
+
     /**
      * 更新用户
      */
@@ -200,6 +266,18 @@ public class UserController {
             user.setId(id);
             boolean updated = userService.updateById(user);
             if (updated) {
+                if (affectsAuthorization(user)) {
+                    identityEventPublisher.publishUserAuthorizationChanged(id, user.getUsername());
+                } else {
+                    identityEventPublisher.publishUserChanged(id, user.getUsername());
+                }
+                if (StringUtils.hasText(user.getUsername()) || StringUtils.hasText(user.getEmail())) {
+                    userAvailabilityService.recordUserById(id);
+                }
+                // 修改密码后吊销该用户此前签发的全部令牌
+                if (StringUtils.hasText(user.getPassword())) {
+                    tokenRevocationService.revokeAllForUser(id.toString());
+                }
                 return Result.success("更新成功", user);
             }
             return Result.error("更新失败");
@@ -209,6 +287,14 @@ public class UserController {
         }
     }
 
+    /**
+     * 更新内容是否涉及令牌中的授权声明（状态、用户类型、租户）
+     */
+    private static boolean affectsAuthorization(User user) {
+        return user.getStatus() != null || user.getUserType() != null || user.getTenantId() != null
+                || user.getDelFlag() != null;
+    }
+
     /**
      * 删除用户
      */
@@ -226,6 +312,8 @@ public class UserController {
             boolean deleted = userService.updateById(user);
             
             if (deleted) {
+                identityEventPublisher.publishUserAuthorizationChanged(id, user.getUsername());
+                tokenRevocationService.revokeAllForUser(id.toString());
                 return Result.success("删除成功", null);
             }
             return Result.error("删除失败");
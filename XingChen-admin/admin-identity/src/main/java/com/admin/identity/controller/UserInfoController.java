@@ -42,7 +42,8 @@ public class UserInfoController {
         userInfo.put("username", UserContextUtil.getUsername(request));
         userInfo.put("tenantId", UserContextUtil.getTenantId(request));
         userInfo.put("userType", UserContextUtil.getUserType(request));
-        userInfo.put("roles", UserContextUtil.getUserRoles(request));
+        userInfo.put("roles", UserContextUtil.getUserRoleList(request));
+        userInfo.put("authzVersion", UserContextUtil.getAuthzVersion(request));
         userInfo.put("clientIp", UserContextUtil.getClientIp(request));
         userInfo.put("authSource", UserContextUtil.getAuthSource(request));
         userInfo.put("authTime", UserContextUtil.getAuthTime(request));
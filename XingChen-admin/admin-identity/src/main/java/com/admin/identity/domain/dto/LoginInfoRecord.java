@@ -0,0 +1,22 @@
+package com.admin.identity.domain.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户最新登录信息（写缓冲中的一条待写记录）
+ *
+ * @param userId    用户ID
+ * @param loginDate 登录时间
+ * @param loginIp   登录IP
+ * @author admin
+ * @since 2024-08-27
+ */
+public record LoginInfoRecord(Long userId, LocalDateTime loginDate, String loginIp) {
+
+    /**
+     * 合并同一用户的两条记录，保留登录时间较晚的一条
+     */
+    public static LoginInfoRecord latest(LoginInfoRecord a, LoginInfoRecord b) {
+        return b.loginDate().isBefore(a.loginDate()) ? a : b;
+    }
+}
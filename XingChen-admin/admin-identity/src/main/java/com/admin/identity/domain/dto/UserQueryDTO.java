@@ -1,5 +1,6 @@
 package com.admin.identity.domain.dto;
 
+import com.admin.common.web.page.CountMode;
 import lombok.Data;
 import org.springframework.format.annotation.DateTimeFormat;
 
@@ -157,6 +158,11 @@ public class UserQueryDTO {
      */
     private Integer pageSize = 10;
 
+    /**
+     * 总数统计方式（EXACT / CACHED / APPROXIMATE），为空时使用服务默认配置
+     */
+    private CountMode countMode;
+
     /**
      * 排序字段
      */
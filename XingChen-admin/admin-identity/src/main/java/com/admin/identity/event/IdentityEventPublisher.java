@@ -0,0 +1,98 @@
+package com.admin.identity.event;
+
+import com.admin.common.event.IdentityChangeEvent;
+import com.admin.common.security.AuthorizationVersionService;
+import com.alibaba.fastjson2.JSON;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 身份变更事件发布器
+ * 存在事务时在提交后发布，避免订阅方在回滚前清掉缓存又读回旧数据；
+ * 影响授权的变更同时递增授权版本，使此前签发的访问令牌失效并在刷新后带上新角色
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdentityEventPublisher {
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final AuthorizationVersionService authorizationVersionService;
+
+    /**
+     * 用户资料/状态变更
+     */
+    public void publishUserChanged(Long userId, String username) {
+        publish(IdentityChangeEvent.user(userId, username));
+    }
+
+    /**
+     * 用户授权信息变更（状态、类型、租户、角色分配、删除）
+     */
+    public void publishUserAuthorizationChanged(Long userId, String username) {
+        afterCommit(() -> {
+            bump(() -> authorizationVersionService.bumpUser(userId));
+            send(IdentityChangeEvent.user(userId, username));
+        });
+    }
+
+    /**
+     * 角色变更，只递增持有这些角色的用户的授权版本
+     * userIds 需在事务内、删除用户角色关联之前查询
+     */
+    public void publishRolesChanged(Collection<Long> roleIds, Collection<Long> userIds) {
+        List<Long> roles = List.copyOf(roleIds);
+        Set<Long> users = new LinkedHashSet<>(userIds);
+        afterCommit(() -> {
+            bump(() -> authorizationVersionService.bumpUsers(users));
+            roles.forEach(roleId -> send(IdentityChangeEvent.role(roleId)));
+        });
+    }
+
+    public void publish(IdentityChangeEvent event) {
+        afterCommit(() -> send(event));
+    }
+
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private void bump(Runnable bump) {
+        try {
+            bump.run();
+        } catch (Exception e) {
+            // 递增失败时旧令牌在过期前仍携带旧角色，订阅方缓存照常失效
+            log.warn("递增授权版本失败: {}", e.getMessage());
+        }
+    }
+
+    private void send(IdentityChangeEvent event) {
+        try {
+            stringRedisTemplate.convertAndSend(IdentityChangeEvent.CHANNEL, JSON.toJSONString(event));
+        } catch (Exception e) {
+            // 发布失败时订阅方依赖缓存TTL兜底
+            log.warn("发布身份变更事件失败: {}, {}", event, e.getMessage());
+        }
+    }
+}
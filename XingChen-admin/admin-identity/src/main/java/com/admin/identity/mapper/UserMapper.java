@@ -1,9 +1,16 @@
 package com.admin.identity.mapper;
 
+import com.admin.identity.domain.dto.LoginInfoRecord;
 import com.admin.identity.domain.entity.User;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+import org.apache.ibatis.mapping.ResultSetType;
+import org.apache.ibatis.session.ResultHandler;
 import java.util.List;
 
 /**
@@ -23,4 +30,38 @@ public interface UserMapper extends BaseMapper<User> {
             "LEFT JOIN sys_role r ON ur.role_id = r.id " +
             "WHERE ur.user_id = #{userId} AND ur.status = '0' AND r.status = '0'")
     List<String> selectRolesByUserId(Long userId);
+
+    /**
+     * 查询与唯一索引（全局用户名/邮箱、租户内手机号）冲突的用户
+     * 唯一索引不区分删除标志，因此这里不走逻辑删除过滤，已删除用户同样计入冲突
+     */
+    @Select("SELECT id, username, email, phone FROM sys_user " +
+            "WHERE username = #{username} OR email = #{email} " +
+            "OR (tenant_id = #{tenantId} AND phone = #{phone})")
+    List<User> selectUniqueConflicts(@Param("tenantId") Long tenantId,
+                                     @Param("username") String username,
+                                     @Param("email") String email,
+                                     @Param("phone") String phone);
+
+    /**
+     * 流式扫描有效用户的用户名/邮箱（MySQL 逐行读取，不在内存中堆积结果集）
+     */
+    @Select("SELECT username, email FROM sys_user WHERE del_flag = 0")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    @ResultType(User.class)
+    void streamActiveIdentityKeys(ResultHandler<User> handler);
+
+    /**
+     * 批量更新最后登录信息，一条语句写入一批用户（调用方按用户ID排序）
+     */
+    @Update("<script>" +
+            "UPDATE sys_user SET " +
+            "login_date = CASE id " +
+            "<foreach collection='records' item='r'>WHEN #{r.userId} THEN #{r.loginDate} </foreach>END, " +
+            "login_ip = CASE id " +
+            "<foreach collection='records' item='r'>WHEN #{r.userId} THEN #{r.loginIp} </foreach>END, " +
+            "update_time = NOW() " +
+            "WHERE id IN <foreach collection='records' item='r' open='(' separator=',' close=')'>#{r.userId}</foreach>" +
+            "</script>")
+    int batchUpdateLoginInfo(@Param("records") List<LoginInfoRecord> records);
 }
@@ -5,6 +5,7 @@ import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -56,6 +57,14 @@ public interface UserRoleMapper extends BaseMapper<UserRole> {
      */
     List<Long> selectUserIdsByRoleId(@Param("roleId") Long roleId);
 
+    /**
+     * 根据角色ID批量查询用户ID列表（去重）
+     *
+     * @param roleIds 角色ID列表
+     * @return 用户ID列表
+     */
+    List<Long> selectUserIdsByRoleIds(@Param("roleIds") Collection<Long> roleIds);
+
     /**
      * 检查用户是否拥有指定角色
      *
@@ -0,0 +1,49 @@
+package com.admin.identity.service;
+
+import com.admin.identity.domain.entity.User;
+
+/**
+ * 用户名/邮箱可用性服务
+ * 用户名、邮箱全局唯一，基于全局布隆过滤器：过滤器判定不存在时直接返回可用，仅“可能存在”时回源数据库确认
+ *
+ * @author admin
+ * @version 1.0
+ * @since 2024-08-27
+ */
+public interface UserAvailabilityService {
+
+    /**
+     * 用户名是否已被占用（全部租户范围）
+     *
+     * @param username 用户名
+     * @return 是否已占用
+     */
+    boolean isUsernameTaken(String username);
+
+    /**
+     * 邮箱是否已被占用（全部租户范围）
+     *
+     * @param email 邮箱
+     * @return 是否已占用
+     */
+    boolean isEmailTaken(String email);
+
+    /**
+     * 记录新建或修改后的用户名/邮箱
+     *
+     * @param user 用户（需包含用户名、邮箱）
+     */
+    void recordUser(User user);
+
+    /**
+     * 按用户ID重新读取并记录（用于其他实例发布的用户变更事件）
+     *
+     * @param userId 用户ID
+     */
+    void recordUserById(Long userId);
+
+    /**
+     * 全量重建索引（流式扫描用户表）
+     */
+    void rebuild();
+}
@@ -1,5 +1,6 @@
 package com.admin.identity.service;
 
+import com.admin.identity.api.dto.CreateUserResult;
 import com.admin.identity.domain.entity.User;
 import com.baomidou.mybatisplus.extension.service.IService;
 import java.util.List;
@@ -54,8 +55,19 @@ public interface UserService extends IService<User> {
      */
     boolean existsByEmail(String email);
 
+    /**
+     * 原子创建用户
+     * 不做前置存在性检查，直接插入并依赖唯一索引判重（用户名、邮箱全局唯一，手机号租户内唯一）；
+     * 冲突时返回冲突字段而不抛出异常
+     * 
+     * @param user 用户信息
+     * @return 创建结果
+     */
+    CreateUserResult createUserAtomic(User user);
+
     /**
      * 更新用户最后登录信息
+     * 异步写入：同一用户在刷新间隔内的多次登录合并为一次更新，只保留最新的时间与IP
      * 
      * @param userId 用户ID
      * @param loginIp 登录IP
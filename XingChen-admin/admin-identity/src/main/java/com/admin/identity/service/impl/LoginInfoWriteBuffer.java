@@ -0,0 +1,204 @@
+package com.admin.identity.service.impl;
+
+import com.admin.identity.domain.dto.LoginInfoRecord;
+import com.admin.identity.mapper.UserMapper;
+import com.alibaba.fastjson2.JSON;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 最后登录信息写缓冲（write-behind）
+ * <ul>
+ *     <li>登录时只在内存中按用户记录最新的登录时间/IP，同一用户窗口内多次登录合并为一条</li>
+ *     <li>按固定间隔或缓冲达到批量阈值时，以一条批量 UPDATE 写入，按用户ID排序加锁避免死锁</li>
+ *     <li>写库失败的记录放回缓冲，等待下次刷新（不覆盖期间产生的更新的记录）</li>
+ *     <li>关闭时同步刷新；仍失败则落盘到本地文件，下次启动时重放</li>
+ * </ul>
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@Slf4j
+@Component
+public class LoginInfoWriteBuffer {
+
+    private final UserMapper userMapper;
+    private final Duration flushInterval;
+    private final int batchSize;
+    private final Path spillFile;
+
+    private final ConcurrentHashMap<Long, LoginInfoRecord> pending = new ConcurrentHashMap<>();
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+    private ScheduledExecutorService scheduler;
+
+    public LoginInfoWriteBuffer(UserMapper userMapper,
+                                @Value("${identity.login-info.flush-interval:PT2S}") Duration flushInterval,
+                                @Value("${identity.login-info.batch-size:500}") int batchSize,
+                                @Value("${identity.login-info.spill-file:data/login-info.pending}") String spillFile) {
+        this.userMapper = userMapper;
+        this.flushInterval = flushInterval;
+        this.batchSize = batchSize;
+        this.spillFile = Paths.get(spillFile);
+    }
+
+    @PostConstruct
+    public void start() {
+        replaySpillFile();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "login-info-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = flushInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::flushQuietly, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录一次登录，达到批量阈值时提前触发刷新
+     */
+    public void record(Long userId, String loginIp) {
+        if (userId == null) {
+            return;
+        }
+        pending.merge(userId, new LoginInfoRecord(userId, LocalDateTime.now(), loginIp), LoginInfoRecord::latest);
+        if (pending.size() >= batchSize && scheduler != null && flushScheduled.compareAndSet(false, true)) {
+            scheduler.execute(this::flushQuietly);
+        }
+    }
+
+    /**
+     * 将缓冲内容分批写入数据库
+     *
+     * @return 写入的用户数
+     */
+    public synchronized int flush() {
+        flushScheduled.set(false);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+        List<LoginInfoRecord> drained = new ArrayList<>(pending.size());
+        for (Long userId : pending.keySet()) {
+            LoginInfoRecord record = pending.remove(userId);
+            if (record != null) {
+                drained.add(record);
+            }
+        }
+        drained.sort(Comparator.comparing(LoginInfoRecord::userId));
+
+        int written = 0;
+        for (int from = 0; from < drained.size(); from += batchSize) {
+            List<LoginInfoRecord> batch = drained.subList(from, Math.min(from + batchSize, drained.size()));
+            try {
+                userMapper.batchUpdateLoginInfo(batch);
+                written += batch.size();
+            } catch (Exception e) {
+                log.warn("批量写入登录信息失败，{} 条记录放回缓冲: {}", batch.size(), e.getMessage());
+                requeue(batch);
+            }
+        }
+        if (written > 0) {
+            log.debug("登录信息已写入: {} 个用户", written);
+        }
+        return written;
+    }
+
+    /**
+     * 当前待写入的用户数
+     */
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        if (!pending.isEmpty()) {
+            spill();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            log.warn("刷新登录信息缓冲失败: {}", e.getMessage());
+        }
+    }
+
+    private void requeue(List<LoginInfoRecord> records) {
+        for (LoginInfoRecord record : records) {
+            pending.merge(record.userId(), record, LoginInfoRecord::latest);
+        }
+    }
+
+    /**
+     * 落盘未写入的记录（每行一条 JSON），写完后强制刷到磁盘
+     */
+    private void spill() {
+        List<String> lines = new ArrayList<>(pending.size());
+        for (LoginInfoRecord record : pending.values()) {
+            lines.add(JSON.toJSONString(record));
+        }
+        try {
+            if (spillFile.getParent() != null) {
+                Files.createDirectories(spillFile.getParent());
+            }
+            Files.write(spillFile, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+            log.warn("关闭时登录信息未能写库，已落盘 {} 条: {}", lines.size(), spillFile.toAbsolutePath());
+            pending.clear();
+        } catch (IOException e) {
+            log.error("登录信息落盘失败，丢弃 {} 条记录", lines.size(), e);
+        }
+    }
+
+    /**
+     * 重放上次关闭时落盘的记录，重放后删除文件
+     */
+    private void replaySpillFile() {
+        if (!Files.exists(spillFile)) {
+            return;
+        }
+        try {
+            List<String> lines = Files.readAllLines(spillFile, StandardCharsets.UTF_8);
+            for (String line : lines) {
+                if (!line.isBlank()) {
+                    LoginInfoRecord record = JSON.parseObject(line, LoginInfoRecord.class);
+                    pending.merge(record.userId(), record, LoginInfoRecord::latest);
+                }
+            }
+            Files.delete(spillFile);
+            log.info("已从落盘文件恢复 {} 条登录信息", lines.size());
+        } catch (Exception e) {
+            log.error("重放登录信息落盘文件失败: {}", spillFile.toAbsolutePath(), e);
+        }
+    }
+}
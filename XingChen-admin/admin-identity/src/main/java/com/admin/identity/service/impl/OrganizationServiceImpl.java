@@ -2,6 +2,7 @@ package com.admin.identity.service.impl;
 
 import cn.hutool.core.util.StrUtil;
 import com.admin.common.core.exception.ServiceException;
+import com.admin.common.web.page.CountModePage;
 import com.admin.identity.domain.dto.*;
 import com.admin.identity.domain.entity.Organization;
 import com.admin.identity.mapper.OrganizationMapper;
@@ -150,7 +151,7 @@ public class OrganizationServiceImpl extends ServiceImpl<OrganizationMapper, Org
 
     @Override
     public IPage<OrganizationResponseDTO> getOrganizationPage(Long tenantId, OrganizationQueryDTO queryDTO) {
-        Page<OrganizationResponseDTO> page = new Page<>(queryDTO.getPageNum(), queryDTO.getPageSize());
+        Page<OrganizationResponseDTO> page = CountModePage.of(queryDTO.getPageNum(), queryDTO.getPageSize(), queryDTO.getCountMode());
         // 在查询条件中添加租户ID过滤
         return baseMapper.selectOrganizationPage(page, queryDTO);
     }
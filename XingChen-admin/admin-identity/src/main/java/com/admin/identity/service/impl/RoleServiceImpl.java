@@ -2,6 +2,7 @@ package com.admin.identity.service.impl;
 
 import com.admin.identity.domain.entity.Role;
 import com.admin.identity.domain.entity.RolePermission;
+import com.admin.identity.event.IdentityEventPublisher;
 import com.admin.identity.mapper.RoleMapper;
 import com.admin.identity.mapper.RolePermissionMapper;
 import com.admin.identity.mapper.UserRoleMapper;
@@ -32,6 +33,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
 
     private final RolePermissionMapper rolePermissionMapper;
     private final UserRoleMapper userRoleMapper;
+    private final IdentityEventPublisher identityEventPublisher;
 
     @Override
     public IPage<Role> pageByTenant(Page<Role> page, Long tenantId, String roleName, String status) {
@@ -99,6 +101,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
             throw new RuntimeException("更新角色失败");
         }
 
+        publishRolesChanged(List.of(role.getId()));
         log.info("更新角色成功：roleId={}, roleName={}", role.getId(), role.getRoleName());
         return role;
     }
@@ -112,6 +115,9 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
             throw new RuntimeException("角色不存在");
         }
 
+        // 删除关联前记下持有该角色的用户，提交后递增其授权版本
+        List<Long> userIds = userRoleMapper.selectUserIdsByRoleIds(List.of(roleId));
+
         // 删除角色权限关联
         rolePermissionMapper.deleteByRoleId(roleId);
 
@@ -124,6 +130,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
         boolean result = updateById(role);
 
         if (result) {
+            identityEventPublisher.publishRolesChanged(List.of(roleId), userIds);
             log.info("删除角色成功：roleId={}, roleName={}", roleId, role.getRoleName());
         }
 
@@ -137,6 +144,8 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
             return true;
         }
 
+        List<Long> userIds = userRoleMapper.selectUserIdsByRoleIds(roleIds);
+
         // 删除角色权限关联
         rolePermissionMapper.deleteByRoleIds(roleIds);
 
@@ -149,6 +158,7 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
         int result = baseMapper.deleteByIds(roleIds);
 
         if (result > 0) {
+            identityEventPublisher.publishRolesChanged(roleIds, userIds);
             log.info("批量删除角色成功：roleIds={}, 删除数量={}", roleIds, result);
         }
 
@@ -207,9 +217,17 @@ public class RoleServiceImpl extends ServiceImpl<RoleMapper, Role> implements Ro
 
         boolean result = updateById(role);
         if (result) {
+            publishRolesChanged(List.of(roleId));
             log.info("角色状态变更成功：roleId={}, status={}", roleId, status);
         }
 
         return result;
     }
+
+    /**
+     * 通知角色变更，持有者的授权版本在事务提交后递增
+     */
+    private void publishRolesChanged(List<Long> roleIds) {
+        identityEventPublisher.publishRolesChanged(roleIds, userRoleMapper.selectUserIdsByRoleIds(roleIds));
+    }
 }
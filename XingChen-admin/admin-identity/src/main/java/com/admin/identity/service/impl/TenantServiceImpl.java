@@ -2,6 +2,7 @@ package com.admin.identity.service.impl;
 
 import cn.hutool.core.util.StrUtil;
 import com.admin.common.core.exception.ServiceException;
+import com.admin.common.web.page.CountModePage;
 import com.admin.identity.domain.dto.*;
 import com.admin.identity.domain.entity.Tenant;
 import com.admin.identity.mapper.TenantMapper;
@@ -149,7 +150,7 @@ public class TenantServiceImpl extends ServiceImpl<TenantMapper, Tenant> impleme
 
     @Override
     public IPage<TenantResponseDTO> getTenantPage(TenantQueryDTO queryDTO) {
-        Page<TenantResponseDTO> page = new Page<>(queryDTO.getPageNum(), queryDTO.getPageSize());
+        Page<TenantResponseDTO> page = CountModePage.of(queryDTO.getPageNum(), queryDTO.getPageSize(), queryDTO.getCountMode());
         return baseMapper.selectTenantPage(page, queryDTO);
     }
 
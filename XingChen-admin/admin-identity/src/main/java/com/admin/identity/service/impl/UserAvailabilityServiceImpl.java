@@ -0,0 +1,241 @@
+package com.admin.identity.service.impl;
+
+import com.admin.common.util.BloomFilter;
+import com.admin.identity.domain.entity.User;
+import com.admin.identity.mapper.UserMapper;
+import com.admin.identity.service.UserAvailabilityService;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.baomidou.mybatisplus.core.toolkit.support.SFunction;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * 用户名/邮箱可用性服务实现
+ * <ul>
+ *     <li>用户名、邮箱全局唯一，全局维护两个布隆过滤器，键统一转小写（与 MySQL 默认排序规则一致）</li>
+ *     <li>启动后在后台流式扫描用户表重建，重建完成前及关闭时全部回源数据库</li>
+ *     <li>新建/修改用户时追加；布隆过滤器不支持删除，删除后的残留只会造成回源，不影响正确性</li>
+ *     <li>元素数超出预期容量时触发全量重建，使误判率回到目标值</li>
+ * </ul>
+ *
+ * @author admin
+ * @version 1.0
+ * @since 2024-08-27
+ */
+@Slf4j
+@Service
+public class UserAvailabilityServiceImpl implements UserAvailabilityService {
+
+    private final UserMapper userMapper;
+    private final boolean enabled;
+    private final double fpp;
+    private final long minCapacity;
+
+    private volatile IdentityIndex index;
+    private volatile boolean ready;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    private final Queue<User> pendingDuringRebuild = new ConcurrentLinkedQueue<>();
+
+    private final CheckStats usernameStats;
+    private final CheckStats emailStats;
+
+    public UserAvailabilityServiceImpl(UserMapper userMapper,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${identity.availability.enabled:true}") boolean enabled,
+                                       @Value("${identity.availability.fpp:0.01}") double fpp,
+                                       @Value("${identity.availability.min-capacity:10000}") long minCapacity) {
+        this.userMapper = userMapper;
+        this.enabled = enabled;
+        this.fpp = fpp;
+        this.minCapacity = minCapacity;
+        this.index = new IdentityIndex(minCapacity, fpp);
+        this.usernameStats = new CheckStats(meterRegistry, "username", IdentityIndex::usernames);
+        this.emailStats = new CheckStats(meterRegistry, "email", IdentityIndex::emails);
+    }
+
+    @Override
+    public boolean isUsernameTaken(String username) {
+        return isTaken(usernameStats, User::getUsername, username);
+    }
+
+    @Override
+    public boolean isEmailTaken(String email) {
+        return isTaken(emailStats, User::getEmail, email);
+    }
+
+    @Override
+    public void recordUser(User user) {
+        if (!enabled || user == null) {
+            return;
+        }
+        if (rebuilding.get()) {
+            pendingDuringRebuild.add(user);
+        }
+        IdentityIndex current = index;
+        current.record(user);
+        if (current.isSaturated() && !rebuilding.get()) {
+            log.info("用户可用性索引超出预期容量，触发重建");
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+
+    @Override
+    public void recordUserById(Long userId) {
+        if (!enabled || userId == null) {
+            return;
+        }
+        User user = userMapper.selectById(userId);
+        if (user != null) {
+            recordUser(user);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildOnStartup() {
+        if (enabled) {
+            CompletableFuture.runAsync(this::rebuild);
+        }
+    }
+
+    @Override
+    public void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Long total = userMapper.selectCount(new LambdaQueryWrapper<User>().eq(User::getDelFlag, 0));
+            IdentityIndex fresh = new IdentityIndex(Math.max(minCapacity, (total != null ? total : 0) * 2), fpp);
+
+            AtomicLong scanned = new AtomicLong();
+            userMapper.streamActiveIdentityKeys(context -> {
+                fresh.record(context.getResultObject());
+                scanned.incrementAndGet();
+            });
+
+            index = fresh;
+            User pending;
+            while ((pending = pendingDuringRebuild.poll()) != null) {
+                fresh.record(pending);
+            }
+            ready = true;
+            log.info("用户可用性索引重建完成: 用户 {} 个, 容量 {}, 耗时 {}ms",
+                    scanned.get(), fresh.capacity(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.warn("用户可用性索引重建失败，继续回源数据库: {}", e.getMessage());
+        } finally {
+            pendingDuringRebuild.clear();
+            rebuilding.set(false);
+        }
+    }
+
+    private boolean isTaken(CheckStats stats, SFunction<User, String> column, String value) {
+        boolean indexed = enabled && ready && StringUtils.hasText(value);
+        if (indexed && !stats.filterOf.apply(index).mightContain(normalize(value))) {
+            stats.bloomNegative.increment();
+            return false;
+        }
+
+        LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
+        queryWrapper.eq(column, value)
+                   .eq(User::getDelFlag, 0);
+        boolean exists = userMapper.selectCount(queryWrapper) > 0;
+
+        if (!indexed) {
+            stats.unindexed.increment();
+        } else if (exists) {
+            stats.confirmed.increment();
+        } else {
+            stats.falsePositive.increment();
+        }
+        return exists;
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 用户名/邮箱过滤器
+     */
+    private record IdentityIndex(BloomFilter usernames, BloomFilter emails, long capacity) {
+
+        IdentityIndex(long capacity, double fpp) {
+            this(BloomFilter.create(capacity, fpp), BloomFilter.create(capacity, fpp), capacity);
+        }
+
+        void record(User user) {
+            if (StringUtils.hasText(user.getUsername())) {
+                usernames.put(normalize(user.getUsername()));
+            }
+            if (StringUtils.hasText(user.getEmail())) {
+                emails.put(normalize(user.getEmail()));
+            }
+        }
+
+        boolean isSaturated() {
+            return usernames.isSaturated() || emails.isSaturated();
+        }
+    }
+
+    /**
+     * 单个字段的查询统计
+     * 实测误判率 = 回源后不存在次数 / (回源后不存在次数 + 过滤器直接判定不存在次数)
+     */
+    private class CheckStats {
+
+        private final Function<IdentityIndex, BloomFilter> filterOf;
+        private final Counter bloomNegative;
+        private final Counter confirmed;
+        private final Counter falsePositive;
+        private final Counter unindexed;
+
+        CheckStats(MeterRegistry meterRegistry, String field, Function<IdentityIndex, BloomFilter> filterOf) {
+            this.filterOf = filterOf;
+            this.bloomNegative = counter(meterRegistry, field, "bloom_negative");
+            this.confirmed = counter(meterRegistry, field, "confirmed");
+            this.falsePositive = counter(meterRegistry, field, "false_positive");
+            this.unindexed = counter(meterRegistry, field, "unindexed");
+            Gauge.builder("identity.availability.fpp.observed", this, CheckStats::observedFpp)
+                    .description("可用性检查实测误判率")
+                    .tag("field", field)
+                    .register(meterRegistry);
+            Gauge.builder("identity.availability.fpp.estimated", this, CheckStats::estimatedFpp)
+                    .description("按置位比例估算的误判率")
+                    .tag("field", field)
+                    .register(meterRegistry);
+        }
+
+        double observedFpp() {
+            double negatives = falsePositive.count() + bloomNegative.count();
+            return negatives == 0 ? 0 : falsePositive.count() / negatives;
+        }
+
+        double estimatedFpp() {
+            return filterOf.apply(index).expectedFpp();
+        }
+
+        private static Counter counter(MeterRegistry meterRegistry, String field, String outcome) {
+            return Counter.builder("identity.availability.checks")
+                    .description("用户名/邮箱可用性检查次数")
+                    .tag("field", field)
+                    .tag("outcome", outcome)
+                    .register(meterRegistry);
+        }
+    }
+}
@@ -1,16 +1,17 @@
 package com.admin.identity.service.impl;
 
+import com.admin.identity.api.dto.CreateUserResult;
 import com.admin.identity.domain.entity.User;
 import com.admin.identity.mapper.UserMapper;
 import com.admin.identity.service.UserService;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
-import com.baomidou.mybatisplus.core.conditions.update.LambdaUpdateWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.List;
 
@@ -25,8 +26,11 @@ import java.util.List;
 @Slf4j
 @Service
 @Transactional
+@RequiredArgsConstructor
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements UserService {
 
+    private final LoginInfoWriteBuffer loginInfoWriteBuffer;
+
     @Override
     public User getUserByUsername(String username) {
         LambdaQueryWrapper<User> queryWrapper = new LambdaQueryWrapper<>();
@@ -71,18 +75,41 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements Us
     }
 
     @Override
-    public void updateLastLoginInfo(Long userId, String loginIp) {
+    public CreateUserResult createUserAtomic(User user) {
+        CreateUserResult result = new CreateUserResult();
         try {
-            LambdaUpdateWrapper<User> updateWrapper = new LambdaUpdateWrapper<>();
-            updateWrapper.eq(User::getId, userId)
-                        .set(User::getLoginDate, LocalDateTime.now())
-                        .set(User::getLoginIp, loginIp)
-                        .set(User::getUpdateTime, LocalDateTime.now());
-            
-            this.update(updateWrapper);
-            log.info("用户登录信息更新成功，用户ID: {}, 登录IP: {}", userId, loginIp);
-        } catch (Exception e) {
-            log.error("更新用户登录信息失败，用户ID: {}", userId, e);
+            this.save(user);
+            result.setUserId(user.getId());
+            return result;
+        } catch (DuplicateKeyException e) {
+            // 插入失败后一次查询定位所有冲突字段，MySQL 唯一键冲突不会中止当前事务
+            List<User> conflicts = baseMapper.selectUniqueConflicts(user.getTenantId(),
+                    user.getUsername(), user.getEmail(), user.getPhone());
+            for (User existing : conflicts) {
+                result.setUsernameTaken(result.isUsernameTaken() || equalsIgnoreCase(existing.getUsername(), user.getUsername()));
+                result.setEmailTaken(result.isEmailTaken() || equalsIgnoreCase(existing.getEmail(), user.getEmail()));
+                result.setPhoneTaken(result.isPhoneTaken() || equalsIgnoreCase(existing.getPhone(), user.getPhone()));
+            }
+            if (!result.hasConflict()) {
+                // 冲突行已被并发删除或为其他唯一键，交由调用方按异常处理
+                throw e;
+            }
+            log.info("创建用户冲突: username={}, {}", user.getUsername(), result.conflictMessage());
+            return result;
         }
     }
+
+    /**
+     * 与 MySQL 默认排序规则一致，唯一索引比较不区分大小写
+     */
+    private static boolean equalsIgnoreCase(String existing, String candidate) {
+        return existing != null && existing.equalsIgnoreCase(candidate);
+    }
+
+    @Override
+    public void updateLastLoginInfo(Long userId, String loginIp) {
+        // 写入缓冲，由 LoginInfoWriteBuffer 合并后批量落库
+        loginInfoWriteBuffer.record(userId, loginIp);
+        log.debug("用户登录信息已缓冲，用户ID: {}, 登录IP: {}", userId, loginIp);
+    }
 }
\ No newline at end of file
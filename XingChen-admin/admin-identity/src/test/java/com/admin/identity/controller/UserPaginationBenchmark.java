@@ -0,0 +1,144 @@
+package com.admin.identity.controller;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 用户列表偏移分页与游标分页对比
+ * H2（MySQL 模式）内存库中的 sys_user 精简表，执行两种模式实际生成的 SQL：
+ * <ul>
+ *     <li>offset：/users/page，COUNT(*) + ORDER BY create_time DESC LIMIT size OFFSET (page-1)*size</li>
+ *     <li>keyset：/users/cursor，id &lt; 游标 ORDER BY id DESC LIMIT size+1，无 COUNT</li>
+ * </ul>
+ * 分别测第 1 页与第 10,000 页（每页 10 条）。游标分页翻到第 N 页时客户端已持有上一页游标，这里直接按 id 计算。
+ * <p>
+ * 运行方式：mvn -pl admin-identity -am test-compile 生成 JMH 元数据后执行 main 方法
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserPaginationBenchmark {
+
+    private static final int ROWS = 200_000;
+    private static final int SIZE = 10;
+
+    @Param({"1", "10000"})
+    public int page;
+
+    private Connection connection;
+    private PreparedStatement count;
+    private PreparedStatement offsetPage;
+    private PreparedStatement keysetFirst;
+    private PreparedStatement keysetNext;
+    private long cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection("jdbc:h2:mem:pagination;MODE=MySQL;DB_CLOSE_DELAY=-1;OPTIMIZE_REUSE_RESULTS=FALSE;QUERY_CACHE_SIZE=0");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS sys_user");
+            statement.execute("CREATE TABLE sys_user (id BIGINT AUTO_INCREMENT PRIMARY KEY, tenant_id BIGINT NOT NULL, "
+                    + "username VARCHAR(30) NOT NULL, nickname VARCHAR(30), status CHAR(1) DEFAULT '0', "
+                    + "create_time TIMESTAMP DEFAULT CURRENT_TIMESTAMP, del_flag TINYINT DEFAULT 0)");
+        }
+        connection.setAutoCommit(false);
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO sys_user (tenant_id, username, nickname, create_time) VALUES (1, ?, ?, DATEADD('SECOND', ?, TIMESTAMP '2024-01-01 00:00:00'))")) {
+            for (int i = 1; i <= ROWS; i++) {
+                insert.setString(1, "user" + i);
+                insert.setString(2, "nick" + i);
+                insert.setInt(3, i);
+                insert.addBatch();
+                if (i % 5_000 == 0) {
+                    insert.executeBatch();
+                }
+            }
+        }
+        connection.commit();
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            // InnoDB 可反向扫描主键；H2 需显式倒序索引才能同样按 id DESC 直接定位
+            statement.execute("CREATE INDEX idx_user_id_desc ON sys_user (id DESC)");
+        }
+
+        String columns = "SELECT id, tenant_id, username, nickname, status, create_time FROM sys_user WHERE del_flag = 0";
+        count = connection.prepareStatement("SELECT COUNT(*) FROM sys_user WHERE del_flag = 0");
+        offsetPage = connection.prepareStatement(columns + " ORDER BY create_time DESC LIMIT ? OFFSET ?");
+        keysetFirst = connection.prepareStatement(columns + " ORDER BY id DESC LIMIT ?");
+        keysetNext = connection.prepareStatement(columns + " AND id < ? ORDER BY id DESC LIMIT ?");
+        // id 连续自增，第 page 页的游标即上一页最后一条的 id
+        cursor = ROWS - (long) (page - 1) * SIZE + 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        connection.close();
+    }
+
+    @Benchmark
+    public void offset(Blackhole blackhole) throws Exception {
+        try (ResultSet rs = count.executeQuery()) {
+            rs.next();
+            blackhole.consume(rs.getLong(1));
+        }
+        offsetPage.setInt(1, SIZE);
+        offsetPage.setLong(2, (long) (page - 1) * SIZE);
+        consume(offsetPage, blackhole);
+    }
+
+    @Benchmark
+    public void keyset(Blackhole blackhole) throws Exception {
+        if (page == 1) {
+            keysetFirst.setInt(1, SIZE + 1);
+            consume(keysetFirst, blackhole);
+        } else {
+            keysetNext.setLong(1, cursor);
+            keysetNext.setInt(2, SIZE + 1);
+            consume(keysetNext, blackhole);
+        }
+    }
+
+    private static void consume(PreparedStatement statement, Blackhole blackhole) throws Exception {
+        try (ResultSet rs = statement.executeQuery()) {
+            while (rs.next()) {
+                blackhole.consume(rs.getLong(1));
+                blackhole.consume(rs.getString(3));
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .include(UserPaginationBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
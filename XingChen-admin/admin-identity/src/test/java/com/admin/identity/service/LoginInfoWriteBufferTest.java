@@ -0,0 +1,106 @@
+package com.admin.identity.service;
+
+import com.admin.identity.domain.dto.LoginInfoRecord;
+import com.admin.identity.mapper.UserMapper;
+import com.admin.identity.service.impl.LoginInfoWriteBuffer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * 登录信息写缓冲测试
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@ExtendWith(MockitoExtension.class)
+class LoginInfoWriteBufferTest {
+
+    @Mock
+    private UserMapper userMapper;
+
+    @TempDir
+    Path tempDir;
+
+    private Path spillFile;
+    private LoginInfoWriteBuffer buffer;
+
+    @BeforeEach
+    void setUp() {
+        spillFile = tempDir.resolve("login-info.pending");
+        buffer = new LoginInfoWriteBuffer(userMapper, Duration.ofSeconds(2), 500, spillFile.toString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testRepeatedLoginsOfSameUser_CoalesceIntoOneWrite() {
+        // 窗口内同一用户登录 N 次
+        for (int i = 0; i < 50; i++) {
+            buffer.record(1L, "10.0.0." + i);
+        }
+
+        assertEquals(1, buffer.pendingCount());
+        assertEquals(1, buffer.flush());
+
+        ArgumentCaptor<List<LoginInfoRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userMapper, times(1)).batchUpdateLoginInfo(captor.capture());
+        List<LoginInfoRecord> written = captor.getValue();
+        assertEquals(1, written.size());
+        assertEquals(1L, written.get(0).userId());
+        assertEquals("10.0.0.49", written.get(0).loginIp());
+
+        // 缓冲已清空，再次刷新不写库
+        assertEquals(0, buffer.flush());
+        verifyNoMoreInteractions(userMapper);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDifferentUsers_WrittenInOneBatchOrderedById() {
+        buffer.record(3L, "10.0.0.3");
+        buffer.record(1L, "10.0.0.1");
+        buffer.record(2L, "10.0.0.2");
+
+        assertEquals(3, buffer.flush());
+
+        ArgumentCaptor<List<LoginInfoRecord>> captor = ArgumentCaptor.forClass(List.class);
+        verify(userMapper, times(1)).batchUpdateLoginInfo(captor.capture());
+        assertEquals(List.of(1L, 2L, 3L), captor.getValue().stream().map(LoginInfoRecord::userId).toList());
+    }
+
+    @Test
+    void testShutdownWithDatabaseDown_SpillsAndReplaysOnStart() throws Exception {
+        when(userMapper.batchUpdateLoginInfo(anyList())).thenThrow(new RuntimeException("db down"));
+        buffer.record(1L, "10.0.0.1");
+
+        buffer.shutdown();
+
+        assertTrue(Files.exists(spillFile));
+        assertEquals(0, buffer.pendingCount());
+
+        LoginInfoWriteBuffer restarted = new LoginInfoWriteBuffer(userMapper, Duration.ofMinutes(1), 500,
+                spillFile.toString());
+        restarted.start();
+        try {
+            assertFalse(Files.exists(spillFile));
+            assertEquals(1, restarted.pendingCount());
+        } finally {
+            reset(userMapper);
+            restarted.shutdown();
+        }
+        verify(userMapper, times(1)).batchUpdateLoginInfo(anyList());
+    }
+}
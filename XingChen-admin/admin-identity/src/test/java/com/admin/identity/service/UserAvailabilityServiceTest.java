@@ -0,0 +1,145 @@
+package com.admin.identity.service;
+
+import com.admin.identity.domain.entity.User;
+import com.admin.identity.mapper.UserMapper;
+import com.admin.identity.service.impl.UserAvailabilityServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * 用户名/邮箱可用性服务测试
+ *
+ * @author admin
+ * @since 2024-08-27
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UserAvailabilityServiceTest {
+
+    @Mock
+    private UserMapper userMapper;
+
+    private final List<User> table = new ArrayList<>();
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        table.add(user(1L, "alice", "alice@example.com"));
+        table.add(user(2L, "bob", "bob@example.com"));
+        doAnswer(invocation -> {
+            ResultHandler<User> handler = invocation.getArgument(0);
+            DefaultResultContext<User> context = new DefaultResultContext<>();
+            for (User user : List.copyOf(table)) {
+                context.nextResultObject(user);
+                handler.handleResult(context);
+            }
+            return null;
+        }).when(userMapper).streamActiveIdentityKeys(any());
+    }
+
+    @Test
+    void definiteMissSkipsDatabase() {
+        UserAvailabilityService service = rebuilt(10_000);
+
+        assertFalse(service.isUsernameTaken("carol"));
+        assertFalse(service.isEmailTaken("carol@example.com"));
+
+        verify(userMapper, never()).selectCount(any());
+        assertEquals(2, checks("username", "bloom_negative") + checks("email", "bloom_negative"));
+    }
+
+    @Test
+    void probableHitFallsThroughToCount() {
+        UserAvailabilityService service = rebuilt(10_000);
+        when(userMapper.selectCount(any())).thenReturn(1L);
+
+        // 大小写不敏感，与 MySQL 默认排序规则一致
+        assertTrue(service.isUsernameTaken("Alice"));
+
+        verify(userMapper, times(1)).selectCount(any());
+        assertEquals(1, checks("username", "confirmed"));
+
+        // 已删除的用户仍在过滤器中，回源后确认可用并计为误判
+        when(userMapper.selectCount(any())).thenReturn(0L);
+        assertFalse(service.isEmailTaken("bob@example.com"));
+        assertEquals(1, checks("email", "false_positive"));
+    }
+
+    @Test
+    void unreadyIndexAlwaysQueriesDatabase() {
+        UserAvailabilityService service = new UserAvailabilityServiceImpl(userMapper, meterRegistry, true, 0.01, 10_000);
+        when(userMapper.selectCount(any())).thenReturn(0L);
+
+        assertFalse(service.isUsernameTaken("carol"));
+
+        verify(userMapper, times(1)).selectCount(any());
+        assertEquals(1, checks("username", "unindexed"));
+    }
+
+    @Test
+    void recordedUserIsVisibleWithoutRebuild() {
+        UserAvailabilityService service = rebuilt(10_000);
+        service.recordUser(user(3L, "Carol", "carol@example.com"));
+        when(userMapper.selectCount(any())).thenReturn(1L);
+
+        assertTrue(service.isUsernameTaken("carol"));
+        assertTrue(service.isEmailTaken("CAROL@example.com"));
+        verify(userMapper, times(2)).selectCount(any());
+    }
+
+    @Test
+    void exceedingCapacityTriggersRebuild() {
+        UserAvailabilityService service = rebuilt(4);
+
+        for (long id = 3; id <= 6; id++) {
+            User user = user(id, "user-" + id, "user-" + id + "@example.com");
+            table.add(user);
+            service.recordUser(user);
+        }
+
+        // 第 5 个元素使过滤器超出容量，后台按当前用户数重建
+        verify(userMapper, timeout(2000).times(1)).streamActiveIdentityKeys(any());
+        when(userMapper.selectCount(any())).thenReturn(1L);
+        assertTrue(service.isUsernameTaken("user-6"));
+    }
+
+    private UserAvailabilityService rebuilt(long minCapacity) {
+        UserAvailabilityService service =
+                new UserAvailabilityServiceImpl(userMapper, meterRegistry, true, 0.01, minCapacity);
+        when(userMapper.selectCount(any())).thenReturn((long) table.size());
+        service.rebuild();
+        clearInvocations(userMapper);
+        return service;
+    }
+
+    private double checks(String field, String outcome) {
+        return meterRegistry.get("identity.availability.checks").tag("field", field).tag("outcome", outcome)
+                .counter().count();
+    }
+
+    private static User user(Long id, String username, String email) {
+        User user = new User();
+        user.setId(id);
+        user.setTenantId(1L);
+        user.setUsername(username);
+        user.setEmail(email);
+        return user;
+    }
+}
@@ -112,9 +112,9 @@ CREATE TABLE sys_user (
     del_flag tinyint(1) DEFAULT 0 COMMENT '删除标志',
     remark varchar(500) COMMENT '备注',
     
-    UNIQUE KEY uk_tenant_username (tenant_id, username),
+    UNIQUE KEY uk_username (username),
+    UNIQUE KEY uk_email (email),
     UNIQUE KEY uk_tenant_phone (tenant_id, phone),
-    UNIQUE KEY uk_tenant_email (tenant_id, email),
     INDEX idx_tenant_id (tenant_id),
     INDEX idx_superior_id (superior_id),
     INDEX idx_status (status),
@@ -147,6 +147,17 @@ SELECT
     COUNT(*) as record_count
 FROM admin_identity.sys_role_permission;
 
+-- 4.1 用户名、邮箱全局唯一（登录按用户名查找，不区分租户）
+-- 先确认没有跨租户重复，有结果时需先人工处理
+SELECT username, COUNT(*) FROM admin_identity.sys_user GROUP BY username HAVING COUNT(*) > 1;
+SELECT email, COUNT(*) FROM admin_identity.sys_user WHERE email IS NOT NULL GROUP BY email HAVING COUNT(*) > 1;
+
+ALTER TABLE admin_identity.sys_user
+    DROP INDEX uk_tenant_username,
+    DROP INDEX uk_tenant_email,
+    ADD UNIQUE KEY uk_username (username),
+    ADD UNIQUE KEY uk_email (email);
+
 -- =============================================
 -- 步骤5: 清理说明
 -- =============================================